@@ -0,0 +1,45 @@
+package com.trading.engine;
+
+import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Builders shared by the benchmarks. Bid prices step down from {@link #MID} and ask
+ * prices step up from it one tick per level, so books of any depth never cross.
+ */
+public final class BenchmarkOrders {
+
+    public static final String SYMBOL = "BENCH";
+    public static final BigDecimal MID = new BigDecimal("100.0000");
+    public static final BigDecimal TICK = new BigDecimal("0.0100");
+
+    private BenchmarkOrders() {
+    }
+
+    public static BigDecimal bidPrice(int level) {
+        return MID.subtract(TICK.multiply(BigDecimal.valueOf(level + 1)));
+    }
+
+    public static BigDecimal askPrice(int level) {
+        return MID.add(TICK.multiply(BigDecimal.valueOf(level + 1)));
+    }
+
+    public static Order order(long orderId, OrderSide side, BigDecimal price, BigDecimal quantity) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setSymbol(SYMBOL);
+        order.setSide(side);
+        order.setType(OrderType.LIMIT);
+        order.setPrice(price);
+        order.setQuantity(quantity);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTraderId("BENCH_" + side);
+        order.setTimestamp(LocalDateTime.now());
+        return order;
+    }
+}
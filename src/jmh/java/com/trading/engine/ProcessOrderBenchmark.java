@@ -0,0 +1,74 @@
+package com.trading.engine;
+
+import com.trading.engine.dto.OrderRequest;
+import com.trading.engine.dto.OrderResponse;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end through {@link OrderService} on the full application context with H2.
+ * Throughput mode, so the write-behind flusher's backpressure shows up once the
+ * database cannot keep pace.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessOrderBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = SpringApplication.run(TradingEngineApplication.class,
+                "--server.port=0",
+                "--trading.journal.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.trading.engine=WARN",
+                "--logging.level.org.springframework.web=WARN");
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object placeAndMatch() {
+        orderService.placeOrder(request(OrderSide.SELL)).join();
+        return orderService.placeOrder(request(OrderSide.BUY)).join();
+    }
+
+    @Benchmark
+    public Object placeAndCancel() {
+        OrderResponse placed = orderService.placeOrder(request(OrderSide.BUY, BenchmarkOrders.bidPrice(5))).join();
+        return orderService.cancelOrder(placed.getOrderId()).join();
+    }
+
+    private static OrderRequest request(OrderSide side) {
+        return request(side, BenchmarkOrders.MID);
+    }
+
+    private static OrderRequest request(OrderSide side, BigDecimal price) {
+        OrderRequest request = new OrderRequest();
+        request.setSymbol(BenchmarkOrders.SYMBOL);
+        request.setSide(side);
+        request.setType(OrderType.LIMIT);
+        request.setQuantity(BigDecimal.TEN);
+        request.setPrice(price);
+        request.setTraderId("BENCH_" + side);
+        return request;
+    }
+}
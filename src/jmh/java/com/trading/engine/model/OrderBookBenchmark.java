@@ -0,0 +1,105 @@
+package com.trading.engine.model;
+
+import com.trading.engine.BenchmarkOrders;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw {@link OrderBook} operations on a pre-built book, without the sequencer or
+ * persistence. Each benchmark leaves the book in the shape it found it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBookBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Param({"10", "100", "1000"})
+    int depth;
+
+    @Param({"1", "10", "100"})
+    int ordersPerLevel;
+
+    private OrderBook book;
+    private BookOrder[] existingLevelProbes;
+    private BookOrder[] newLevelProbes;
+    private BookOrder[] resting;
+    private int cursor;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        book = new OrderBook(BenchmarkOrders.SYMBOL);
+        resting = new BookOrder[depth * ordersPerLevel * 2];
+        int index = 0;
+        for (int level = 0; level < depth; level++) {
+            for (int i = 0; i < ordersPerLevel; i++) {
+                resting[index] = rest(OrderSide.BUY, BenchmarkOrders.bidPrice(level));
+                resting[index + 1] = rest(OrderSide.SELL, BenchmarkOrders.askPrice(level));
+                index += 2;
+            }
+        }
+
+        existingLevelProbes = new BookOrder[PROBES];
+        newLevelProbes = new BookOrder[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            existingLevelProbes[i] = new BookOrder(BenchmarkOrders.order(++nextId, OrderSide.BUY,
+                    BenchmarkOrders.bidPrice(i % depth), BigDecimal.TEN));
+            // Inside the spread, so every add creates a level and moves the best bid
+            newLevelProbes[i] = new BookOrder(BenchmarkOrders.order(++nextId, OrderSide.BUY,
+                    BenchmarkOrders.MID, BigDecimal.TEN));
+        }
+    }
+
+    private BookOrder rest(OrderSide side, BigDecimal price) {
+        BookOrder order = new BookOrder(BenchmarkOrders.order(++nextId, side, price, BigDecimal.TEN));
+        book.addOrder(order);
+        return order;
+    }
+
+    @Benchmark
+    public void addRemoveExistingLevel() {
+        BookOrder order = existingLevelProbes[cursor++ & (PROBES - 1)];
+        book.addOrder(order);
+        book.removeOrder(order);
+        book.clearChangedLevels();
+    }
+
+    @Benchmark
+    public void addRemoveNewBestLevel() {
+        BookOrder order = newLevelProbes[cursor++ & (PROBES - 1)];
+        book.addOrder(order);
+        book.removeOrder(order);
+        book.clearChangedLevels();
+    }
+
+    // Cancel by id from anywhere in the book, then re-queue at the back of the same level
+    @Benchmark
+    public void cancelByIdAndReAdd() {
+        BookOrder order = resting[cursor];
+        cursor = cursor + 1 == resting.length ? 0 : cursor + 1;
+        book.cancelOrder(order.getOrderId());
+        book.addOrder(order);
+        book.clearChangedLevels();
+    }
+
+    @Benchmark
+    public void bestLevels(Blackhole blackhole) {
+        blackhole.consume(book.getBestBidLevel().getHead());
+        blackhole.consume(book.getBestAskLevel().getHead());
+    }
+
+    // The BigDecimal accessors used by the REST views
+    @Benchmark
+    public void bestPrices(Blackhole blackhole) {
+        blackhole.consume(book.getBestBid());
+        blackhole.consume(book.getBestAsk());
+    }
+}
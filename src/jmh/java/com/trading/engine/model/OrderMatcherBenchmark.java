@@ -0,0 +1,77 @@
+package com.trading.engine.model;
+
+import com.trading.engine.BenchmarkOrders;
+import com.trading.engine.util.FixedPoint;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The match loop as the engine runs it in pooled mode: orders come from a
+ * {@link BookOrderPool}, executions go to the book's {@link FillLog}, and finished
+ * orders go back to the pool. Every order joins or takes from a level that already
+ * exists. Run with {@code -prof gc}; gc.alloc.rate.norm is 0 B/op, which
+ * {@code OrderMatcherTest} asserts for the same loop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderMatcherBenchmark {
+
+    private static final String BUYER = "BENCH_BUY";
+    private static final String SELLER = "BENCH_SELL";
+
+    @Param({"10", "1000"})
+    int depth;
+
+    @Param({"1", "10"})
+    int ordersPerLevel;
+
+    private OrderBook book;
+    private BookOrderPool pool;
+    private long bestAsk;
+    private long quantity;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        book = new OrderBook(BenchmarkOrders.SYMBOL);
+        pool = new BookOrderPool();
+        bestAsk = FixedPoint.fromBigDecimal(BenchmarkOrders.askPrice(0));
+        quantity = FixedPoint.fromBigDecimal(BigDecimal.TEN);
+        for (int level = 0; level < depth; level++) {
+            long bid = FixedPoint.fromBigDecimal(BenchmarkOrders.bidPrice(level));
+            long ask = FixedPoint.fromBigDecimal(BenchmarkOrders.askPrice(level));
+            for (int i = 0; i < ordersPerLevel; i++) {
+                book.addOrder(order(BUYER, OrderSide.BUY, bid));
+                book.addOrder(order(SELLER, OrderSide.SELL, ask));
+            }
+        }
+        book.clearChangedLevels();
+    }
+
+    private BookOrder order(String traderId, OrderSide side, long price) {
+        return pool.acquire().init(++nextId, BenchmarkOrders.SYMBOL, traderId, side, OrderType.LIMIT,
+                price, 0, 0, quantity, nextId, TimeInForce.GTC, 0);
+    }
+
+    // A sell joins the back of the best ask, then a buy takes the order at its head
+    @Benchmark
+    public void crossAtTouch(Blackhole blackhole) {
+        book.addOrder(order(SELLER, OrderSide.SELL, bestAsk));
+        BookOrder buy = order(BUYER, OrderSide.BUY, bestAsk);
+        OrderMatcher.match(book, buy, nextId);
+
+        FillLog fills = book.getFills();
+        blackhole.consume(fills.get(0).getPrice());
+        pool.release(fills.get(0).getResting());
+        pool.release(buy);
+        fills.clear();
+        book.clearChangedLevels();
+    }
+}
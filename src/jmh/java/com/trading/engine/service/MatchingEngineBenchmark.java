@@ -0,0 +1,119 @@
+package com.trading.engine.service;
+
+import com.trading.engine.BenchmarkOrders;
+import com.trading.engine.candles.CandleAggregator;
+import com.trading.engine.dto.BookDelta;
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.dto.TradePrint;
+import com.trading.engine.metrics.EngineMetrics;
+import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.Trade;
+import com.trading.engine.risk.PreTradeRiskCheck;
+import com.trading.engine.risk.RiskProperties;
+import com.trading.engine.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Orders through the sequencer and match loop with persistence, journal and
+ * market-data publishing stubbed out. Each call waits for the writer thread, so
+ * the score includes the hand-off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchingEngineBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int depth;
+
+    @Param({"1", "10", "100"})
+    int ordersPerLevel;
+
+    private MatchingEngineService engine;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        EngineMetrics metrics = new EngineMetrics(new SimpleMeterRegistry());
+        MarketDataPublisher publisher = new NoOpPublisher();
+        engine = new MatchingEngineService(new NoOpPersistence(metrics), publisher,
+                new CandleAggregator(publisher, 16), new PreTradeRiskCheck(new RiskProperties()), metrics, new IdGenerator(0));
+        ReflectionTestUtils.setField(engine, "ringBufferSize", 1024);
+        ReflectionTestUtils.setField(engine, "shardCount", 1);
+        ReflectionTestUtils.setField(engine, "shardMapping", "");
+        ReflectionTestUtils.setField(engine, "shardCpus", "");
+        engine.start();
+
+        for (int level = 0; level < depth; level++) {
+            for (int i = 0; i < ordersPerLevel; i++) {
+                place(OrderSide.BUY, BenchmarkOrders.bidPrice(level));
+                place(OrderSide.SELL, BenchmarkOrders.askPrice(level));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.stop();
+    }
+
+    // A sell joins the back of the best ask; a buy at that price then takes the front order
+    @Benchmark
+    public Object crossAtTouch() {
+        place(OrderSide.SELL, BenchmarkOrders.askPrice(0));
+        return place(OrderSide.BUY, BenchmarkOrders.askPrice(0));
+    }
+
+    // Passive order behind the touch, cancelled straight away
+    @Benchmark
+    public Object restAndCancel() {
+        long orderId = nextId;
+        place(OrderSide.BUY, BenchmarkOrders.bidPrice(depth / 2));
+        return engine.cancelOrder(BenchmarkOrders.SYMBOL, orderId).join();
+    }
+
+    private Object place(OrderSide side, BigDecimal price) {
+        Order order = BenchmarkOrders.order(nextId++, side, price, BigDecimal.TEN);
+        return engine.processOrder(order).join();
+    }
+
+    static class NoOpPersistence extends OrderPersistenceService {
+        NoOpPersistence(EngineMetrics metrics) {
+            super(null, null, metrics);
+        }
+
+        @Override
+        public void persist(List<Order> orders, List<Trade> trades) {
+        }
+    }
+
+    static class NoOpPublisher extends MarketDataPublisher {
+        NoOpPublisher() {
+            super(null);
+        }
+
+        @Override
+        public void publishBook(BookDelta delta) {
+        }
+
+        @Override
+        public void publishTrades(String symbol, List<TradePrint> prints) {
+        }
+
+        @Override
+        public void publishCandles(String symbol, Supplier<CandleSnapshot> snapshot) {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.trading.engine.candles;
+
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.model.Trade;
+import com.trading.engine.service.MarketDataPublisher;
+import com.trading.engine.util.FixedPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolls trades into OHLCV candles and session VWAP as the engine produces them.
+ * Each trade is a constant amount of work on preallocated rings; nothing is read
+ * back from the database, so bars start empty after a restart.
+ */
+@Service
+public class CandleAggregator {
+
+    private final MarketDataPublisher marketDataPublisher;
+    private final int capacity;
+    private final Map<String, SymbolCandles> symbols = new ConcurrentHashMap<>();
+
+    public CandleAggregator(MarketDataPublisher marketDataPublisher,
+                            @Value("${trading.candles.capacity:500}") int capacity) {
+        this.marketDataPublisher = marketDataPublisher;
+        this.capacity = capacity;
+    }
+
+    // Called on the engine shard that owns the symbol
+    public void onTrades(String symbol, List<Trade> trades) {
+        SymbolCandles candles = symbols.computeIfAbsent(symbol, s -> new SymbolCandles(s, capacity));
+        for (Trade trade : trades) {
+            candles.add(toEpochMillis(trade.getTimestamp()),
+                    FixedPoint.fromBigDecimal(trade.getPrice()), FixedPoint.fromBigDecimal(trade.getQuantity()));
+        }
+        marketDataPublisher.publishCandles(symbol, candles::current);
+    }
+
+    /**
+     * @return null if the symbol has not traded since startup
+     */
+    public CandleSnapshot getCandles(String symbol, CandleInterval interval, int limit) {
+        SymbolCandles candles = symbols.get(symbol);
+        return candles == null ? null : candles.history(interval, limit);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1000L + timestamp.getNano() / 1_000_000;
+    }
+}
@@ -0,0 +1,44 @@
+package com.trading.engine.candles;
+
+/**
+ * Bar widths kept for every symbol. Bars are aligned to whole intervals of the
+ * trade timestamps, so a 5m bar always starts at :00, :05, :10 and so on.
+ */
+public enum CandleInterval {
+    ONE_SECOND("1s", 1_000L),
+    ONE_MINUTE("1m", 60_000L),
+    FIVE_MINUTES("5m", 300_000L),
+    ONE_HOUR("1h", 3_600_000L);
+
+    private final String label;
+    private final long millis;
+
+    CandleInterval(String label, long millis) {
+        this.label = label;
+        this.millis = millis;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long bucketStart(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, millis);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the label is not one of 1s, 1m, 5m, 1h
+     */
+    public static CandleInterval fromLabel(String label) {
+        for (CandleInterval interval : values()) {
+            if (interval.label.equals(label)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unknown candle interval: " + label);
+    }
+}
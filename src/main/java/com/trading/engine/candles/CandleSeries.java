@@ -0,0 +1,87 @@
+package com.trading.engine.candles;
+
+import com.trading.engine.dto.Candle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The most recent bars of one interval in a fixed-size ring. Fields are parallel
+ * fixed-point arrays, so a trade only touches the newest slot and rolling over to a
+ * new bar overwrites the oldest one; nothing is allocated after construction.
+ * Intervals without trades get no bar. Not thread-safe, see {@link SymbolCandles}.
+ */
+class CandleSeries {
+
+    private final CandleInterval interval;
+    private final long[] starts;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final long[] volumes;
+    private final long[] notionals;
+    private final long[] tradeCounts;
+    private int head;
+    private int count;
+
+    CandleSeries(CandleInterval interval, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Candle capacity must be positive: " + capacity);
+        }
+        this.interval = interval;
+        this.starts = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.closes = new long[capacity];
+        this.volumes = new long[capacity];
+        this.notionals = new long[capacity];
+        this.tradeCounts = new long[capacity];
+        this.head = capacity - 1;
+    }
+
+    void add(long epochMillis, long price, long quantity, long notional) {
+        long start = interval.bucketStart(epochMillis);
+        // A trade stamped before the current bar (clock step back) is folded into it
+        if (count == 0 || start > starts[head]) {
+            head = head + 1 == starts.length ? 0 : head + 1;
+            count = Math.min(count + 1, starts.length);
+            starts[head] = start;
+            opens[head] = price;
+            highs[head] = price;
+            lows[head] = price;
+            volumes[head] = 0;
+            notionals[head] = 0;
+            tradeCounts[head] = 0;
+        } else {
+            highs[head] = Math.max(highs[head], price);
+            lows[head] = Math.min(lows[head], price);
+        }
+        closes[head] = price;
+        volumes[head] += quantity;
+        notionals[head] += notional;
+        tradeCounts[head]++;
+    }
+
+    /**
+     * Up to {@code limit} bars, oldest first.
+     */
+    List<Candle> latest(int limit) {
+        int size = Math.min(limit, count);
+        List<Candle> candles = new ArrayList<>(size);
+        for (int back = size - 1; back >= 0; back--) {
+            candles.add(toCandle(Math.floorMod(head - back, starts.length)));
+        }
+        return candles;
+    }
+
+    Candle current() {
+        return count == 0 ? null : toCandle(head);
+    }
+
+    private Candle toCandle(int slot) {
+        return new Candle(interval.getLabel(), starts[slot], opens[slot], highs[slot], lows[slot], closes[slot],
+                volumes[slot], notionals[slot], tradeCounts[slot]);
+    }
+}
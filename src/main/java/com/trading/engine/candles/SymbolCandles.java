@@ -0,0 +1,82 @@
+package com.trading.engine.candles;
+
+import com.trading.engine.dto.Candle;
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.util.FixedPoint;
+
+import java.time.LocalDate;
+
+/**
+ * Candles for every interval and session VWAP/volume for one symbol. Trades arrive
+ * from the engine shard that owns the symbol while readers snapshot from request
+ * threads, so both sides take the instance lock; it is effectively uncontended.
+ * The session is the calendar day of the trade timestamps and resets with the
+ * first trade of a new day.
+ */
+class SymbolCandles {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final String symbol;
+    private final CandleSeries[] series;
+    private long sessionDay = Long.MIN_VALUE;
+    private long sessionVolume;
+    private long sessionNotional;
+    private long sessionTradeCount;
+    private long lastPrice;
+
+    SymbolCandles(String symbol, int capacity) {
+        this.symbol = symbol;
+        CandleInterval[] intervals = CandleInterval.values();
+        this.series = new CandleSeries[intervals.length];
+        for (int i = 0; i < intervals.length; i++) {
+            series[i] = new CandleSeries(intervals[i], capacity);
+        }
+    }
+
+    synchronized void add(long epochMillis, long price, long quantity) {
+        long notional = FixedPoint.multiply(quantity, price);
+        for (CandleSeries candles : series) {
+            candles.add(epochMillis, price, quantity, notional);
+        }
+        long day = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        if (day > sessionDay) {
+            sessionDay = day;
+            sessionVolume = 0;
+            sessionNotional = 0;
+            sessionTradeCount = 0;
+        }
+        sessionVolume += quantity;
+        sessionNotional += notional;
+        sessionTradeCount++;
+        lastPrice = price;
+    }
+
+    synchronized CandleSnapshot history(CandleInterval interval, int limit) {
+        CandleSnapshot snapshot = session();
+        snapshot.setCandles(series[interval.ordinal()].latest(limit));
+        return snapshot;
+    }
+
+    synchronized CandleSnapshot current() {
+        CandleSnapshot snapshot = session();
+        for (CandleSeries candles : series) {
+            Candle candle = candles.current();
+            if (candle != null) {
+                snapshot.getCandles().add(candle);
+            }
+        }
+        return snapshot;
+    }
+
+    private CandleSnapshot session() {
+        CandleSnapshot snapshot = new CandleSnapshot();
+        snapshot.setSymbol(symbol);
+        snapshot.setSessionDate(sessionTradeCount == 0 ? null : LocalDate.ofEpochDay(sessionDay));
+        snapshot.setSessionVolume(FixedPoint.toBigDecimal(sessionVolume));
+        snapshot.setSessionVwap(FixedPoint.quotient(sessionNotional, sessionVolume));
+        snapshot.setSessionTradeCount(sessionTradeCount);
+        snapshot.setLastPrice(sessionTradeCount == 0 ? null : FixedPoint.toBigDecimal(lastPrice));
+        return snapshot;
+    }
+}
@@ -1,23 +1,32 @@
 package com.trading.engine.config;
 
 import com.trading.engine.dto.OrderRequest;
+import com.trading.engine.service.MatchingEngineService;
 import com.trading.engine.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 
 @Component
+@Profile("!loadgen") // Load runs start from empty books
 @RequiredArgsConstructor
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
 
     private final OrderService orderService;
+    private final MatchingEngineService matchingEngineService;
 
     @Override
     public void run(String... args) throws Exception {
+        if (!matchingEngineService.getSymbols().isEmpty()) {
+            log.info("Order books recovered from the journal, skipping sample data");
+            return;
+        }
+        
         log.info("Initializing sample data...");
         
         // Create sample buy orders
@@ -47,7 +56,7 @@ public class DataInitializer implements CommandLineRunner {
             request.setPrice(price);
             request.setTraderId(traderId);
             
-            orderService.placeOrder(request);
+            orderService.placeOrder(request).join();
             log.info("Created sample order: {} {} {} {} @ {}", side, quantity, symbol, type, price);
         } catch (Exception e) {
             log.error("Error creating sample order: {}", e.getMessage());
@@ -0,0 +1,26 @@
+package com.trading.engine.controller;
+
+import com.trading.engine.dto.CursorPage;
+import com.trading.engine.service.HistoryService;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+// Shared response handling for the paginated history endpoints
+final class CursorPages {
+    
+    private CursorPages() {
+    }
+    
+    // 400 for an out-of-range limit or a cursor this server did not issue
+    static <T> ResponseEntity<CursorPage<T>> respond(Supplier<CursorPage<T>> query, int limit) {
+        if (limit < 1 || limit > HistoryService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(query.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
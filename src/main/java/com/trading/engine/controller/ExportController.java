@@ -0,0 +1,75 @@
+package com.trading.engine.controller;
+
+import com.trading.engine.export.ExportFormat;
+import com.trading.engine.export.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk history downloads for reconciliation. Rows are streamed oldest first as the
+ * database returns them; {@code from} is inclusive, {@code to} exclusive.
+ */
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ExportController {
+    
+    private final ExportService exportService;
+    
+    @GetMapping("/trades/{symbol}")
+    public ResponseEntity<StreamingResponseBody> exportTrades(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        String normalized = symbol.toUpperCase();
+        return stream("trades-" + normalized, exportFormat, gzip,
+                out -> exportService.exportTrades(normalized, from, to, exportFormat, out));
+    }
+    
+    @GetMapping("/orders/{symbol}")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        String normalized = symbol.toUpperCase();
+        return stream("orders-" + normalized, exportFormat, gzip,
+                out -> exportService.exportOrders(normalized, from, to, exportFormat, out));
+    }
+    
+    // gzip=true sends a .gz attachment rather than Content-Encoding, so saved files stay compressed
+    private static ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, boolean gzip,
+                                                                StreamingResponseBody body) {
+        String filename = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody response = !gzip ? body : out -> {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 1 << 16);
+            body.writeTo(compressed);
+            compressed.finish();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(response);
+    }
+}
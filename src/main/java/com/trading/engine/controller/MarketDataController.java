@@ -1,14 +1,24 @@
 package com.trading.engine.controller;
 
-import com.trading.engine.model.OrderBook;
+import com.trading.engine.candles.CandleAggregator;
+import com.trading.engine.candles.CandleInterval;
+import com.trading.engine.dto.BookSnapshot;
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.dto.MarketDepth;
+import com.trading.engine.dto.TopOfBook;
 import com.trading.engine.service.MatchingEngineService;
+import com.trading.engine.service.OrderBookViewCache;
+import com.trading.engine.service.OrderBookViewCache.CachedBookView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/market")
@@ -16,59 +26,97 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class MarketDataController {
     
+    private static final int MAX_DEPTH_LEVELS = 1000;
+    
     private final MatchingEngineService matchingEngineService;
+    private final OrderBookViewCache orderBookViewCache;
+    private final CandleAggregator candleAggregator;
     
+    // Served from the version cache; conditional GETs with a matching ETag get 304
     @GetMapping("/orderbook/{symbol}")
-    public ResponseEntity<Map<String, Object>> getOrderBook(@PathVariable String symbol) {
-        OrderBook orderBook = matchingEngineService.getOrderBook(symbol);
+    public ResponseEntity<byte[]> getOrderBook(@PathVariable String symbol) {
+        CachedBookView view = orderBookViewCache.getView(symbol);
         
-        if (orderBook == null) {
+        if (view == null) {
             return ResponseEntity.notFound().build();
         }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("symbol", symbol);
-        response.put("bestBid", orderBook.getBestBid());
-        response.put("bestAsk", orderBook.getBestAsk());
-        response.put("buyOrders", orderBook.getBuyOrders());
-        response.put("sellOrders", orderBook.getSellOrders());
-        
-        return ResponseEntity.ok(response);
+        return cachedJson(view, view.orderBookJson());
+    }
+    
+    // Aggregated levels with the sequence to resume /topic/book/{symbol} deltas from
+    @GetMapping("/book/{symbol}")
+    public CompletableFuture<ResponseEntity<BookSnapshot>> getBookSnapshot(@PathVariable String symbol) {
+        return matchingEngineService.getBookSnapshot(symbol)
+                .thenApply(snapshot -> snapshot == null
+                        ? ResponseEntity.<BookSnapshot>notFound().build()
+                        : ResponseEntity.ok(snapshot));
+    }
+    
+    @GetMapping("/depth/{symbol}")
+    public CompletableFuture<ResponseEntity<MarketDepth>> getDepth(@PathVariable String symbol,
+                                                                   @RequestParam(defaultValue = "10") int levels) {
+        if (levels < 1 || levels > MAX_DEPTH_LEVELS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return matchingEngineService.getMarketDepth(symbol, levels)
+                .thenApply(depth -> depth == null
+                        ? ResponseEntity.<MarketDepth>notFound().build()
+                        : ResponseEntity.ok(depth));
+    }
+    
+    // Lock-free read of the book's last published levels; never queues behind orders
+    @GetMapping("/top/{symbol}")
+    public ResponseEntity<TopOfBook> getTopOfBook(@PathVariable String symbol) {
+        TopOfBook top = matchingEngineService.getTopOfBook(symbol);
+        return top == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(top);
     }
     
     @GetMapping("/price/{symbol}")
-    public ResponseEntity<Map<String, Object>> getPriceData(@PathVariable String symbol) {
-        OrderBook orderBook = matchingEngineService.getOrderBook(symbol);
+    public ResponseEntity<byte[]> getPriceData(@PathVariable String symbol) {
+        CachedBookView view = orderBookViewCache.getView(symbol);
         
-        if (orderBook == null) {
+        if (view == null) {
             return ResponseEntity.notFound().build();
         }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("symbol", symbol);
-        response.put("bestBid", orderBook.getBestBid());
-        response.put("bestAsk", orderBook.getBestAsk());
-        
-        BigDecimal bestBid = orderBook.getBestBid();
-        BigDecimal bestAsk = orderBook.getBestAsk();
-        
-        if (bestBid != null && bestAsk != null) {
-            BigDecimal spread = bestAsk.subtract(bestBid);
-            BigDecimal midPrice = bestBid.add(bestAsk).divide(BigDecimal.valueOf(2), 4, BigDecimal.ROUND_HALF_UP);
-            response.put("spread", spread);
-            response.put("midPrice", midPrice);
+        return cachedJson(view, view.priceJson());
+    }
+    
+    // Rolling bars from memory; /topic/candles/{symbol} pushes the current bar of each interval
+    @GetMapping("/candles/{symbol}")
+    public ResponseEntity<CandleSnapshot> getCandles(@PathVariable String symbol,
+                                                     @RequestParam(defaultValue = "1m") String interval,
+                                                     @RequestParam(defaultValue = "100") int limit) {
+        CandleInterval candleInterval;
+        try {
+            candleInterval = CandleInterval.fromLabel(interval);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit < 1 || limit > candleAggregator.getCapacity()) {
+            return ResponseEntity.badRequest().build();
         }
         
-        return ResponseEntity.ok(response);
+        CandleSnapshot candles = candleAggregator.getCandles(symbol, candleInterval, limit);
+        return candles == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(candles);
+    }
+    
+    private static ResponseEntity<byte[]> cachedJson(CachedBookView view, byte[] body) {
+        return ResponseEntity.ok()
+                .eTag(view.eTag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
     
     @GetMapping("/symbols")
     public ResponseEntity<Map<String, Object>> getAllSymbols() {
-        Map<String, OrderBook> orderBooks = matchingEngineService.getAllOrderBooks();
+        Set<String> symbols = matchingEngineService.getSymbols();
         
         Map<String, Object> response = new HashMap<>();
-        response.put("symbols", orderBooks.keySet());
-        response.put("count", orderBooks.size());
+        response.put("symbols", symbols);
+        response.put("count", symbols.size());
         
         return ResponseEntity.ok(response);
     }
@@ -1,15 +1,20 @@
 package com.trading.engine.controller;
 
+import com.trading.engine.dto.BatchOrderRequest;
+import com.trading.engine.dto.BatchOrderResponse;
+import com.trading.engine.dto.CursorPage;
+import com.trading.engine.dto.OrderAmendRequest;
 import com.trading.engine.dto.OrderRequest;
 import com.trading.engine.dto.OrderResponse;
-import com.trading.engine.model.Order;
+import com.trading.engine.dto.OrderSummary;
+import com.trading.engine.service.HistoryService;
 import com.trading.engine.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -18,17 +23,23 @@ import java.util.List;
 public class OrderController {
     
     private final OrderService orderService;
+    private final HistoryService historyService;
     
     @PostMapping
-    public ResponseEntity<OrderResponse> placeOrder(@Valid @RequestBody OrderRequest request) {
-        // BUG #4: No input validation for negative quantities or prices
-        OrderResponse response = orderService.placeOrder(request);
-        
-        if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.badRequest().body(response);
-        }
+    public CompletableFuture<ResponseEntity<OrderResponse>> placeOrder(@Valid @RequestBody OrderRequest request) {
+        return orderService.placeOrder(request).thenApply(response -> {
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.badRequest().body(response);
+            }
+        });
+    }
+    
+    // Per-item results; the batch itself succeeds even if some items are rejected
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<BatchOrderResponse>> placeBatch(@Valid @RequestBody BatchOrderRequest request) {
+        return orderService.placeBatch(request).thenApply(ResponseEntity::ok);
     }
     
     @GetMapping("/{orderId}")
@@ -42,32 +53,56 @@ public class OrderController {
         }
     }
     
+    // History endpoints page newest first; follow nextCursor until it is null
     @GetMapping("/symbol/{symbol}")
-    public ResponseEntity<List<Order>> getOrdersBySymbol(@PathVariable String symbol) {
-        List<Order> orders = orderService.getOrdersBySymbol(symbol);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<CursorPage<OrderSummary>> getOrdersBySymbol(@PathVariable String symbol,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "100") int limit) {
+        return CursorPages.respond(() -> historyService.getOrdersBySymbol(symbol, cursor, limit), limit);
     }
     
     @GetMapping("/trader/{traderId}")
-    public ResponseEntity<List<Order>> getOrdersByTrader(@PathVariable String traderId) {
-        List<Order> orders = orderService.getOrdersByTrader(traderId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<CursorPage<OrderSummary>> getOrdersByTrader(@PathVariable String traderId,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "100") int limit) {
+        return CursorPages.respond(() -> historyService.getOrdersByTrader(traderId, cursor, limit), limit);
+    }
+    
+    // Open orders are served from the engine's memory; these two listings never query the database
+    @GetMapping("/trader/{traderId}/active")
+    public ResponseEntity<CursorPage<OrderSummary>> getActiveOrdersByTrader(@PathVariable String traderId,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(defaultValue = "100") int limit) {
+        return CursorPages.respond(() -> historyService.getActiveOrdersByTrader(traderId, cursor, limit), limit);
     }
     
     @GetMapping("/active/{symbol}")
-    public ResponseEntity<List<Order>> getActiveOrdersBySymbol(@PathVariable String symbol) {
-        List<Order> orders = orderService.getActiveOrdersBySymbol(symbol);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<CursorPage<OrderSummary>> getActiveOrdersBySymbol(@PathVariable String symbol,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(defaultValue = "100") int limit) {
+        return CursorPages.respond(() -> historyService.getActiveOrdersBySymbol(symbol, cursor, limit), limit);
+    }
+    
+    @PutMapping("/{orderId}")
+    public CompletableFuture<ResponseEntity<OrderResponse>> amendOrder(@PathVariable String orderId,
+                                                                       @Valid @RequestBody OrderAmendRequest request) {
+        return orderService.amendOrder(orderId, request).thenApply(response -> {
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.badRequest().body(response);
+            }
+        });
     }
     
     @DeleteMapping("/{orderId}")
-    public ResponseEntity<OrderResponse> cancelOrder(@PathVariable String orderId) {
-        OrderResponse response = orderService.cancelOrder(orderId);
-        
-        if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.badRequest().body(response);
-        }
+    public CompletableFuture<ResponseEntity<OrderResponse>> cancelOrder(@PathVariable String orderId) {
+        return orderService.cancelOrder(orderId).thenApply(response -> {
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.badRequest().body(response);
+            }
+        });
     }
 } 
\ No newline at end of file
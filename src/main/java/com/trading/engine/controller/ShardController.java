@@ -0,0 +1,46 @@
+package com.trading.engine.controller;
+
+import com.trading.engine.dto.ShardStatus;
+import com.trading.engine.service.MatchingEngineService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/engine/shards")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ShardController {
+    
+    private final MatchingEngineService matchingEngineService;
+    
+    @GetMapping
+    public ResponseEntity<List<ShardStatus>> getShards() {
+        return ResponseEntity.ok(matchingEngineService.getShardStatus());
+    }
+    
+    // Symbol to shard index for every symbol seen so far
+    @GetMapping("/assignments")
+    public ResponseEntity<Map<String, Integer>> getAssignments() {
+        return ResponseEntity.ok(matchingEngineService.getShardAssignments());
+    }
+    
+    // Moves a hot symbol to another shard; returns once the new shard owns its book
+    @PostMapping("/rebalance")
+    public ResponseEntity<Map<String, Object>> rebalance(@RequestParam String symbol, @RequestParam int shard) {
+        if (shard < 0 || shard >= matchingEngineService.getShardCount()) {
+            return ResponseEntity.badRequest().build();
+        }
+        String normalized = symbol.toUpperCase();
+        matchingEngineService.rebalance(normalized, shard);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("symbol", normalized);
+        response.put("shard", shard);
+        return ResponseEntity.ok(response);
+    }
+}
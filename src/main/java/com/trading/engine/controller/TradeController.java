@@ -1,13 +1,16 @@
 package com.trading.engine.controller;
 
+import com.trading.engine.dto.CursorPage;
 import com.trading.engine.dto.TradeResponse;
+import com.trading.engine.dto.TradeSummary;
 import com.trading.engine.model.Trade;
 import com.trading.engine.repository.TradeRepository;
+import com.trading.engine.service.HistoryService;
+import com.trading.engine.util.IdGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -17,20 +20,22 @@ import java.util.Optional;
 public class TradeController {
     
     private final TradeRepository tradeRepository;
+    private final HistoryService historyService;
     
     @GetMapping("/{tradeId}")
     public ResponseEntity<TradeResponse> getTrade(@PathVariable String tradeId) {
-        Optional<Trade> tradeOpt = tradeRepository.findByTradeId(tradeId);
+        long id = IdGenerator.parse(tradeId);
+        Optional<Trade> tradeOpt = id < 0 ? Optional.empty() : tradeRepository.findByTradeId(id);
         
         if (tradeOpt.isPresent()) {
             Trade trade = tradeOpt.get();
             TradeResponse response = new TradeResponse();
-            response.setTradeId(trade.getTradeId());
+            response.setTradeId(IdGenerator.format(trade.getTradeId()));
             response.setSymbol(trade.getSymbol());
             response.setQuantity(trade.getQuantity());
             response.setPrice(trade.getPrice());
-            response.setBuyOrderId(trade.getBuyOrderId());
-            response.setSellOrderId(trade.getSellOrderId());
+            response.setBuyOrderId(IdGenerator.format(trade.getBuyOrderId()));
+            response.setSellOrderId(IdGenerator.format(trade.getSellOrderId()));
             response.setBuyTraderId(trade.getBuyTraderId());
             response.setSellTraderId(trade.getSellTraderId());
             response.setTimestamp(trade.getTimestamp());
@@ -41,15 +46,18 @@ public class TradeController {
         }
     }
     
+    // Newest first; follow nextCursor until it is null
     @GetMapping("/symbol/{symbol}")
-    public ResponseEntity<List<Trade>> getTradesBySymbol(@PathVariable String symbol) {
-        List<Trade> trades = tradeRepository.findBySymbolOrderByTimestampDesc(symbol);
-        return ResponseEntity.ok(trades);
+    public ResponseEntity<CursorPage<TradeSummary>> getTradesBySymbol(@PathVariable String symbol,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "100") int limit) {
+        return CursorPages.respond(() -> historyService.getTradesBySymbol(symbol, cursor, limit), limit);
     }
     
     @GetMapping("/trader/{traderId}")
-    public ResponseEntity<List<Trade>> getTradesByTrader(@PathVariable String traderId) {
-        List<Trade> trades = tradeRepository.findByBuyTraderIdOrSellTraderId(traderId, traderId);
-        return ResponseEntity.ok(trades);
+    public ResponseEntity<CursorPage<TradeSummary>> getTradesByTrader(@PathVariable String traderId,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "100") int limit) {
+        return CursorPages.respond(() -> historyService.getTradesByTrader(traderId, cursor, limit), limit);
     }
 } 
\ No newline at end of file
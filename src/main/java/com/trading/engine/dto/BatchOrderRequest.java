@@ -0,0 +1,21 @@
+package com.trading.engine.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BatchOrderRequest {
+    
+    // Order ids to cancel; applied before new orders for the same symbol
+    @NotNull
+    @Size(max = 1000, message = "At most 1000 cancels per batch")
+    private List<String> cancels = new ArrayList<>();
+    
+    @NotNull
+    @Size(max = 1000, message = "At most 1000 orders per batch")
+    private List<@Valid OrderRequest> orders = new ArrayList<>();
+}
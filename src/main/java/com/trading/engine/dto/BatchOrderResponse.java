@@ -0,0 +1,15 @@
+package com.trading.engine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+// Per-item results, in the same order as the request lists
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResponse {
+    private List<OrderResponse> cancels;
+    private List<OrderResponse> orders;
+}
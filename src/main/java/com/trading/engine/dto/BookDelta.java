@@ -0,0 +1,19 @@
+package com.trading.engine.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Price levels changed by one engine command. A client holding the book at
+ * {@code previousSequence} applies the levels to reach {@code sequence}; any other
+ * starting point means updates were missed and the client must resync.
+ */
+@Data
+public class BookDelta {
+    private String symbol;
+    private long sequence;
+    private long previousSequence;
+    private List<DepthLevel> bids = new ArrayList<>();
+    private List<DepthLevel> asks = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package com.trading.engine.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BookSnapshot {
+    private String symbol;
+    private long sequence;
+    private List<DepthLevel> bids = new ArrayList<>();
+    private List<DepthLevel> asks = new ArrayList<>();
+}
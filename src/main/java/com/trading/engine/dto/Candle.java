@@ -0,0 +1,36 @@
+package com.trading.engine.dto;
+
+import com.trading.engine.util.FixedPoint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Data
+@NoArgsConstructor
+public class Candle {
+    private String interval;
+    private LocalDateTime openTime; // Same clock as trade timestamps
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private BigDecimal volume;
+    private BigDecimal vwap;
+    private long tradeCount;
+
+    // Built from the aggregator's fixed-point fields, see CandleSeries
+    public Candle(String interval, long openTimeMillis, long open, long high, long low, long close,
+                  long volume, long notional, long tradeCount) {
+        this.interval = interval;
+        this.openTime = LocalDateTime.ofEpochSecond(Math.floorDiv(openTimeMillis, 1000L), 0, ZoneOffset.UTC);
+        this.open = FixedPoint.toBigDecimal(open);
+        this.high = FixedPoint.toBigDecimal(high);
+        this.low = FixedPoint.toBigDecimal(low);
+        this.close = FixedPoint.toBigDecimal(close);
+        this.volume = FixedPoint.toBigDecimal(volume);
+        this.vwap = FixedPoint.quotient(notional, volume);
+        this.tradeCount = tradeCount;
+    }
+}
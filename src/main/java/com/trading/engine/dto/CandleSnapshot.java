@@ -0,0 +1,23 @@
+package com.trading.engine.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Session statistics for a symbol plus candles. From {@code /api/market/candles} the
+ * candles are one interval's history, oldest first; on {@code /topic/candles} they are
+ * the current bar of every interval after a batch of trades.
+ */
+@Data
+public class CandleSnapshot {
+    private String symbol;
+    private LocalDate sessionDate; // Trading day the session statistics cover
+    private BigDecimal sessionVolume;
+    private BigDecimal sessionVwap;
+    private long sessionTradeCount;
+    private BigDecimal lastPrice;
+    private List<Candle> candles = new ArrayList<>();
+}
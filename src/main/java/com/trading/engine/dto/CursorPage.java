@@ -0,0 +1,15 @@
+package com.trading.engine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+// One page of history, newest first; pass nextCursor back as ?cursor= for the next page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor; // Null on the last page
+}
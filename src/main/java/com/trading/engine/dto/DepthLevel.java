@@ -0,0 +1,15 @@
+package com.trading.engine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepthLevel {
+    private BigDecimal price;
+    private BigDecimal quantity; // Zero in a delta means the level was removed
+    private int orderCount;
+}
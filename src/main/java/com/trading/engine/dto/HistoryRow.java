@@ -0,0 +1,10 @@
+package com.trading.engine.dto;
+
+import java.time.LocalDateTime;
+
+// Sort key shared by paginated history rows: newest timestamp first, then database key
+public interface HistoryRow {
+    LocalDateTime getTimestamp();
+    
+    long getRowId();
+}
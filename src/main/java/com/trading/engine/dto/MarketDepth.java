@@ -0,0 +1,16 @@
+package com.trading.engine.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Top of book aggregated by price level, best price first on each side.
+ */
+@Data
+public class MarketDepth {
+    private String symbol;
+    private long sequence;
+    private List<MarketDepthLevel> bids = new ArrayList<>();
+    private List<MarketDepthLevel> asks = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package com.trading.engine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketDepthLevel {
+    private BigDecimal price;
+    private BigDecimal quantity;
+    private int orderCount;
+    private BigDecimal cumulativeQuantity; // This level plus every better-priced level on its side
+}
@@ -0,0 +1,18 @@
+package com.trading.engine.dto;
+
+import lombok.Data;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.DecimalMin;
+import java.math.BigDecimal;
+
+@Data
+public class OrderAmendRequest {
+    
+    @NotNull(message = "Quantity is required")
+    @DecimalMin(value = "0.0001", message = "Quantity must be greater than 0")
+    private BigDecimal quantity;
+    
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.0001", message = "Price must be greater than 0")
+    private BigDecimal price;
+}
@@ -0,0 +1,23 @@
+package com.trading.engine.dto;
+
+import com.trading.engine.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point-in-time copy of an order book taken on its writer thread. {@code version}
+ * is the book's published delta sequence, so equal versions mean identical content.
+ */
+@Data
+@AllArgsConstructor
+public class OrderBookView {
+    private String symbol;
+    private long version;
+    private BigDecimal bestBid;
+    private BigDecimal bestAsk;
+    private Map<BigDecimal, List<Order>> buyOrders;
+    private Map<BigDecimal, List<Order>> sellOrders;
+}
@@ -1,17 +1,22 @@
 package com.trading.engine.dto;
 
+import com.trading.engine.model.Order;
 import com.trading.engine.model.OrderSide;
 import com.trading.engine.model.OrderType;
+import com.trading.engine.model.TimeInForce;
 import lombok.Data;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 public class OrderRequest {
     
     @NotBlank(message = "Symbol is required")
+    @Size(max = Order.MAX_SYMBOL_LENGTH, message = "Symbol must be at most {max} characters")
     private String symbol;
     
     @NotNull(message = "Order side is required")
@@ -28,6 +33,21 @@ public class OrderRequest {
     @DecimalMin(value = "0.0001", message = "Price must be greater than 0")
     private BigDecimal price;
     
+    // Required for STOP and STOP_LIMIT, ignored otherwise
+    @DecimalMin(value = "0.0001", message = "Stop price must be greater than 0")
+    private BigDecimal stopPrice;
+    
+    // Required for ICEBERG, ignored otherwise
+    @DecimalMin(value = "0.0001", message = "Display quantity must be greater than 0")
+    private BigDecimal displayQuantity;
+    
+    // GTC if omitted
+    private TimeInForce timeInForce;
+    
+    // Required for GTD, ignored otherwise; DAY orders expire at the configured day close
+    private LocalDateTime expireTime;
+    
     @NotBlank(message = "Trader ID is required")
+    @Size(max = Order.MAX_TRADER_ID_LENGTH, message = "Trader ID must be at most {max} characters")
     private String traderId;
 } 
\ No newline at end of file
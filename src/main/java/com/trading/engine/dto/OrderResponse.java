@@ -1,6 +1,7 @@
 package com.trading.engine.dto;
 
 import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.TimeInForce;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -13,6 +14,10 @@ public class OrderResponse {
     private String type;
     private BigDecimal quantity;
     private BigDecimal price;
+    private BigDecimal stopPrice;
+    private BigDecimal displayQuantity;
+    private TimeInForce timeInForce;
+    private LocalDateTime expireTime;
     private OrderStatus status;
     private String traderId;
     private LocalDateTime timestamp;
@@ -0,0 +1,59 @@
+package com.trading.engine.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.TimeInForce;
+import com.trading.engine.util.IdGenerator;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Order history row, projected straight from the query without loading the entity
+@Data
+@NoArgsConstructor
+public class OrderSummary implements HistoryRow {
+    @JsonIgnore
+    private long rowId; // Database key, only used to build the page cursor
+    private String orderId;
+    private String symbol;
+    private OrderSide side;
+    private OrderType type;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private BigDecimal stopPrice;
+    private BigDecimal displayQuantity;
+    private TimeInForce timeInForce;
+    private LocalDateTime expireTime;
+    private OrderStatus status;
+    private String traderId;
+    private LocalDateTime timestamp;
+    private BigDecimal filledQuantity;
+    private BigDecimal averagePrice;
+    
+    // JPQL constructor expression, see OrderRepository
+    public OrderSummary(long rowId, long orderId, String symbol, OrderSide side, OrderType type,
+                        BigDecimal quantity, BigDecimal price, BigDecimal stopPrice,
+                        BigDecimal displayQuantity, TimeInForce timeInForce, LocalDateTime expireTime,
+                        OrderStatus status, String traderId,
+                        LocalDateTime timestamp, BigDecimal filledQuantity, BigDecimal averagePrice) {
+        this.rowId = rowId;
+        this.orderId = IdGenerator.format(orderId);
+        this.symbol = symbol;
+        this.side = side;
+        this.type = type;
+        this.quantity = quantity;
+        this.price = price;
+        this.stopPrice = stopPrice;
+        this.displayQuantity = displayQuantity;
+        this.timeInForce = timeInForce;
+        this.expireTime = expireTime;
+        this.status = status;
+        this.traderId = traderId;
+        this.timestamp = timestamp;
+        this.filledQuantity = filledQuantity;
+        this.averagePrice = averagePrice;
+    }
+}
@@ -0,0 +1,16 @@
+package com.trading.engine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardStatus {
+    private int shard;
+    private int symbolCount;
+    private int queueDepth;
+    private long processedCommands;
+    private double utilization; // Busy fraction over the last second
+}
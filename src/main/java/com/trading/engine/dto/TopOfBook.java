@@ -0,0 +1,19 @@
+package com.trading.engine.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * Best bid and ask with their displayed quantities and the last trade price, all as
+ * of one book sequence. Price and quantity are null on an empty side.
+ */
+@Data
+public class TopOfBook {
+    private String symbol;
+    private long sequence;
+    private BigDecimal bidPrice;
+    private BigDecimal bidQuantity;
+    private BigDecimal askPrice;
+    private BigDecimal askQuantity;
+    private BigDecimal lastPrice;
+}
@@ -0,0 +1,15 @@
+package com.trading.engine.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class TradePrint {
+    private String tradeId;
+    private String symbol;
+    private BigDecimal price;
+    private BigDecimal quantity;
+    private LocalDateTime timestamp;
+    private long sequence; // Book sequence of the command that produced the trade
+}
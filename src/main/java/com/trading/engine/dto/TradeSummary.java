@@ -0,0 +1,41 @@
+package com.trading.engine.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.trading.engine.util.IdGenerator;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Trade history row, projected straight from the query without loading the entity
+@Data
+@NoArgsConstructor
+public class TradeSummary implements HistoryRow {
+    @JsonIgnore
+    private long rowId; // Database key, only used to build the page cursor
+    private String tradeId;
+    private String symbol;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private String buyOrderId;
+    private String sellOrderId;
+    private String buyTraderId;
+    private String sellTraderId;
+    private LocalDateTime timestamp;
+    
+    // JPQL constructor expression, see TradeRepository
+    public TradeSummary(long rowId, long tradeId, String symbol, BigDecimal quantity, BigDecimal price,
+                        long buyOrderId, long sellOrderId, String buyTraderId, String sellTraderId,
+                        LocalDateTime timestamp) {
+        this.rowId = rowId;
+        this.tradeId = IdGenerator.format(tradeId);
+        this.symbol = symbol;
+        this.quantity = quantity;
+        this.price = price;
+        this.buyOrderId = IdGenerator.format(buyOrderId);
+        this.sellOrderId = IdGenerator.format(sellOrderId);
+        this.buyTraderId = buyTraderId;
+        this.sellTraderId = sellTraderId;
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,48 @@
+package com.trading.engine.export;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * One exported column: its SQL name (also the CSV header), its NDJSON field name, and
+ * how to read it. Ids are written as decimal strings, like everywhere else in the API.
+ */
+public record ExportColumn(String column, String field, Kind kind) {
+
+    public enum Kind {
+        TEXT, ID, DECIMAL, TIMESTAMP
+    }
+
+    static ExportColumn text(String column, String field) {
+        return new ExportColumn(column, field, Kind.TEXT);
+    }
+
+    static ExportColumn id(String column, String field) {
+        return new ExportColumn(column, field, Kind.ID);
+    }
+
+    static ExportColumn decimal(String column, String field) {
+        return new ExportColumn(column, field, Kind.DECIMAL);
+    }
+
+    static ExportColumn timestamp(String column, String field) {
+        return new ExportColumn(column, field, Kind.TIMESTAMP);
+    }
+
+    // Null for SQL NULL; otherwise a String, or a BigDecimal for decimals
+    Object read(ResultSet rs, int index) throws SQLException {
+        return switch (kind) {
+            case TEXT -> rs.getString(index);
+            case ID -> {
+                long id = rs.getLong(index);
+                yield rs.wasNull() ? null : Long.toString(id);
+            }
+            case DECIMAL -> rs.getBigDecimal(index);
+            case TIMESTAMP -> {
+                LocalDateTime value = rs.getObject(index, LocalDateTime.class);
+                yield value == null ? null : value.toString();
+            }
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package com.trading.engine.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Row encodings for bulk export. Both write each row as soon as it is read, so
+ * memory stays constant however many rows the query returns.
+ */
+public enum ExportFormat {
+
+    // One JSON object per line
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        RowWriter open(OutputStream out, List<ExportColumn> columns, JsonFactory jsonFactory) throws IOException {
+            JsonGenerator json = jsonFactory.createGenerator(out);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+            json.setRootValueSeparator(new SerializedString(""));
+            return new RowWriter() {
+                @Override
+                public void write(ResultSet rs) throws SQLException, IOException {
+                    json.writeStartObject();
+                    for (int i = 0; i < columns.size(); i++) {
+                        ExportColumn column = columns.get(i);
+                        Object value = column.read(rs, i + 1);
+                        json.writeFieldName(column.field());
+                        if (value == null) {
+                            json.writeNull();
+                        } else if (value instanceof BigDecimal decimal) {
+                            json.writeNumber(decimal);
+                        } else {
+                            json.writeString((String) value);
+                        }
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }
+
+                @Override
+                public void finish() throws IOException {
+                    json.close();
+                }
+            };
+        }
+    },
+
+    // RFC 4180: header row, fields quoted only when they need it
+    CSV("text/csv;charset=UTF-8", "csv") {
+        @Override
+        RowWriter open(OutputStream out, List<ExportColumn> columns, JsonFactory jsonFactory) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(columns.get(i).column());
+            }
+            writer.write("\r\n");
+            return new RowWriter() {
+                @Override
+                public void write(ResultSet rs) throws SQLException, IOException {
+                    for (int i = 0; i < columns.size(); i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        Object value = columns.get(i).read(rs, i + 1);
+                        if (value instanceof BigDecimal decimal) {
+                            writer.write(decimal.toPlainString());
+                        } else if (value != null) {
+                            writeField(writer, (String) value);
+                        }
+                    }
+                    writer.write("\r\n");
+                }
+
+                @Override
+                public void finish() throws IOException {
+                    writer.flush();
+                }
+            };
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // Null if the name is not a supported format
+    public static ExportFormat parse(String name) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    abstract RowWriter open(OutputStream out, List<ExportColumn> columns, JsonFactory jsonFactory) throws IOException;
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        // Flushes buffered output without closing the underlying stream
+        void finish() throws IOException;
+    }
+}
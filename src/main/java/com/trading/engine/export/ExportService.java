@@ -0,0 +1,133 @@
+package com.trading.engine.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.engine.export.ExportFormat.RowWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.trading.engine.export.ExportColumn.*;
+
+/**
+ * Streams a symbol's trades or orders straight from a forward-only JDBC cursor to
+ * the response. Rows are fetched {@code fetch-size} at a time and written as they
+ * arrive; nothing is collected, so memory use does not depend on the history size.
+ * The read-only transaction lets drivers that need one (e.g. PostgreSQL) use a
+ * server-side cursor.
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    private static final List<ExportColumn> TRADE_COLUMNS = List.of(
+            id("trade_id", "tradeId"),
+            text("symbol", "symbol"),
+            decimal("quantity", "quantity"),
+            decimal("price", "price"),
+            id("buy_order_id", "buyOrderId"),
+            id("sell_order_id", "sellOrderId"),
+            text("buy_trader_id", "buyTraderId"),
+            text("sell_trader_id", "sellTraderId"),
+            timestamp("timestamp", "timestamp"),
+            decimal("total_value", "totalValue"));
+
+    private static final List<ExportColumn> ORDER_COLUMNS = List.of(
+            id("order_id", "orderId"),
+            text("symbol", "symbol"),
+            text("side", "side"),
+            text("type", "type"),
+            decimal("quantity", "quantity"),
+            decimal("price", "price"),
+            decimal("stop_price", "stopPrice"),
+            decimal("display_quantity", "displayQuantity"),
+            text("time_in_force", "timeInForce"),
+            timestamp("expire_time", "expireTime"),
+            text("status", "status"),
+            text("trader_id", "traderId"),
+            timestamp("timestamp", "timestamp"),
+            decimal("filled_quantity", "filledQuantity"),
+            decimal("average_price", "averagePrice"),
+            timestamp("last_modified", "lastModified"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    @Value("${trading.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public ExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the symbol's trades in {@code [from, to)} oldest first; null bounds are open.
+     * Returns the number of rows written.
+     */
+    public long exportTrades(String symbol, LocalDateTime from, LocalDateTime to, ExportFormat format,
+                             OutputStream out) throws IOException {
+        return export("trades", TRADE_COLUMNS, symbol, from, to, format, out);
+    }
+
+    public long exportOrders(String symbol, LocalDateTime from, LocalDateTime to, ExportFormat format,
+                             OutputStream out) throws IOException {
+        return export("orders", ORDER_COLUMNS, symbol, from, to, format, out);
+    }
+
+    private long export(String table, List<ExportColumn> columns, String symbol, LocalDateTime from,
+                        LocalDateTime to, ExportFormat format, OutputStream out) throws IOException {
+        // Walks the (symbol, timestamp, id) index in order
+        String sql = "SELECT " + columns.stream().map(ExportColumn::column).collect(Collectors.joining(", ")) +
+                " FROM " + table + " WHERE symbol = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp, id";
+        long started = System.nanoTime();
+        RowWriter writer = format.open(out, columns, objectMapper.getFactory());
+        long[] rows = new long[1];
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setString(1, symbol);
+                ps.setObject(2, from != null ? from : MIN_TIME);
+                ps.setObject(3, to != null ? to : MAX_TIME);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Client went away; aborts the query
+                }
+                rows[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+
+        log.info("Exported {} {} rows for {} as {} in {} ms", rows[0], table, symbol, format,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return rows[0];
+    }
+}
@@ -0,0 +1,70 @@
+package com.trading.engine.gateway;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interns short fixed-width ASCII fields (symbols, trader ids) keyed by their raw
+ * bytes, so repeated values decode without allocating. Open addressing over at
+ * most two longs of key; single-threaded. Once full, values are decoded fresh.
+ */
+final class AsciiStringCache {
+
+    private final int width;
+    private final boolean upperCase;
+    private final long[] first;
+    private final long[] second;
+    private final String[] values;
+    private final int mask;
+    private int size;
+
+    AsciiStringCache(int width, int capacity, boolean upperCase) {
+        if (width > 16 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Width must be at most 16 and capacity a power of two");
+        }
+        this.width = width;
+        this.upperCase = upperCase;
+        this.first = new long[capacity];
+        this.second = new long[capacity];
+        this.values = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    String get(ByteBuffer buffer, int offset) {
+        long key1 = buffer.getLong(offset);
+        long key2 = width > 8 ? buffer.getLong(offset + 8) : 0;
+        int slot = hash(key1, key2) & mask;
+        for (int probe = 0; probe <= mask; probe++) {
+            String value = values[slot];
+            if (value == null) {
+                return insert(slot, key1, key2, buffer, offset);
+            }
+            if (first[slot] == key1 && second[slot] == key2) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return decode(buffer, offset);
+    }
+
+    private String insert(int slot, long key1, long key2, ByteBuffer buffer, int offset) {
+        String value = decode(buffer, offset);
+        // Keep the table at most half full so misses stay short
+        if (size * 2 < values.length) {
+            first[slot] = key1;
+            second[slot] = key2;
+            values[slot] = value;
+            size++;
+        }
+        return value;
+    }
+
+    private String decode(ByteBuffer buffer, int offset) {
+        String value = GatewayProtocol.getAscii(buffer, offset, width);
+        return upperCase ? value.toUpperCase() : value;
+    }
+
+    private static int hash(long key1, long key2) {
+        long h = key1 * 0x9E3779B97F4A7C15L + key2;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,54 @@
+package com.trading.engine.gateway;
+
+import com.trading.engine.model.OrderStatus;
+import lombok.Getter;
+
+/**
+ * Reusable holder for one gateway response; {@link OrderGatewayClient#read} fills
+ * it in place so a client loop does not allocate per message.
+ */
+@Getter
+public class ExecutionReport {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private byte type;
+    private long requestId;
+    private long orderId;
+    private OrderStatus status;
+    private long filledQuantity; // Scaled, see FixedPoint
+    private long averagePrice; // Scaled, see FixedPoint
+    private String rejectReason;
+
+    void setReport(byte type, long requestId, long orderId, int status, long filledQuantity, long averagePrice) {
+        this.type = type;
+        this.requestId = requestId;
+        this.orderId = orderId;
+        this.status = STATUSES[status];
+        this.filledQuantity = filledQuantity;
+        this.averagePrice = averagePrice;
+        this.rejectReason = null;
+    }
+
+    void setReject(long requestId, String reason) {
+        this.type = GatewayProtocol.REJECT;
+        this.requestId = requestId;
+        this.orderId = 0;
+        this.status = null;
+        this.filledQuantity = 0;
+        this.averagePrice = 0;
+        this.rejectReason = reason;
+    }
+
+    public boolean isAck() {
+        return type == GatewayProtocol.ACK;
+    }
+
+    public boolean isFill() {
+        return type == GatewayProtocol.FILL;
+    }
+
+    public boolean isReject() {
+        return type == GatewayProtocol.REJECT;
+    }
+}
@@ -0,0 +1,95 @@
+package com.trading.engine.gateway;
+
+import com.trading.engine.dto.OrderResponse;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.util.FixedPoint;
+import com.trading.engine.util.IdGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One client session. Inbound bytes are only touched by the selector thread;
+ * responses are encoded by engine writer threads straight into the outbound
+ * buffer under the connection's lock and written out by the selector thread.
+ */
+final class GatewayConnection {
+
+    private static final int INBOUND_CAPACITY = 64 * 1024;
+    private static final int OUTBOUND_CAPACITY = 256 * 1024;
+
+    final SocketChannel channel;
+    final SelectionKey key;
+    final ByteBuffer inbound = ByteBuffer.allocateDirect(INBOUND_CAPACITY);
+    final AtomicBoolean flushPending = new AtomicBoolean();
+    private final ByteBuffer outbound = ByteBuffer.allocateDirect(OUTBOUND_CAPACITY);
+    private boolean overflowed;
+
+    GatewayConnection(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+
+    // False if the client is not reading fast enough and the session must be dropped
+    synchronized boolean sendReport(long requestId, OrderResponse response) {
+        if (!response.isSuccess()) {
+            return sendReject(requestId, response.getMessage());
+        }
+        if (!reserve(GatewayProtocol.EXECUTION_REPORT_LENGTH)) {
+            return false;
+        }
+        OrderStatus status = response.getStatus();
+        boolean executed = status == OrderStatus.PARTIALLY_FILLED || status == OrderStatus.FILLED;
+        GatewayProtocol.putHeader(outbound, executed ? GatewayProtocol.FILL : GatewayProtocol.ACK, requestId);
+        outbound.putLong(IdGenerator.parse(response.getOrderId()));
+        outbound.put((byte) status.ordinal());
+        outbound.put((byte) 0).put((byte) 0).put((byte) 0);
+        outbound.putLong(toScaled(response.getFilledQuantity()));
+        outbound.putLong(toScaled(response.getAveragePrice()));
+        return true;
+    }
+
+    synchronized boolean sendReject(long requestId, String reason) {
+        if (!reserve(GatewayProtocol.REJECT_LENGTH)) {
+            return false;
+        }
+        String text = reason == null ? "" : reason;
+        GatewayProtocol.putHeader(outbound, GatewayProtocol.REJECT, requestId);
+        outbound.putShort((short) Math.min(text.length(), GatewayProtocol.TEXT_LENGTH));
+        GatewayProtocol.putAscii(outbound, text, GatewayProtocol.TEXT_LENGTH);
+        return true;
+    }
+
+    private boolean reserve(int length) {
+        if (overflowed || outbound.remaining() < length) {
+            overflowed = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes as much as the socket accepts. Returns true once everything queued is
+     * written; throws if the session overflowed or the socket failed.
+     */
+    synchronized boolean flush() throws IOException {
+        if (overflowed) {
+            throw new IOException("Outbound buffer overflow, client too slow");
+        }
+        outbound.flip();
+        try {
+            channel.write(outbound);
+            return !outbound.hasRemaining();
+        } finally {
+            outbound.compact();
+        }
+    }
+
+    private static long toScaled(BigDecimal value) {
+        return value == null ? 0L : FixedPoint.fromBigDecimal(value);
+    }
+}
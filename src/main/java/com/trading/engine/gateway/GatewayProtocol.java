@@ -0,0 +1,109 @@
+package com.trading.engine.gateway;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-layout binary order-entry messages, big-endian. Every frame starts with
+ * a 12-byte header; prices and quantities are scaled longs (see FixedPoint), order
+ * ids are raw 64-bit ids (see IdGenerator), and text fields are fixed-width ASCII
+ * padded with zero bytes.
+ *
+ * <pre>
+ * Header          0 short length (whole frame)  2 byte type  3 byte reserved  4 long requestId
+ * NEW_ORDER  56  12 symbol[8]  20 byte side  21 byte orderType  22 short reserved
+ *                24 long price  32 long quantity  40 traderId[16]
+ * CANCEL     28  12 symbol[8]  20 long orderId
+ * AMEND      44  12 symbol[8]  20 long orderId  28 long price  36 long quantity
+ * ACK / FILL 40  12 long orderId  20 byte status  21 reserved[3]  24 long filledQuantity  32 long averagePrice
+ * REJECT     78  12 short textLength  14 text[64]
+ * </pre>
+ *
+ * ACK reports an order that is resting or cancelled, FILL one with executions
+ * (cumulative filled quantity and average price), REJECT a request that failed.
+ */
+public final class GatewayProtocol {
+
+    public static final byte NEW_ORDER = 1;
+    public static final byte CANCEL = 2;
+    public static final byte AMEND = 3;
+    public static final byte ACK = 11;
+    public static final byte FILL = 12;
+    public static final byte REJECT = 13;
+
+    public static final int HEADER_LENGTH = 12;
+    public static final int NEW_ORDER_LENGTH = 56;
+    public static final int CANCEL_LENGTH = 28;
+    public static final int AMEND_LENGTH = 44;
+    public static final int EXECUTION_REPORT_LENGTH = 40;
+    public static final int REJECT_LENGTH = 78;
+    public static final int MAX_FRAME_LENGTH = NEW_ORDER_LENGTH; // Longest request
+
+    public static final int SYMBOL_LENGTH = 8;
+    public static final int TRADER_ID_LENGTH = 16;
+    public static final int TEXT_LENGTH = 64;
+
+    // Field offsets from the start of the frame
+    public static final int LENGTH_OFFSET = 0;
+    public static final int TYPE_OFFSET = 2;
+    public static final int REQUEST_ID_OFFSET = 4;
+    public static final int SYMBOL_OFFSET = 12;
+    public static final int SIDE_OFFSET = 20;
+    public static final int ORDER_TYPE_OFFSET = 21;
+    public static final int NEW_PRICE_OFFSET = 24;
+    public static final int NEW_QUANTITY_OFFSET = 32;
+    public static final int TRADER_ID_OFFSET = 40;
+    public static final int ORDER_ID_OFFSET = 20;
+    public static final int AMEND_PRICE_OFFSET = 28;
+    public static final int AMEND_QUANTITY_OFFSET = 36;
+    public static final int REPORT_ORDER_ID_OFFSET = 12;
+    public static final int REPORT_STATUS_OFFSET = 20;
+    public static final int REPORT_FILLED_OFFSET = 24;
+    public static final int REPORT_AVERAGE_PRICE_OFFSET = 32;
+    public static final int REJECT_TEXT_LENGTH_OFFSET = 12;
+    public static final int REJECT_TEXT_OFFSET = 14;
+
+    private GatewayProtocol() {
+    }
+
+    public static int frameLength(byte type) {
+        return switch (type) {
+            case NEW_ORDER -> NEW_ORDER_LENGTH;
+            case CANCEL -> CANCEL_LENGTH;
+            case AMEND -> AMEND_LENGTH;
+            case ACK, FILL -> EXECUTION_REPORT_LENGTH;
+            case REJECT -> REJECT_LENGTH;
+            default -> -1;
+        };
+    }
+
+    // Writes the header at the buffer's position and advances past it
+    public static void putHeader(ByteBuffer buffer, byte type, long requestId) {
+        buffer.putShort((short) frameLength(type));
+        buffer.put(type);
+        buffer.put((byte) 0);
+        buffer.putLong(requestId);
+    }
+
+    // Writes a fixed-width ASCII field at the buffer's position; longer values are truncated
+    public static void putAscii(ByteBuffer buffer, String value, int width) {
+        int length = Math.min(value.length(), width);
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+        for (int i = length; i < width; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    // Reads a zero-padded ASCII field with absolute gets
+    public static String getAscii(ByteBuffer buffer, int offset, int width) {
+        int length = 0;
+        while (length < width && buffer.get(offset + length) != 0) {
+            length++;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,129 @@
+package com.trading.engine.gateway;
+
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderType;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static com.trading.engine.gateway.GatewayProtocol.*;
+
+/**
+ * Blocking client for the binary order gateway. Send methods return the request
+ * id that the matching response will carry; responses may arrive out of request
+ * order across symbols. Prices and quantities are scaled longs (see FixedPoint).
+ * Not thread-safe.
+ */
+public class OrderGatewayClient implements Closeable {
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(MAX_FRAME_LENGTH);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(64 * 1024);
+    private long nextRequestId = 1;
+
+    private OrderGatewayClient(SocketChannel channel) {
+        this.channel = channel;
+        in.flip(); // Start empty, in read mode
+    }
+
+    public static OrderGatewayClient connect(String host, int port) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.connect(new InetSocketAddress(host, port));
+        return new OrderGatewayClient(channel);
+    }
+
+    public long newOrder(String symbol, OrderSide side, OrderType type, long price, long quantity,
+                         String traderId) throws IOException {
+        long requestId = nextRequestId++;
+        out.clear();
+        putHeader(out, NEW_ORDER, requestId);
+        putAscii(out, symbol, SYMBOL_LENGTH);
+        out.put((byte) side.ordinal());
+        out.put((byte) type.ordinal());
+        out.putShort((short) 0);
+        out.putLong(price);
+        out.putLong(quantity);
+        putAscii(out, traderId, TRADER_ID_LENGTH);
+        send();
+        return requestId;
+    }
+
+    public long cancel(String symbol, long orderId) throws IOException {
+        long requestId = nextRequestId++;
+        out.clear();
+        putHeader(out, CANCEL, requestId);
+        putAscii(out, symbol, SYMBOL_LENGTH);
+        out.putLong(orderId);
+        send();
+        return requestId;
+    }
+
+    public long amend(String symbol, long orderId, long price, long quantity) throws IOException {
+        long requestId = nextRequestId++;
+        out.clear();
+        putHeader(out, AMEND, requestId);
+        putAscii(out, symbol, SYMBOL_LENGTH);
+        out.putLong(orderId);
+        out.putLong(price);
+        out.putLong(quantity);
+        send();
+        return requestId;
+    }
+
+    private void send() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+
+    // Blocks until the next response arrives and decodes it into the given report
+    public ExecutionReport read(ExecutionReport report) throws IOException {
+        fill(HEADER_LENGTH);
+        int start = in.position();
+        byte type = in.get(start + TYPE_OFFSET);
+        int length = in.getShort(start + LENGTH_OFFSET) & 0xFFFF;
+        if (type != ACK && type != FILL && type != REJECT || length != frameLength(type)) {
+            throw new IOException("Unexpected gateway frame type " + type + " length " + length);
+        }
+        fill(length);
+        start = in.position(); // fill may have compacted the buffer
+
+        long requestId = in.getLong(start + REQUEST_ID_OFFSET);
+        if (type == REJECT) {
+            int textLength = in.getShort(start + REJECT_TEXT_LENGTH_OFFSET);
+            report.setReject(requestId, getAscii(in, start + REJECT_TEXT_OFFSET, textLength));
+        } else {
+            report.setReport(type, requestId, in.getLong(start + REPORT_ORDER_ID_OFFSET),
+                    in.get(start + REPORT_STATUS_OFFSET), in.getLong(start + REPORT_FILLED_OFFSET),
+                    in.getLong(start + REPORT_AVERAGE_PRICE_OFFSET));
+        }
+        in.position(start + length);
+        return report;
+    }
+
+    // Reads until at least the given number of bytes is buffered
+    private void fill(int bytes) throws IOException {
+        if (in.remaining() >= bytes) {
+            return;
+        }
+        in.compact();
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("Order gateway closed the connection");
+            }
+        }
+        in.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,243 @@
+package com.trading.engine.gateway;
+
+import com.trading.engine.dto.OrderResponse;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.service.MatchingEngineService;
+import com.trading.engine.service.OrderService;
+import com.trading.engine.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.trading.engine.gateway.GatewayProtocol.*;
+
+/**
+ * Binary order-entry gateway over non-blocking TCP (see {@link GatewayProtocol}).
+ * A single selector thread accepts, reads and writes; frames are decoded with
+ * absolute gets on the connection's direct buffer and handed to the same engine
+ * entry points as the REST API. Enabled with {@code trading.gateway.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "trading.gateway.enabled", havingValue = "true")
+@Slf4j
+public class OrderGatewayServer implements Runnable {
+
+    private static final OrderSide[] SIDES = OrderSide.values();
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+
+    private final OrderService orderService;
+    private final MatchingEngineService matchingEngineService;
+    private final int port;
+    private final Queue<GatewayConnection> pendingFlushes = new ConcurrentLinkedQueue<>();
+    private final AsciiStringCache symbols = new AsciiStringCache(SYMBOL_LENGTH, 1024, true);
+    private final AsciiStringCache traders = new AsciiStringCache(TRADER_ID_LENGTH, 4096, false);
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean running;
+
+    public OrderGatewayServer(OrderService orderService, MatchingEngineService matchingEngineService,
+                              @Value("${trading.gateway.port:9090}") int port) {
+        this.orderService = orderService;
+        this.matchingEngineService = matchingEngineService;
+        this.port = port;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(this, "order-gateway");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Order gateway listening on port {}", getLocalPort());
+    }
+
+    public int getLocalPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+                drainPendingFlushes();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        GatewayConnection connection = (GatewayConnection) key.attachment();
+                        if (key.isReadable()) {
+                            read(connection);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(connection);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Order gateway selector failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new GatewayConnection(channel, key));
+        log.info("Order gateway session opened from {}", channel.getRemoteAddress());
+    }
+
+    private void read(GatewayConnection connection) {
+        ByteBuffer in = connection.inbound;
+        try {
+            if (connection.channel.read(in) < 0) {
+                close(connection);
+                return;
+            }
+        } catch (IOException e) {
+            close(connection);
+            return;
+        }
+
+        in.flip();
+        while (in.remaining() >= HEADER_LENGTH) {
+            int start = in.position();
+            int length = in.getShort(start + LENGTH_OFFSET) & 0xFFFF;
+            byte type = in.get(start + TYPE_OFFSET);
+            if (type != NEW_ORDER && type != CANCEL && type != AMEND || length != frameLength(type)) {
+                log.warn("Closing order gateway session: bad frame type {} length {}", type, length);
+                close(connection);
+                return;
+            }
+            if (in.remaining() < length) {
+                break;
+            }
+            handle(connection, in, start, type);
+            in.position(start + length);
+        }
+        in.compact();
+    }
+
+    private void handle(GatewayConnection connection, ByteBuffer in, int start, byte type) {
+        long requestId = in.getLong(start + REQUEST_ID_OFFSET);
+        String symbol = symbols.get(in, start + SYMBOL_OFFSET);
+        CompletableFuture<OrderResponse> result;
+
+        if (type == NEW_ORDER) {
+            int side = in.get(start + SIDE_OFFSET);
+            int orderType = in.get(start + ORDER_TYPE_OFFSET);
+            if (side < 0 || side >= SIDES.length || orderType < 0 || orderType >= ORDER_TYPES.length) {
+                reply(connection, requestId, null, new IllegalArgumentException("Invalid side or order type"));
+                return;
+            }
+            result = orderService.placeOrder(symbol, SIDES[side], ORDER_TYPES[orderType],
+                    FixedPoint.toBigDecimal(in.getLong(start + NEW_QUANTITY_OFFSET)),
+                    FixedPoint.toBigDecimal(in.getLong(start + NEW_PRICE_OFFSET)),
+                    traders.get(in, start + TRADER_ID_OFFSET));
+        } else {
+            long orderId = in.getLong(start + ORDER_ID_OFFSET);
+            result = type == CANCEL
+                    ? matchingEngineService.cancelOrder(symbol, orderId)
+                    : matchingEngineService.amendOrder(symbol, orderId,
+                            FixedPoint.toBigDecimal(in.getLong(start + AMEND_PRICE_OFFSET)),
+                            FixedPoint.toBigDecimal(in.getLong(start + AMEND_QUANTITY_OFFSET)));
+        }
+        result.whenComplete((response, error) -> reply(connection, requestId, response, error));
+    }
+
+    // Called from engine writer threads (or inline for immediate rejects)
+    private void reply(GatewayConnection connection, long requestId, OrderResponse response, Throwable error) {
+        boolean queued = error == null
+                ? connection.sendReport(requestId, response)
+                : connection.sendReject(requestId, error.getMessage());
+        if (!queued) {
+            log.warn("Order gateway session {} cannot keep up, dropping it", connection.channel);
+        }
+        if (connection.flushPending.compareAndSet(false, true)) {
+            pendingFlushes.add(connection);
+            selector.wakeup();
+        }
+    }
+
+    private void drainPendingFlushes() {
+        GatewayConnection connection;
+        while ((connection = pendingFlushes.poll()) != null) {
+            connection.flushPending.set(false);
+            if (connection.key.isValid()) {
+                flush(connection);
+            }
+        }
+    }
+
+    private void flush(GatewayConnection connection) {
+        try {
+            boolean done = connection.flush();
+            connection.key.interestOps(done ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            log.warn("Closing order gateway session: {}", e.getMessage());
+            close(connection);
+        }
+    }
+
+    private void close(GatewayConnection connection) {
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            log.debug("Error closing order gateway session: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(5_000);
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Error stopping order gateway: {}", e.getMessage());
+        }
+        log.info("Order gateway stopped");
+    }
+}
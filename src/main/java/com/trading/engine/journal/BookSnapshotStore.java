@@ -0,0 +1,185 @@
+package com.trading.engine.journal;
+
+import com.trading.engine.model.*;
+import com.trading.engine.util.EngineClock;
+import com.trading.engine.util.FixedPoint;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshots of the resting books. Each book is encoded by the writer
+ * thread that owns it; the store then writes all of them to a temporary file and
+ * atomically renames it over the previous snapshot.
+ *
+ * <pre>
+ * int magic | int version | int journalSegment | int bookCount
+ * per book:  utf symbol | long sequence | long lastTradePrice | int orderCount | orders
+ *            | int stopCount | untriggered stops, in firing order
+ * per order: long orderId | utf traderId | byte side | byte type | byte status
+ *            | long price | long stopPrice | long quantity | long filled | long averagePrice
+ *            | long timestampNanos | long displayQuantity | byte timeInForce | long expireNanos
+ *            | long visibleQuantity
+ * </pre>
+ * A snapshot of any other version fails startup with the version this build reads.
+ */
+@Slf4j
+public class BookSnapshotStore {
+
+    private static final int MAGIC = 0x4F42534E;
+    private static final int VERSION = 5;
+    private static final OrderSide[] SIDES = OrderSide.values();
+    private static final OrderType[] TYPES = OrderType.values();
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final TimeInForce[] TIME_IN_FORCE = TimeInForce.values();
+
+    private final Path file;
+
+    public BookSnapshotStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Encodes one book. Must run on the writer thread that owns it.
+     */
+    public static byte[] encode(OrderBook book) {
+        int orderCount = book.getRestingOrderCount() + book.getStops().size();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + orderCount * 130);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(book.getSymbol());
+            out.writeLong(book.getSequence());
+            out.writeLong(book.getLastTradePrice());
+            out.writeInt(book.getRestingOrderCount());
+            writeSide(out, book.getBuyOrders());
+            writeSide(out, book.getSellOrders());
+            List<BookOrder> stops = new ArrayList<>(book.getStops().size());
+            book.getStops().forEachInOrder(stops::add);
+            out.writeInt(stops.size());
+            for (BookOrder stop : stops) {
+                writeOrder(out, stop);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeSide(DataOutputStream out, Map<Long, PriceLevel> levels) throws IOException {
+        for (PriceLevel level : levels.values()) {
+            for (BookOrder order = level.getHead(); order != null; order = order.getNext()) {
+                writeOrder(out, order);
+            }
+        }
+    }
+
+    private static void writeOrder(DataOutputStream out, BookOrder order) throws IOException {
+        out.writeLong(order.getOrderId());
+        out.writeUTF(order.getTraderId());
+        out.writeByte(order.getSide().ordinal());
+        out.writeByte(order.getType().ordinal());
+        out.writeByte(order.getStatus().ordinal());
+        out.writeLong(order.getPrice());
+        out.writeLong(order.getStopPrice());
+        out.writeLong(order.getQuantity());
+        out.writeLong(order.getFilledQuantity());
+        out.writeLong(order.getAveragePrice());
+        out.writeLong(order.getTimestampNanos());
+        out.writeLong(order.getDisplayQuantity());
+        out.writeByte(order.getTimeInForce().ordinal());
+        out.writeLong(order.getExpireNanos());
+        out.writeLong(order.getVisibleQuantity());
+    }
+
+    public void write(int journalSegment, Collection<byte[]> books) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(journalSegment);
+            out.writeInt(books.size());
+            for (byte[] book : books) {
+                out.write(book);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the latest snapshot, or returns an empty snapshot at segment 0 if there is none.
+     */
+    public Snapshot read() throws IOException {
+        if (!Files.exists(file)) {
+            return new Snapshot(0, List.of());
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Unrecognised snapshot file " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Snapshot file " + file + " has format version " + version +
+                        ", this build reads version " + VERSION +
+                        "; recover with the build that wrote it or clear the journal directory");
+            }
+            int journalSegment = in.readInt();
+            int bookCount = in.readInt();
+            List<OrderBook> books = new ArrayList<>(bookCount);
+            for (int i = 0; i < bookCount; i++) {
+                books.add(readBook(in));
+            }
+            return new Snapshot(journalSegment, books);
+        }
+    }
+
+    private static OrderBook readBook(DataInputStream in) throws IOException {
+        OrderBook book = new OrderBook(in.readUTF());
+        book.setSequence(in.readLong());
+        book.setLastTradePrice(in.readLong());
+        int orderCount = in.readInt();
+        for (int i = 0; i < orderCount; i++) {
+            BookOrder order = readOrder(in, book.getSymbol());
+            book.restoreOrder(order, in.readLong());
+        }
+        int stopCount = in.readInt();
+        for (int i = 0; i < stopCount; i++) {
+            BookOrder stop = readOrder(in, book.getSymbol());
+            in.readLong(); // Visible quantity, always 0 as a stop is never an iceberg
+            book.addStop(stop);
+        }
+        return book;
+    }
+
+    private static BookOrder readOrder(DataInputStream in, String symbol) throws IOException {
+        Order order = new Order();
+        order.setOrderId(in.readLong());
+        order.setTraderId(in.readUTF());
+        order.setSymbol(symbol);
+        order.setSide(SIDES[in.readByte()]);
+        order.setType(TYPES[in.readByte()]);
+        order.setStatus(STATUSES[in.readByte()]);
+        order.setPrice(FixedPoint.toBigDecimal(in.readLong()));
+        long stopPrice = in.readLong();
+        order.setStopPrice(stopPrice == 0 ? null : FixedPoint.toBigDecimal(stopPrice));
+        order.setQuantity(FixedPoint.toBigDecimal(in.readLong()));
+        order.setFilledQuantity(FixedPoint.toBigDecimal(in.readLong()));
+        order.setAveragePrice(FixedPoint.toBigDecimal(in.readLong()));
+        order.setTimestamp(EngineClock.toLocalDateTime(in.readLong()));
+        long displayQuantity = in.readLong();
+        order.setDisplayQuantity(displayQuantity == 0 ? null : FixedPoint.toBigDecimal(displayQuantity));
+        order.setTimeInForce(TIME_IN_FORCE[in.readByte()]);
+        long expireNanos = in.readLong();
+        order.setExpireTime(expireNanos == 0 ? null : EngineClock.toLocalDateTime(expireNanos));
+        return new BookOrder(order);
+    }
+
+    public record Snapshot(int journalSegment, List<OrderBook> books) {
+    }
+}
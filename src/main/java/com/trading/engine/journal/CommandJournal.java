@@ -0,0 +1,308 @@
+package com.trading.engine.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only command journal over memory-mapped segment files.
+ *
+ * <p>Every engine writer appends the command it is about to apply. Space is claimed
+ * with a single atomic add on the current segment, so writers never block each other;
+ * only rolling to a new segment is synchronized. A segment starts with
+ * {@code int magic | int formatVersion}; each entry after it is
+ * {@code int length | int crc32 | payload}, padded to 8 bytes. The length is written first and the
+ * checksum last; a checksum of 0 is never stored for a finished entry.
+ *
+ * <p>Writers finish out of claim order, so a crash can leave unfinished entries ahead of
+ * finished ones. Replay steps over an entry whose checksum is still 0 by its length, and
+ * over zeroed space (claimed but not yet written, or never claimed) by scanning to the
+ * next intact entry. It stops reading a segment at an impossible length or a checksum
+ * that does not match, as those mean the file itself is damaged.
+ *
+ * <p>A segment without the header, or of another format version, fails replay rather
+ * than rebuild the books from commands misread.
+ */
+@Slf4j
+public class CommandJournal implements AutoCloseable {
+
+    private static final int SEGMENT_MAGIC = 0x4A524E4C;
+    private static final int FORMAT_VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(256));
+    private final ThreadLocal<CRC32> checksums = ThreadLocal.withInitial(CRC32::new);
+    private volatile Segment current;
+    private final List<Segment> retired = new ArrayList<>(); // Rolled past since the last force; guarded by this
+
+    public CommandJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal directory " + directory, e);
+        }
+    }
+
+    /**
+     * Starts appending in a fresh segment after any existing ones. Call after replay.
+     */
+    public void open() {
+        List<Integer> existing = listSegments();
+        int next = existing.isEmpty() ? 0 : existing.get(existing.size() - 1) + 1;
+        current = Segment.create(segmentPath(next), next, segmentSize);
+    }
+
+    public void append(JournalRecord record) {
+        int maxSize = record.maxEncodedSize();
+        if (align(HEADER_SIZE + maxSize) > segmentSize - SEGMENT_HEADER_SIZE) {
+            throw new IllegalArgumentException("Journal record of up to " + maxSize + " bytes does not fit a segment");
+        }
+        ByteBuffer payload = scratch.get();
+        if (payload.capacity() < maxSize) {
+            payload = ByteBuffer.allocate(Math.max(maxSize, payload.capacity() * 2));
+            scratch.set(payload);
+        }
+        payload.clear();
+        record.encode(payload);
+        payload.flip();
+        int length = payload.remaining();
+        int checksum = checksum(checksums.get(), payload.array(), length);
+
+        int entrySize = align(HEADER_SIZE + length);
+        while (true) {
+            Segment segment = current;
+            int position = segment.position.getAndAdd(entrySize);
+            if (position + entrySize <= segment.capacity) {
+                MappedByteBuffer buffer = segment.buffer;
+                buffer.putInt(position, length);
+                buffer.put(position + HEADER_SIZE, payload.array(), 0, length);
+                INT_VIEW.setRelease(buffer, position + 4, checksum);
+                return;
+            }
+            roll(segment);
+        }
+    }
+
+    // Entries start on 8-byte boundaries so the header ints can be accessed atomically
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    // CRC-32 of the payload, with 0 reserved for entries whose writer has not finished
+    private static int checksum(CRC32 crc, byte[] payload, int length) {
+        crc.reset();
+        crc.update(payload, 0, length);
+        int checksum = (int) crc.getValue();
+        return checksum != 0 ? checksum : 1;
+    }
+
+    private synchronized void roll(Segment full) {
+        if (current == full) {
+            retired.add(full);
+            current = Segment.create(segmentPath(full.index + 1), full.index + 1, segmentSize);
+            log.debug("Journal rolled to segment {}", current.index);
+        }
+    }
+
+    public int getCurrentSegmentIndex() {
+        return current.index;
+    }
+
+    /**
+     * Replays every intact entry in segments numbered {@code fromSegment} or later, in file order.
+     */
+    public long replay(int fromSegment, JournalRecord record, Consumer<JournalRecord> handler) {
+        long count = 0;
+        ByteBuffer payload = ByteBuffer.allocate(256);
+        CRC32 crc = new CRC32();
+        for (int index : listSegments()) {
+            if (index < fromSegment) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                checkHeader(buffer, index);
+                int position = SEGMENT_HEADER_SIZE;
+                while (position + HEADER_SIZE <= buffer.limit()) {
+                    int length = buffer.getInt(position);
+                    if (length == 0) {
+                        int next = nextEntry(buffer, position + HEADER_SIZE, crc);
+                        if (next < 0) {
+                            break; // Nothing but unused space to the end
+                        }
+                        log.warn("Skipping {} bytes of unwritten journal space in segment {} at {}",
+                                next - position, index, position);
+                        position = next;
+                        continue;
+                    }
+                    if (length < 0 || position + HEADER_SIZE + length > buffer.limit()) {
+                        log.error("Journal segment {} has an invalid entry length at {}, ignoring the rest of it",
+                                index, position);
+                        break;
+                    }
+                    int checksum = buffer.getInt(position + 4);
+                    if (payload.capacity() < length) {
+                        payload = ByteBuffer.allocate(length);
+                    }
+                    payload.clear();
+                    buffer.get(position + HEADER_SIZE, payload.array(), 0, length);
+                    payload.limit(length);
+                    if (checksum(crc, payload.array(), length) != checksum) {
+                        if (checksum != 0) {
+                            log.error("Journal segment {} is corrupt at {}, ignoring the rest of it", index, position);
+                            break;
+                        }
+                        log.warn("Skipping unfinished journal entry in segment {} at {}", index, position);
+                        position += align(HEADER_SIZE + length);
+                        continue;
+                    }
+                    position += align(HEADER_SIZE + length);
+                    record.decode(payload);
+                    handler.accept(record);
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot replay journal segment " + index, e);
+            }
+        }
+        return count;
+    }
+
+    private static void checkHeader(MappedByteBuffer buffer, int index) {
+        if (buffer.limit() < SEGMENT_HEADER_SIZE || buffer.getInt(0) != SEGMENT_MAGIC) {
+            throw new IllegalStateException("Journal segment " + index + " has no format header; " +
+                    "replay it with the build that wrote it or clear the journal directory");
+        }
+        int version = buffer.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Journal segment " + index + " has format version " + version +
+                    ", this build reads version " + FORMAT_VERSION + "; " +
+                    "replay it with the build that wrote it or clear the journal directory");
+        }
+    }
+
+    // Position of the next finished entry at or after from, or -1 if there is none
+    private static int nextEntry(MappedByteBuffer buffer, int from, CRC32 crc) {
+        byte[] payload = new byte[0];
+        for (int position = from; position + HEADER_SIZE <= buffer.limit(); position += 8) {
+            int length = buffer.getInt(position);
+            int checksum = buffer.getInt(position + 4);
+            if (length <= 0 || checksum == 0 || position + HEADER_SIZE + length > buffer.limit()) {
+                continue;
+            }
+            if (payload.length < length) {
+                payload = new byte[length];
+            }
+            buffer.get(position + HEADER_SIZE, payload, 0, length);
+            if (checksum(crc, payload, length) == checksum) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Deletes segments whose every entry is covered by a durable snapshot.
+     */
+    public void deleteSegmentsBefore(int segmentIndex) {
+        for (int index : listSegments()) {
+            if (index >= segmentIndex) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segmentPath(index));
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", index, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Flushes every segment written to since the last call: the current one and any the
+     * journal rolled past in between, so a snapshot never relies on unflushed entries.
+     */
+    public void force() {
+        List<Segment> segments;
+        synchronized (this) {
+            segments = new ArrayList<>(retired);
+            retired.clear();
+            if (current != null) {
+                segments.add(current);
+            }
+        }
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    private List<Integer> listSegments() {
+        List<Integer> indexes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(indexes::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal directory " + directory, e);
+        }
+        return indexes;
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private static final class Segment {
+        final int index;
+        final int capacity;
+        final MappedByteBuffer buffer;
+        final AtomicInteger position = new AtomicInteger(SEGMENT_HEADER_SIZE);
+
+        private Segment(int index, int capacity, MappedByteBuffer buffer) {
+            this.index = index;
+            this.capacity = capacity;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, int index, int capacity) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                buffer.putInt(0, SEGMENT_MAGIC);
+                buffer.putInt(4, FORMAT_VERSION);
+                return new Segment(index, capacity, buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map journal segment " + path, e);
+            }
+        }
+    }
+}
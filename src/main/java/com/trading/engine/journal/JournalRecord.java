@@ -0,0 +1,144 @@
+package com.trading.engine.journal;
+
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.TimeInForce;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Mutable, reusable view of one journaled command. The same instance is used to
+ * encode on a writer thread and to decode during replay, so neither path allocates
+ * a record object per command.
+ *
+ * <pre>
+ * byte type | long symbolSequence | str symbol | long orderId | ...
+ *   NEW:    str traderId | byte side | byte orderType | long price | long quantity | long timestampNanos
+ *           | long stopPrice (0 unless the order is a stop) | long displayQuantity (0 unless an iceberg)
+ *           | byte timeInForce | long expireNanos (0 unless DAY or GTD)
+ *   CANCEL: (no further fields)
+ *   AMEND:  long price | long quantity
+ *   EXPIRE: (no further fields)
+ * </pre>
+ * Strings are a short length followed by UTF-8 bytes; prices and quantities are scaled longs.
+ * Symbols and trader ids are length-checked before an order reaches the engine, so a
+ * record always fits; {@link #maxEncodedSize()} bounds its encoded length.
+ */
+public final class JournalRecord {
+
+    public static final byte NEW = 1;
+    public static final byte CANCEL = 2;
+    public static final byte AMEND = 3;
+    public static final byte EXPIRE = 4;
+
+    private static final OrderSide[] SIDES = OrderSide.values();
+    private static final OrderType[] TYPES = OrderType.values();
+    private static final TimeInForce[] TIME_IN_FORCE = TimeInForce.values();
+
+    public byte type;
+    public long symbolSequence;
+    public String symbol;
+    public long orderId;
+    public String traderId;
+    public OrderSide side;
+    public OrderType orderType;
+    public long price;
+    public long quantity;
+    public long timestampNanos;
+    public long stopPrice;
+    public long displayQuantity;
+    public TimeInForce timeInForce;
+    public long expireNanos;
+
+    public void encode(ByteBuffer buffer) {
+        buffer.put(type);
+        buffer.putLong(symbolSequence);
+        putString(buffer, symbol);
+        buffer.putLong(orderId);
+        if (type == NEW) {
+            putString(buffer, traderId);
+            buffer.put((byte) side.ordinal());
+            buffer.put((byte) orderType.ordinal());
+            buffer.putLong(price);
+            buffer.putLong(quantity);
+            buffer.putLong(timestampNanos);
+            buffer.putLong(stopPrice);
+            buffer.putLong(displayQuantity);
+            buffer.put((byte) timeInForce.ordinal());
+            buffer.putLong(expireNanos);
+        } else if (type == AMEND) {
+            buffer.putLong(price);
+            buffer.putLong(quantity);
+        }
+    }
+
+    public void decode(ByteBuffer buffer) {
+        type = buffer.get();
+        symbolSequence = buffer.getLong();
+        symbol = getString(buffer);
+        orderId = buffer.getLong();
+        traderId = null;
+        side = null;
+        orderType = null;
+        price = 0;
+        quantity = 0;
+        timestampNanos = 0;
+        stopPrice = 0;
+        displayQuantity = 0;
+        timeInForce = null;
+        expireNanos = 0;
+        if (type == NEW) {
+            traderId = getString(buffer);
+            side = SIDES[buffer.get()];
+            orderType = TYPES[buffer.get()];
+            price = buffer.getLong();
+            quantity = buffer.getLong();
+            timestampNanos = buffer.getLong();
+            stopPrice = buffer.getLong();
+            displayQuantity = buffer.getLong();
+            timeInForce = TIME_IN_FORCE[buffer.get()];
+            expireNanos = buffer.getLong();
+        } else if (type == AMEND) {
+            price = buffer.getLong();
+            quantity = buffer.getLong();
+        }
+    }
+
+    // Upper bound of what encode() writes for the current fields
+    public int maxEncodedSize() {
+        int size = 1 + 8 + maxStringSize(symbol) + 8;
+        if (type == NEW) {
+            size += maxStringSize(traderId) + 2 + 5 * 8 + 1 + 8;
+        } else if (type == AMEND) {
+            size += 2 * 8;
+        }
+        return size;
+    }
+
+    // UTF-8 takes at most three bytes per UTF-16 char
+    private static int maxStringSize(String value) {
+        return 2 + 3 * value.length();
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes is too long to journal");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (!buffer.hasArray()) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
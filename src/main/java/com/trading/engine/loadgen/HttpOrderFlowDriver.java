@@ -0,0 +1,54 @@
+package com.trading.engine.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.engine.dto.OrderRequest;
+import com.trading.engine.dto.OrderResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// Drives the REST API of a running engine, local or remote
+public class HttpOrderFlowDriver implements OrderFlowDriver {
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String ordersUrl;
+
+    public HttpOrderFlowDriver(String targetUrl, ObjectMapper objectMapper) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.objectMapper = objectMapper;
+        this.ordersUrl = targetUrl.replaceAll("/+$", "") + "/api/orders";
+    }
+
+    @Override
+    public OrderResponse place(OrderRequest request) throws IOException, InterruptedException {
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(ordersUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                .build();
+        return send(httpRequest);
+    }
+
+    @Override
+    public OrderResponse cancel(String orderId) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(ordersUrl + "/" + orderId)).DELETE().build());
+    }
+
+    private OrderResponse send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.body().length == 0) {
+            OrderResponse empty = new OrderResponse();
+            empty.setSuccess(false);
+            empty.setMessage("HTTP " + response.statusCode());
+            return empty;
+        }
+        return objectMapper.readValue(response.body(), OrderResponse.class);
+    }
+}
@@ -0,0 +1,23 @@
+package com.trading.engine.loadgen;
+
+import com.trading.engine.dto.OrderRequest;
+import com.trading.engine.dto.OrderResponse;
+import com.trading.engine.service.OrderService;
+import lombok.RequiredArgsConstructor;
+
+// Calls OrderService directly: engine and persistence cost without HTTP or JSON
+@RequiredArgsConstructor
+public class InProcessOrderFlowDriver implements OrderFlowDriver {
+
+    private final OrderService orderService;
+
+    @Override
+    public OrderResponse place(OrderRequest request) {
+        return orderService.placeOrder(request).join();
+    }
+
+    @Override
+    public OrderResponse cancel(String orderId) {
+        return orderService.cancelOrder(orderId).join();
+    }
+}
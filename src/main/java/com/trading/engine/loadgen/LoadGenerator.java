@@ -0,0 +1,163 @@
+package com.trading.engine.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.engine.dto.OrderRequest;
+import com.trading.engine.dto.OrderResponse;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Synthetic load run, enabled with the {@code loadgen} profile. Each thread owns a
+ * seeded {@link OrderFlowGenerator}, so a given seed and thread count replays the
+ * same flow. With a target rate, latency is measured from each order's scheduled
+ * send time, so a stalled engine is not hidden by the generator slowing down.
+ */
+@Component
+@Profile("loadgen")
+@RequiredArgsConstructor
+@Slf4j
+public class LoadGenerator implements CommandLineRunner {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LoadGeneratorProperties properties;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext applicationContext;
+
+    @Override
+    public void run(String... args) throws Exception {
+        OrderFlowDriver driver = properties.getMode() == LoadGeneratorProperties.Mode.HTTP
+                ? new HttpOrderFlowDriver(properties.getTargetUrl(), objectMapper)
+                : new InProcessOrderFlowDriver(orderService);
+        log.info("Load run: {} mode, {} threads, {} orders, {} symbols, seed {}", properties.getMode(),
+                properties.getThreads(), properties.getOrders(), properties.getSymbols(), properties.getSeed());
+
+        int threads = Math.max(1, properties.getThreads());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            if (properties.getWarmupOrders() > 0) {
+                runPhase(executor, driver, threads, properties.getWarmupOrders(), properties.getSeed() ^ 0x5DEECE66DL);
+            }
+            LoadReport report = runPhase(executor, driver, threads, properties.getOrders(), properties.getSeed());
+            report.logSummary();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (properties.isExitWhenDone()) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private LoadReport runPhase(ExecutorService executor, OrderFlowDriver driver, int threads,
+                                long orders, long seed) throws Exception {
+        List<Future<LoadReport>> results = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            long share = orders / threads + (i < orders % threads ? 1 : 0);
+            OrderFlowGenerator generator = new OrderFlowGenerator(properties, seed + i, "LOADGEN" + i);
+            results.add(executor.submit(() -> drive(driver, generator, share, threads)));
+        }
+
+        LoadReport total = new LoadReport();
+        for (Future<LoadReport> result : results) {
+            total.add(result.get());
+        }
+        return total;
+    }
+
+    private LoadReport drive(OrderFlowDriver driver, OrderFlowGenerator generator, long orders, int threads) throws Exception {
+        LoadReport report = new LoadReport();
+        long intervalNanos = properties.getTargetRate() > 0 ? TimeUnit.SECONDS.toNanos(threads) / properties.getTargetRate() : 0;
+        long start = System.nanoTime();
+        long nextSend = start;
+        long placed = 0;
+
+        while (placed < orders) {
+            if (intervalNanos > 0) {
+                long wait = nextSend - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            long sendTime = intervalNanos > 0 ? nextSend : System.nanoTime();
+            nextSend += intervalNanos;
+
+            String cancelId = generator.nextIsCancel() ? generator.nextCancel() : null;
+            if (cancelId != null) {
+                OrderResponse response = driver.cancel(cancelId);
+                report.record(report.cancels, sendTime, response.isSuccess());
+                continue;
+            }
+
+            OrderRequest request = generator.nextOrder();
+            OrderResponse response = driver.place(request);
+            report.record(report.newOrders, sendTime, response.isSuccess());
+            placed++;
+            if (response.isSuccess() && response.getStatus() != OrderStatus.FILLED) {
+                generator.onResting(request.getSymbol(), response.getOrderId());
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    static class LoadReport {
+        final Histogram newOrders = new Histogram(MAX_LATENCY_NANOS, 3);
+        final Histogram cancels = new Histogram(MAX_LATENCY_NANOS, 3);
+        long errors;
+        long elapsedNanos;
+
+        void record(Histogram histogram, long sendTime, boolean success) {
+            histogram.recordValue(Math.min(System.nanoTime() - sendTime, MAX_LATENCY_NANOS));
+            if (!success) {
+                errors++;
+            }
+        }
+
+        void add(LoadReport other) {
+            newOrders.add(other.newOrders);
+            cancels.add(other.cancels);
+            errors += other.errors;
+            elapsedNanos = Math.max(elapsedNanos, other.elapsedNanos);
+        }
+
+        void logSummary() {
+            long operations = newOrders.getTotalCount() + cancels.getTotalCount();
+            double seconds = elapsedNanos / 1e9;
+            log.info("Load run finished: {} operations in {} s, {} ops/s, {} rejected or failed",
+                    operations, String.format("%.2f", seconds), String.format("%.0f", operations / seconds), errors);
+            logLatency("new", newOrders);
+            logLatency("cancel", cancels);
+        }
+
+        private static void logLatency(String name, Histogram histogram) {
+            if (histogram.getTotalCount() == 0) {
+                return;
+            }
+            log.info("{} latency (us) over {} calls: p50={} p99={} p99.9={} max={}", name, histogram.getTotalCount(),
+                    micros(histogram.getValueAtPercentile(50)), micros(histogram.getValueAtPercentile(99)),
+                    micros(histogram.getValueAtPercentile(99.9)), micros(histogram.getMaxValue()));
+        }
+
+        private static String micros(long nanos) {
+            return String.format("%.1f", nanos / 1000.0);
+        }
+    }
+}
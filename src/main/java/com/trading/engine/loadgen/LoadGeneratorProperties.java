@@ -0,0 +1,41 @@
+package com.trading.engine.loadgen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Settings for the synthetic order flow, bound from {@code trading.loadgen.*}
+ * (see application-loadgen.yml).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "trading.loadgen")
+public class LoadGeneratorProperties {
+
+    public enum Mode { IN_PROCESS, HTTP }
+
+    private Mode mode = Mode.IN_PROCESS;
+    private String targetUrl = "http://localhost:8080";
+    private long seed = 42L;
+
+    private int symbols = 50;
+    private double zipfExponent = 1.1; // Higher concentrates flow on the first symbols
+    private double cancelRatio = 0.8; // Cancels per new order
+    private double marketablePercent = 10.0; // Share of new orders priced through the opposite side
+
+    private BigDecimal midPrice = new BigDecimal("100.00");
+    private BigDecimal tickSize = new BigDecimal("0.01");
+    private double walkTicks = 1.0; // Standard deviation of the mid's move per order, in ticks
+    private int passiveDepthTicks = 20; // Passive orders rest 1..N ticks away from the mid
+    private int minQuantity = 1;
+    private int maxQuantity = 500;
+
+    private int threads = 4;
+    private long orders = 200_000; // New orders per run, across all threads
+    private long warmupOrders = 20_000; // Sent first and left out of the report
+    private int targetRate = 0; // Orders per second across all threads; 0 runs closed loop flat out
+    private boolean exitWhenDone = true;
+}
@@ -0,0 +1,14 @@
+package com.trading.engine.loadgen;
+
+import com.trading.engine.dto.OrderRequest;
+import com.trading.engine.dto.OrderResponse;
+
+/**
+ * Where generated flow is sent. Calls block until the engine has answered.
+ */
+public interface OrderFlowDriver {
+
+    OrderResponse place(OrderRequest request) throws Exception;
+
+    OrderResponse cancel(String orderId) throws Exception;
+}
@@ -0,0 +1,121 @@
+package com.trading.engine.loadgen;
+
+import com.trading.engine.dto.OrderRequest;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic order flow from a seed: symbols drawn from a Zipf distribution,
+ * a Gaussian random walk of each symbol's mid in ticks, passive orders resting a
+ * few ticks away and a share of marketable orders priced through the mid. Cancels
+ * target orders this generator saw come back resting. Not thread-safe; use one
+ * generator per load thread.
+ */
+public class OrderFlowGenerator {
+
+    private final LoadGeneratorProperties properties;
+    private final Random random;
+    private final String[] symbols;
+    private final double[] cumulativeWeights;
+    private final long[] midTicks;
+    private final List<List<String>> restingOrders;
+    private final String traderId;
+
+    public OrderFlowGenerator(LoadGeneratorProperties properties, long seed, String traderId) {
+        this.properties = properties;
+        this.random = new Random(seed);
+        this.traderId = traderId;
+
+        int count = properties.getSymbols();
+        symbols = new String[count];
+        cumulativeWeights = new double[count];
+        midTicks = new long[count];
+        restingOrders = new ArrayList<>(count);
+
+        long startTicks = properties.getMidPrice().divide(properties.getTickSize(), 0, RoundingMode.HALF_UP).longValueExact();
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            symbols[i] = symbolName(i);
+            total += 1.0 / Math.pow(i + 1, properties.getZipfExponent());
+            cumulativeWeights[i] = total;
+            midTicks[i] = startTicks;
+            restingOrders.add(new ArrayList<>());
+        }
+        for (int i = 0; i < count; i++) {
+            cumulativeWeights[i] /= total;
+        }
+    }
+
+    // SYM0, SYM1, ... in popularity order
+    public static String symbolName(int rank) {
+        return "SYM" + rank;
+    }
+
+    public boolean nextIsCancel() {
+        double cancelProbability = properties.getCancelRatio() / (1.0 + properties.getCancelRatio());
+        return random.nextDouble() < cancelProbability;
+    }
+
+    public OrderRequest nextOrder() {
+        int symbol = nextSymbol();
+        long mid = step(symbol);
+        OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+        boolean marketable = random.nextDouble() * 100.0 < properties.getMarketablePercent();
+
+        // Marketable orders cross the mid by up to a few ticks; passive ones rest behind it
+        long offset = marketable
+                ? -(1 + random.nextInt(3))
+                : 1 + random.nextInt(Math.max(1, properties.getPassiveDepthTicks()));
+        long priceTicks = Math.max(1, side == OrderSide.BUY ? mid - offset : mid + offset);
+        int quantity = properties.getMinQuantity()
+                + random.nextInt(Math.max(1, properties.getMaxQuantity() - properties.getMinQuantity() + 1));
+
+        OrderRequest request = new OrderRequest();
+        request.setSymbol(symbols[symbol]);
+        request.setSide(side);
+        request.setType(OrderType.LIMIT);
+        request.setPrice(properties.getTickSize().multiply(BigDecimal.valueOf(priceTicks)));
+        request.setQuantity(BigDecimal.valueOf(quantity));
+        request.setTraderId(traderId);
+        return request;
+    }
+
+    /**
+     * Picks a resting order to cancel, weighted by symbol popularity like new flow;
+     * returns null if the drawn symbol has nothing resting.
+     */
+    public String nextCancel() {
+        List<String> resting = restingOrders.get(nextSymbol());
+        if (resting.isEmpty()) {
+            return null;
+        }
+        int index = random.nextInt(resting.size());
+        String orderId = resting.get(index);
+        resting.set(index, resting.get(resting.size() - 1));
+        resting.remove(resting.size() - 1);
+        return orderId;
+    }
+
+    public void onResting(String symbol, String orderId) {
+        int index = Integer.parseInt(symbol.substring(3));
+        restingOrders.get(index).add(orderId);
+    }
+
+    int nextSymbol() {
+        int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, symbols.length - 1);
+    }
+
+    private long step(int symbol) {
+        long move = Math.round(random.nextGaussian() * properties.getWalkTicks());
+        midTicks[symbol] = Math.max(properties.getPassiveDepthTicks() + 1L, midTicks[symbol] + move);
+        return midTicks[symbol];
+    }
+}
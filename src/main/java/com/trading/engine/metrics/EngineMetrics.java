@@ -0,0 +1,170 @@
+package com.trading.engine.metrics;
+
+import com.trading.engine.model.OrderBook;
+import com.trading.engine.sequencer.CommandType;
+import com.trading.engine.sequencer.OrderSequencer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the order path, visible under {@code /actuator/metrics}.
+ * Timers are created up front so the writer threads only pay for
+ * {@link Timer#record(long, TimeUnit)}.
+ */
+@Component
+public class EngineMetrics {
+
+    public enum Stage {
+        VALIDATION, // Caller thread, before the command is queued
+        QUEUE, // Wait in the owning shard's ring buffer
+        RISK, // Pre-trade limits, on the shard
+        JOURNAL,
+        MATCH,
+        BOOK_INSERT,
+        PERSIST, // Handing order and trade snapshots to write-behind
+        RESPONSE,
+        PUBLISH // Building and queueing the market-data delta
+    }
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<CommandType, Timer> commandTimers = new EnumMap<>(CommandType.class);
+    private final Map<String, Counter> tradeCounters = new ConcurrentHashMap<>();
+    private final AtomicLong totalTrades = new AtomicLong();
+    private long lastTradeSample;
+    private volatile double tradesPerSecond;
+    private volatile OrderSequencer sequencer;
+    private long[] lastBusyNanos = new long[0];
+    private long lastShardSample;
+    private volatile double[] shardUtilization = new double[0];
+
+    public EngineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, timer("engine.order.stage", "stage", stage.name().toLowerCase()));
+        }
+        for (CommandType type : CommandType.values()) {
+            commandTimers.put(type, timer("engine.command.latency", "command", type.name().toLowerCase()));
+        }
+        Gauge.builder("engine.trades.rate", this, metrics -> metrics.tradesPerSecond)
+                .description("Trades per second over the last sampling second")
+                .register(registry);
+    }
+
+    private Timer timer(String name, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Submit to completion, including the queue wait
+    public void recordCommand(CommandType type, long nanos) {
+        commandTimers.get(type).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTrades(String symbol, int count) {
+        tradeCounters.computeIfAbsent(symbol, s -> Counter.builder("engine.trades").tag("symbol", s).register(registry))
+                .increment(count);
+        totalTrades.addAndGet(count);
+    }
+
+    public void recordFlush(String kind, long nanos, int rows) {
+        Timer.builder("engine.persistence.flush")
+                .tag("kind", kind)
+                .publishPercentiles(PERCENTILES)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        registry.counter("engine.persistence.rows", "kind", kind).increment(rows);
+    }
+
+    // A write-behind row given up on after it kept failing on its own
+    public void recordDroppedRow(String kind) {
+        registry.counter("engine.persistence.dropped", "kind", kind).increment();
+    }
+
+    public void registerPersistenceBacklog(Supplier<Number> pending) {
+        Gauge.builder("engine.persistence.pending", pending).register(registry);
+    }
+
+    /**
+     * Per-symbol gauges. They read book fields owned by the writer thread without
+     * synchronization, which is fine for monitoring: a value may be one command stale.
+     */
+    public void registerBook(OrderBook orderBook) {
+        String symbol = orderBook.getSymbol();
+        Gauge.builder("engine.book.levels", orderBook, book -> book.getBuyOrders().size())
+                .tags("symbol", symbol, "side", "buy").register(registry);
+        Gauge.builder("engine.book.levels", orderBook, book -> book.getSellOrders().size())
+                .tags("symbol", symbol, "side", "sell").register(registry);
+        Gauge.builder("engine.book.resting", orderBook, OrderBook::getRestingOrderCount)
+                .tag("symbol", symbol).register(registry);
+    }
+
+    // Per-shard gauges; utilization is the busy fraction over the last sampling second
+    public void registerShards(OrderSequencer sequencer) {
+        int shardCount = sequencer.getShardCount();
+        for (int i = 0; i < shardCount; i++) {
+            int shard = i;
+            String tag = String.valueOf(shard);
+            Gauge.builder("engine.queue.depth", sequencer, s -> s.getQueueDepth(shard))
+                    .tag("shard", tag).register(registry);
+            Gauge.builder("engine.shard.symbols", sequencer, s -> s.getSymbolCount(shard))
+                    .tag("shard", tag).register(registry);
+            Gauge.builder("engine.shard.utilization", this, m -> m.utilizationOf(shard))
+                    .tag("shard", tag).register(registry);
+            FunctionCounter.builder("engine.shard.commands", sequencer, s -> s.getProcessedCount(shard))
+                    .tag("shard", tag).register(registry);
+        }
+        lastBusyNanos = new long[shardCount];
+        shardUtilization = new double[shardCount];
+        lastShardSample = System.nanoTime();
+        this.sequencer = sequencer;
+    }
+
+    // Shard's busy fraction over the last sampling second, 0 before the first sample
+    public double utilizationOf(int shard) {
+        double[] utilization = shardUtilization;
+        return shard < utilization.length ? utilization[shard] : 0;
+    }
+
+    @Scheduled(fixedRate = 1000)
+    void sample() {
+        long total = totalTrades.get();
+        tradesPerSecond = total - lastTradeSample;
+        lastTradeSample = total;
+
+        OrderSequencer current = sequencer;
+        if (current != null) {
+            long now = System.nanoTime();
+            long elapsed = Math.max(1, now - lastShardSample);
+            double[] utilization = new double[lastBusyNanos.length];
+            for (int i = 0; i < utilization.length; i++) {
+                long busy = current.getBusyNanos(i);
+                utilization[i] = Math.min(1.0, (double) (busy - lastBusyNanos[i]) / elapsed);
+                lastBusyNanos[i] = busy;
+            }
+            lastShardSample = now;
+            shardUtilization = utilization;
+        }
+    }
+}
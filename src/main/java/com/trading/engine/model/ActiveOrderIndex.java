@@ -0,0 +1,65 @@
+package com.trading.engine.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every active (pending or partially filled) order across all books, by order id,
+ * trader and symbol, as the detached snapshots the engine hands to persistence.
+ * Shard threads update it after each command; any thread may read it. An order
+ * that is not here is terminal or unknown, and only the database can tell which.
+ */
+public class ActiveOrderIndex {
+
+    private final Map<Long, Order> byId = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, Order>> byTrader = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, Order>> bySymbol = new ConcurrentHashMap<>();
+
+    public static boolean isActive(OrderStatus status) {
+        return status == OrderStatus.PENDING || status == OrderStatus.PARTIALLY_FILLED;
+    }
+
+    // Takes a snapshot (see Order.snapshot()) that is never modified afterwards
+    public void update(Order snapshot) {
+        Long orderId = snapshot.getOrderId();
+        if (isActive(snapshot.getStatus())) {
+            byId.put(orderId, snapshot);
+            if (snapshot.getTraderId() != null) {
+                byTrader.computeIfAbsent(snapshot.getTraderId(), traderId -> new ConcurrentHashMap<>()).put(orderId, snapshot);
+            }
+            bySymbol.computeIfAbsent(snapshot.getSymbol(), symbol -> new ConcurrentHashMap<>()).put(orderId, snapshot);
+        } else if (byId.remove(orderId) != null) {
+            remove(byTrader, snapshot.getTraderId(), orderId);
+            remove(bySymbol, snapshot.getSymbol(), orderId);
+        }
+    }
+
+    // Empty per-key maps are kept; there is one per trader or symbol ever seen
+    private static void remove(Map<String, Map<Long, Order>> index, String key, Long orderId) {
+        Map<Long, Order> orders = key == null ? null : index.get(key);
+        if (orders != null) {
+            orders.remove(orderId);
+        }
+    }
+
+    // Null if the order is not active
+    public Order get(long orderId) {
+        return byId.get(orderId);
+    }
+
+    public List<Order> getByTrader(String traderId) {
+        Map<Long, Order> orders = byTrader.get(traderId);
+        return orders == null ? List.of() : new ArrayList<>(orders.values());
+    }
+
+    public List<Order> getBySymbol(String symbol) {
+        Map<Long, Order> orders = bySymbol.get(symbol);
+        return orders == null ? List.of() : new ArrayList<>(orders.values());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+}
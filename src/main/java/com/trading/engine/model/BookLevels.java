@@ -0,0 +1,28 @@
+package com.trading.engine.model;
+
+import lombok.Getter;
+
+/**
+ * What other threads see of a book: its best levels per side and last trade price as
+ * of one command sequence. The writer thread replaces the whole object after each
+ * command that changes the book (see {@link OrderBook#publishLevels}), so a reader
+ * holding one never sees half of a command. A side no command has touched is shared
+ * with the previous instance rather than copied.
+ */
+@Getter
+public final class BookLevels {
+
+    public static final BookLevels EMPTY = new BookLevels(0, LevelArray.EMPTY, LevelArray.EMPTY, 0);
+
+    private final long sequence;
+    private final LevelArray bids; // Highest price first
+    private final LevelArray asks; // Lowest price first
+    private final long lastTradePrice; // Scaled; 0 until the first trade
+
+    public BookLevels(long sequence, LevelArray bids, LevelArray asks, long lastTradePrice) {
+        this.sequence = sequence;
+        this.bids = bids;
+        this.asks = asks;
+        this.lastTradePrice = lastTradePrice;
+    }
+}
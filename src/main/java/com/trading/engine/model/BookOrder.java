@@ -0,0 +1,190 @@
+package com.trading.engine.model;
+
+import com.trading.engine.util.EngineClock;
+import com.trading.engine.util.FixedPoint;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Matching-core view of an order. Price and quantities are scaled longs
+ * (see {@link FixedPoint}); the JPA entity is only brought up to date when
+ * the order crosses the persistence or REST boundary, and is only created then
+ * for orders initialised from primitives. Instances can be recycled through a
+ * {@link BookOrderPool}.
+ */
+@Getter
+public class BookOrder {
+
+    private Order order; // Null until toEntity() for orders initialised from primitives
+    private long orderId;
+    private String symbol;
+    private String traderId;
+    private OrderSide side;
+    private OrderType type;
+    private long price;
+    private long stopPrice; // Trigger of a STOP or STOP_LIMIT order, otherwise 0
+    private long displayQuantity; // Slice size of an ICEBERG order, otherwise 0
+    private TimeInForce timeInForce;
+    private long expireNanos; // Expiry of a DAY or GTD order (see EngineClock), otherwise 0
+    private long quantity;
+    private long filledQuantity;
+    private long averagePrice;
+    private long timestampNanos; // See EngineClock
+    @Setter
+    private OrderStatus status;
+
+    // Intrusive links owned by the PriceLevel this order rests in
+    BookOrder prev;
+    BookOrder next;
+    PriceLevel level;
+    TraderExposure exposure; // Set by OrderBook.addOrder and addStop
+    long visibleQuantity; // Unfilled part of a resting iceberg's current slice, kept by OrderBook
+
+    // Intrusive links owned by the TimingWheel this order waits to expire in
+    BookOrder timerPrev;
+    BookOrder timerNext;
+    int timerSlot = TimingWheel.UNSCHEDULED;
+    long expireTick;
+
+    public BookOrder(Order order) {
+        init(order);
+    }
+
+    // Blank instance for a pool; call one of the init methods before use
+    public BookOrder() {
+    }
+
+    public BookOrder init(Order order) {
+        this.order = order;
+        this.orderId = order.getOrderId();
+        this.symbol = order.getSymbol();
+        this.traderId = order.getTraderId();
+        this.side = order.getSide();
+        this.type = order.getType();
+        this.price = FixedPoint.fromBigDecimal(order.getPrice());
+        this.stopPrice = order.getStopPrice() != null ? FixedPoint.fromBigDecimal(order.getStopPrice()) : 0L;
+        this.displayQuantity = order.getDisplayQuantity() != null ? FixedPoint.fromBigDecimal(order.getDisplayQuantity()) : 0L;
+        this.timeInForce = order.getTimeInForce() != null ? order.getTimeInForce() : TimeInForce.GTC;
+        this.expireNanos = order.getExpireTime() != null ? EngineClock.toEpochNanos(order.getExpireTime()) : 0L;
+        this.quantity = FixedPoint.fromBigDecimal(order.getQuantity());
+        this.filledQuantity = order.getFilledQuantity() != null ? FixedPoint.fromBigDecimal(order.getFilledQuantity()) : 0L;
+        this.averagePrice = order.getAveragePrice() != null ? FixedPoint.fromBigDecimal(order.getAveragePrice()) : 0L;
+        this.timestampNanos = order.getTimestamp() != null ? EngineClock.toEpochNanos(order.getTimestamp()) : 0L;
+        this.status = order.getStatus();
+        return this;
+    }
+
+    /**
+     * Initialises a new, unfilled order without an entity, e.g. from a journal record.
+     * Allocates nothing; the entity is built on the first {@link #toEntity()}.
+     */
+    public BookOrder init(long orderId, String symbol, String traderId, OrderSide side, OrderType type,
+                          long price, long stopPrice, long displayQuantity, long quantity, long timestampNanos,
+                          TimeInForce timeInForce, long expireNanos) {
+        this.order = null;
+        this.orderId = orderId;
+        this.symbol = symbol;
+        this.traderId = traderId;
+        this.side = side;
+        this.type = type;
+        this.price = price;
+        this.stopPrice = stopPrice;
+        this.displayQuantity = displayQuantity;
+        this.quantity = quantity;
+        this.filledQuantity = 0;
+        this.averagePrice = 0;
+        this.timestampNanos = timestampNanos;
+        this.timeInForce = timeInForce;
+        this.expireNanos = expireNanos;
+        this.status = OrderStatus.PENDING;
+        return this;
+    }
+
+    // Drops every reference so a pooled instance does not keep its last order reachable
+    void clear() {
+        order = null;
+        symbol = null;
+        traderId = null;
+        status = null;
+        prev = null;
+        next = null;
+        level = null;
+        exposure = null;
+        visibleQuantity = 0;
+        timerPrev = null;
+        timerNext = null;
+        timerSlot = TimingWheel.UNSCHEDULED;
+    }
+
+    public long getRemainingQuantity() {
+        return quantity - filledQuantity;
+    }
+
+    public boolean isIceberg() {
+        return displayQuantity > 0;
+    }
+
+    // What market data shows of a resting order: all of it, or an iceberg's current slice
+    public long getDisplayedQuantity() {
+        return isIceberg() ? visibleQuantity : getRemainingQuantity();
+    }
+
+    public boolean isResting() {
+        return level != null;
+    }
+
+    public boolean isFilled() {
+        return filledQuantity >= quantity;
+    }
+
+    // In-place size reduction keeps time priority; see OrderBook.reduceOrder
+    void reduceQuantity(long newQuantity) {
+        quantity = newQuantity;
+    }
+
+    // Use OrderBook.fillOrder so the level total stays in step
+    void fill(long tradeQuantity, long tradePrice) {
+        long previousFilled = filledQuantity;
+        filledQuantity = Math.addExact(filledQuantity, tradeQuantity);
+        averagePrice = FixedPoint.weightedAverage(averagePrice, previousFilled, tradeQuantity, tradePrice);
+        status = isFilled() ? OrderStatus.FILLED : OrderStatus.PARTIALLY_FILLED;
+    }
+
+    /**
+     * Takes a fill of a resting iceberg out of its slice. A fill reaching past the slice
+     * consumes whole slices of the reserve, which only happens when nothing else at the
+     * level could have traded in between. Returns true if a new slice is now on show.
+     */
+    boolean drawSlice(long tradeQuantity) {
+        if (tradeQuantity < visibleQuantity) {
+            visibleQuantity -= tradeQuantity;
+            return false;
+        }
+        long intoNextSlice = (tradeQuantity - visibleQuantity) % displayQuantity;
+        visibleQuantity = Math.min(displayQuantity - intoNextSlice, getRemainingQuantity());
+        return true;
+    }
+
+    // Writes the engine state back onto the entity, creating it if needed; only call from the owning writer thread
+    public Order toEntity() {
+        if (order == null) {
+            order = new Order();
+            order.setOrderId(orderId);
+            order.setSymbol(symbol);
+            order.setTraderId(traderId);
+            order.setSide(side);
+            order.setType(type);
+            order.setPrice(FixedPoint.toBigDecimal(price));
+            order.setStopPrice(stopPrice == 0 ? null : FixedPoint.toBigDecimal(stopPrice));
+            order.setDisplayQuantity(displayQuantity == 0 ? null : FixedPoint.toBigDecimal(displayQuantity));
+            order.setTimeInForce(timeInForce);
+            order.setExpireTime(expireNanos == 0 ? null : EngineClock.toLocalDateTime(expireNanos));
+            order.setTimestamp(EngineClock.toLocalDateTime(timestampNanos));
+        }
+        order.setQuantity(FixedPoint.toBigDecimal(quantity));
+        order.setFilledQuantity(FixedPoint.toBigDecimal(filledQuantity));
+        order.setAveragePrice(FixedPoint.toBigDecimal(averagePrice));
+        order.setStatus(status);
+        return order;
+    }
+}
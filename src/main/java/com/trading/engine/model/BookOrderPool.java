@@ -0,0 +1,31 @@
+package com.trading.engine.model;
+
+/**
+ * Free list of {@link BookOrder} instances for one writer thread. Orders go back once they have
+ * left the book for good (filled, cancelled or rejected) and nothing from their command
+ * still reads them; the pool grows to the largest number of orders ever live at once
+ * and then stops allocating. Not thread-safe.
+ */
+public class BookOrderPool {
+
+    private BookOrder[] free = new BookOrder[64];
+    private int size;
+
+    public BookOrder acquire() {
+        return size == 0 ? new BookOrder() : free[--size];
+    }
+
+    public void release(BookOrder order) {
+        order.clear();
+        if (size == free.length) {
+            BookOrder[] grown = new BookOrder[free.length * 2];
+            System.arraycopy(free, 0, grown, 0, size);
+            free = grown;
+        }
+        free[size++] = order;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,37 @@
+package com.trading.engine.model;
+
+import lombok.Getter;
+
+/**
+ * One execution, as recorded by the match loop into a {@link FillLog} slot. The slot
+ * is overwritten by a later command, so read what you need before the log is cleared.
+ */
+@Getter
+public class Fill {
+
+    private long buyOrderId;
+    private long sellOrderId;
+    private String buyTraderId;
+    private String sellTraderId;
+    private long quantity; // Scaled
+    private long price; // Scaled
+    private long timestampNanos; // See EngineClock
+    private BookOrder resting; // The order that was in the book; only valid until the command completes
+
+    void set(BookOrder buyOrder, BookOrder sellOrder, BookOrder resting, long quantity, long price, long timestampNanos) {
+        this.buyOrderId = buyOrder.getOrderId();
+        this.sellOrderId = sellOrder.getOrderId();
+        this.buyTraderId = buyOrder.getTraderId();
+        this.sellTraderId = sellOrder.getTraderId();
+        this.resting = resting;
+        this.quantity = quantity;
+        this.price = price;
+        this.timestampNanos = timestampNanos;
+    }
+
+    void clear() {
+        buyTraderId = null;
+        sellTraderId = null;
+        resting = null;
+    }
+}
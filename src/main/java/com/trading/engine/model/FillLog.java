@@ -0,0 +1,53 @@
+package com.trading.engine.model;
+
+import java.util.Arrays;
+
+/**
+ * The fills of the writer pass being applied to one book, in pre-allocated
+ * {@link Fill} slots. The slot array only grows when a pass produces more fills than
+ * any before it, so in steady state recording an execution allocates nothing.
+ * Cleared by the engine once the command's results have been handed on.
+ */
+public class FillLog {
+
+    private Fill[] slots = new Fill[0];
+    private int size;
+
+    public FillLog() {
+        grow(16);
+    }
+
+    Fill next() {
+        if (size == slots.length) {
+            grow(slots.length * 2);
+        }
+        return slots[size++];
+    }
+
+    private void grow(int capacity) {
+        int previous = slots.length;
+        slots = Arrays.copyOf(slots, capacity);
+        for (int i = previous; i < capacity; i++) {
+            slots[i] = new Fill();
+        }
+    }
+
+    public Fill get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return slots[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Forgets the recorded fills and the orders they point at, keeping the slots
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            slots[i].clear();
+        }
+        size = 0;
+    }
+}
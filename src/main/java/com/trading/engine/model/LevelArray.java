@@ -0,0 +1,81 @@
+package com.trading.engine.model;
+
+import java.util.Collection;
+
+/**
+ * Immutable copy of the best price levels on one side of a book, best price first:
+ * scaled price, displayed quantity and order count per level. Built by the writer
+ * thread and only ever read after that, so any thread may read it without locking.
+ */
+public final class LevelArray {
+
+    public static final LevelArray EMPTY = new LevelArray(new long[0], new long[0], new int[0]);
+
+    private final long[] prices;
+    private final long[] quantities;
+    private final int[] orderCounts;
+
+    private LevelArray(long[] prices, long[] quantities, int[] orderCounts) {
+        this.prices = prices;
+        this.quantities = quantities;
+        this.orderCounts = orderCounts;
+    }
+
+    // Copies at most depth levels, in the side's iteration order
+    static LevelArray of(Collection<PriceLevel> side, int depth) {
+        int size = Math.min(side.size(), depth);
+        if (size == 0) {
+            return EMPTY;
+        }
+        long[] prices = new long[size];
+        long[] quantities = new long[size];
+        int[] orderCounts = new int[size];
+        int index = 0;
+        for (PriceLevel level : side) {
+            if (index == size) {
+                break;
+            }
+            prices[index] = level.getPrice();
+            quantities[index] = level.getDisplayedQuantity();
+            orderCounts[index] = level.getOrderCount();
+            index++;
+        }
+        return new LevelArray(prices, quantities, orderCounts);
+    }
+
+    /**
+     * Whether a change at {@code price} could show in a copy of the given depth: always
+     * while the copy holds fewer levels, otherwise only at or inside its worst price.
+     * Never, when the depth is zero and nothing is published.
+     */
+    boolean covers(long price, OrderSide side, int depth) {
+        if (prices.length < depth) {
+            return true;
+        }
+        if (prices.length == 0) {
+            return false;
+        }
+        long worst = prices[prices.length - 1];
+        return side == OrderSide.BUY ? price >= worst : price <= worst;
+    }
+
+    public int size() {
+        return prices.length;
+    }
+
+    public boolean isEmpty() {
+        return prices.length == 0;
+    }
+
+    public long getPrice(int index) {
+        return prices[index];
+    }
+
+    public long getQuantity(int index) {
+        return quantities[index];
+    }
+
+    public int getOrderCount(int index) {
+        return orderCounts[index];
+    }
+}
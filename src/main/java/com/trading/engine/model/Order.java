@@ -1,5 +1,7 @@
 package com.trading.engine.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,18 +10,31 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_order_id", columnList = "orderId", unique = true),
+    // History pages are keyset scans over (key, timestamp, id), see HistoryCursor
+    @Index(name = "idx_orders_symbol_time", columnList = "symbol, timestamp, id"),
+    @Index(name = "idx_orders_trader_time", columnList = "traderId, timestamp, id"),
+    // Active-order lookups by side in price order
+    @Index(name = "idx_orders_symbol_status_side_price", columnList = "symbol, status, side, price")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
     
+    // Longest accepted identifiers; every gateway checks them before an order reaches the engine
+    public static final int MAX_SYMBOL_LENGTH = 16;
+    public static final int MAX_TRADER_ID_LENGTH = 64;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // See IdGenerator; a JSON string because JavaScript numbers cannot hold 64-bit ids
     @Column(nullable = false)
-    private String orderId;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long orderId;
     
     @Column(nullable = false)
     private String symbol;
@@ -38,6 +53,22 @@ public class Order {
     @Column(nullable = false, precision = 19, scale = 4)
     private BigDecimal price;
     
+    // Trigger price of STOP and STOP_LIMIT orders; null for other types
+    @Column(precision = 19, scale = 4)
+    private BigDecimal stopPrice;
+    
+    // Peak size shown by an ICEBERG order; null for other types
+    @Column(precision = 19, scale = 4)
+    private BigDecimal displayQuantity;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TimeInForce timeInForce = TimeInForce.GTC;
+    
+    // When a DAY or GTD order expires; null for other time-in-force values
+    @Column
+    private LocalDateTime expireTime;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status;
@@ -59,7 +90,9 @@ public class Order {
     
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
         lastModified = LocalDateTime.now();
         if (status == null) {
             status = OrderStatus.PENDING;
@@ -70,4 +103,11 @@ public class Order {
     protected void onUpdate() {
         lastModified = LocalDateTime.now();
     }
+    
+    // Detached copy handed to persistence so the engine can keep mutating the original
+    public Order snapshot() {
+        return new Order(id, orderId, symbol, side, type, quantity, price, stopPrice, displayQuantity, timeInForce,
+                expireTime, status, traderId,
+                timestamp, filledQuantity, averagePrice, lastModified);
+    }
 } 
\ No newline at end of file
@@ -1,65 +1,323 @@
 package com.trading.engine.model;
 
+import com.trading.engine.util.EngineClock;
+import com.trading.engine.util.FixedPoint;
+import com.trading.engine.util.LongObjectHashMap;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class OrderBook {
     
     private String symbol;
-    private TreeMap<BigDecimal, List<Order>> buyOrders; // Price -> Orders (descending)
-    private TreeMap<BigDecimal, List<Order>> sellOrders; // Price -> Orders (ascending)
+    private TreeMap<Long, PriceLevel> buyOrders; // Scaled price -> Level (descending)
+    private TreeMap<Long, PriceLevel> sellOrders; // Scaled price -> Level (ascending)
+    private LongObjectHashMap<BookOrder> ordersById; // Resting orders by orderId
+    private LongObjectHashMap<PriceLevel> buyLevels; // Same levels as buyOrders, by unboxed price
+    private LongObjectHashMap<PriceLevel> sellLevels; // Same levels as sellOrders, by unboxed price
+    private long sequence; // Commands applied so far, matches the journal's per-symbol sequence
+    private volatile long publishedSequence; // Sequence of the last market-data delta sent; read by cache threads
+    private List<PriceLevel> changedLevels; // Levels touched by the command being applied
+    private Map<String, TraderExposure> exposures; // Resting quantity and notional by traderId, for pre-trade risk
+    private StopBook stops; // Untriggered stop orders, not matchable until the last price reaches them
+    private TimingWheel expiries; // DAY and GTD orders, resting or waiting as stops, by expiry
+    private long lastTradePrice; // Scaled; 0 until the first trade
+    private FillLog fills; // Executions of the command being applied, reused across commands
+    private volatile BookLevels levels = BookLevels.EMPTY; // Last published view for readers on other threads
+    
+    // Cached best levels so the match loop never walks the tree
+    private PriceLevel bestBidLevel;
+    private PriceLevel bestAskLevel;
     
     public OrderBook(String symbol) {
         this.symbol = symbol;
         this.buyOrders = new TreeMap<>(Collections.reverseOrder()); // Highest price first
         this.sellOrders = new TreeMap<>(); // Lowest price first
+        this.ordersById = new LongObjectHashMap<>();
+        this.buyLevels = new LongObjectHashMap<>();
+        this.sellLevels = new LongObjectHashMap<>();
+        this.changedLevels = new ArrayList<>();
+        this.exposures = new HashMap<>();
+        this.stops = new StopBook();
+        this.fills = new FillLog();
+        this.expiries = new TimingWheel(EngineClock.epochNanos());
     }
     
-    public void addOrder(Order order) {
-        TreeMap<BigDecimal, List<Order>> orders = 
-            order.getSide() == OrderSide.BUY ? buyOrders : sellOrders;
+    public void addOrder(BookOrder order) {
+        if (order.isIceberg() && order.visibleQuantity == 0) {
+            order.visibleQuantity = Math.min(order.getDisplayQuantity(), order.getRemainingQuantity());
+        }
+        boolean buy = order.getSide() == OrderSide.BUY;
+        LongObjectHashMap<PriceLevel> levelsByPrice = buy ? buyLevels : sellLevels;
+        
+        // Joining an existing level never boxes the price; only a new level enters the tree
+        PriceLevel level = levelsByPrice.get(order.getPrice());
+        if (level == null) {
+            level = new PriceLevel(order.getPrice(), order.getSide());
+            levelsByPrice.put(order.getPrice(), level);
+            (buy ? buyOrders : sellOrders).put(order.getPrice(), level);
+            if (buy && (bestBidLevel == null || order.getPrice() > bestBidLevel.getPrice())) {
+                bestBidLevel = level;
+            } else if (!buy && (bestAskLevel == null || order.getPrice() < bestAskLevel.getPrice())) {
+                bestAskLevel = level;
+            }
+        }
+        level.append(order);
+        ordersById.put(order.getOrderId(), order);
+        markChanged(level);
         
-        orders.computeIfAbsent(order.getPrice(), k -> new ArrayList<>()).add(order);
+        order.exposure = exposures.computeIfAbsent(order.getTraderId(), traderId -> new TraderExposure());
+        order.exposure.add(order.getRemainingQuantity(), order.getPrice());
+        expiries.schedule(order);
+    }
+    
+    // Rests an order read from a snapshot, showing the iceberg slice it had when written
+    public void restoreOrder(BookOrder order, long visibleQuantity) {
+        order.visibleQuantity = visibleQuantity;
+        addOrder(order);
     }
     
-    public void removeOrder(Order order) {
-        TreeMap<BigDecimal, List<Order>> orders = 
-            order.getSide() == OrderSide.BUY ? buyOrders : sellOrders;
+    public void removeOrder(BookOrder order) {
+        PriceLevel level = order.getLevel();
+        if (level == null) {
+            return;
+        }
+        level.unlink(order);
+        ordersById.remove(order.getOrderId());
+        markChanged(level);
+        order.exposure.remove(order.getRemainingQuantity(), order.getPrice());
+        expiries.cancel(order);
         
-        List<Order> orderList = orders.get(order.getPrice());
-        if (orderList != null) {
-            orderList.removeIf(o -> o.getOrderId().equals(order.getOrderId()));
-            if (orderList.isEmpty()) {
-                orders.remove(order.getPrice());
+        if (level.isEmpty()) {
+            if (order.getSide() == OrderSide.BUY) {
+                buyOrders.remove(level.getPrice());
+                buyLevels.remove(level.getPrice());
+                if (bestBidLevel == level) {
+                    bestBidLevel = firstLevel(buyOrders);
+                }
+            } else {
+                sellOrders.remove(level.getPrice());
+                sellLevels.remove(level.getPrice());
+                if (bestAskLevel == level) {
+                    bestAskLevel = firstLevel(sellOrders);
+                }
+            }
+        }
+    }
+    
+    // Removes a resting order by id; returns null if it is not in the book
+    public BookOrder cancelOrder(long orderId) {
+        BookOrder order = ordersById.get(orderId);
+        if (order != null) {
+            removeOrder(order);
+        }
+        return order;
+    }
+    
+    // Parks a stop until its trigger; it keeps its place in the expiry wheel and counts towards exposure
+    public void addStop(BookOrder stop) {
+        stops.add(stop);
+        stop.exposure = exposures.computeIfAbsent(stop.getTraderId(), traderId -> new TraderExposure());
+        stop.exposure.add(stop.getRemainingQuantity(), stop.getPrice());
+        expiries.schedule(stop);
+    }
+    
+    // Removes an untriggered stop by id; returns null if there is none
+    public BookOrder cancelStop(long orderId) {
+        BookOrder stop = stops.cancel(orderId);
+        if (stop != null) {
+            expiries.cancel(stop);
+            stop.exposure.remove(stop.getRemainingQuantity(), stop.getPrice());
+        }
+        return stop;
+    }
+    
+    // Moves the stops the last price has crossed to fired, see StopBook.pollTriggered; those that rest are rescheduled
+    // and counted in exposure again by addOrder
+    public void pollTriggeredStops(long lastPrice, List<BookOrder> fired) {
+        int first = fired.size();
+        stops.pollTriggered(lastPrice, fired);
+        for (int i = first; i < fired.size(); i++) {
+            BookOrder stop = fired.get(i);
+            expiries.cancel(stop);
+            stop.exposure.remove(stop.getRemainingQuantity(), stop.getPrice());
+        }
+    }
+    
+    /**
+     * Whether the opposite side holds enough quantity at prices the order accepts to
+     * fill it completely, hidden iceberg reserves included. Reads the levels' running
+     * totals, so it costs one step per crossed level and changes nothing.
+     */
+    public boolean canFill(BookOrder order) {
+        boolean buy = order.getSide() == OrderSide.BUY;
+        long needed = order.getRemainingQuantity();
+        for (PriceLevel level : (buy ? sellOrders : buyOrders).values()) {
+            if (buy ? level.getPrice() > order.getPrice() : level.getPrice() < order.getPrice()) {
+                break;
+            }
+            needed -= level.totalQuantity;
+            if (needed <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Shrinks a resting order without losing its place in the queue
+    public void reduceOrder(BookOrder order, long newQuantity) {
+        PriceLevel level = order.getLevel();
+        long reduction = order.getQuantity() - newQuantity;
+        long remainingBefore = order.getRemainingQuantity();
+        long displayedBefore = order.getDisplayedQuantity();
+        order.reduceQuantity(newQuantity);
+        if (level != null) {
+            if (order.isIceberg()) {
+                order.visibleQuantity = Math.min(order.visibleQuantity, order.getRemainingQuantity());
+            }
+            level.totalQuantity -= reduction;
+            level.displayedQuantity += order.getDisplayedQuantity() - displayedBefore;
+            markChanged(level);
+            order.exposure.reduce(remainingBefore, order.getRemainingQuantity(), order.getPrice());
+        }
+    }
+    
+    // Applies a fill to either side of a trade, keeping the resting order's level total current
+    public void fillOrder(BookOrder order, long tradeQuantity, long tradePrice) {
+        long remainingBefore = order.getRemainingQuantity();
+        long displayedBefore = order.getDisplayedQuantity();
+        order.fill(tradeQuantity, tradePrice);
+        PriceLevel level = order.getLevel();
+        if (level != null) {
+            // A replenished slice goes to the back of the queue; the order keeps its links and index entry
+            if (order.isIceberg() && order.drawSlice(tradeQuantity) && !order.isFilled()) {
+                level.moveToBack(order);
+            }
+            level.totalQuantity -= tradeQuantity;
+            level.displayedQuantity += order.getDisplayedQuantity() - displayedBefore;
+            markChanged(level);
+            order.exposure.reduce(remainingBefore, order.getRemainingQuantity(), order.getPrice());
+        }
+    }
+    
+    /**
+     * The most an aggressor with {@code incoming} left can take from a resting order in one
+     * trade. Slice by slice is only needed while other orders at the level could trade
+     * between an iceberg's refreshes: an iceberg alone at its level, or any order in a
+     * level the aggressor will clear anyway, fills in one step however many slices it spans.
+     */
+    public long matchableQuantity(BookOrder resting, long incoming) {
+        PriceLevel level = resting.getLevel();
+        if (!resting.isIceberg() || level.getOrderCount() == 1 || incoming >= level.totalQuantity) {
+            return resting.getRemainingQuantity();
+        }
+        return resting.visibleQuantity;
+    }
+    
+    private void markChanged(PriceLevel level) {
+        if (!level.changed) {
+            level.changed = true;
+            changedLevels.add(level);
+        }
+    }
+    
+    /**
+     * Publishes the best {@code depth} levels per side as of the current sequence, for
+     * readers on other threads. Only a side with a changed level inside its published
+     * range is copied again; call before {@link #clearChangedLevels()}.
+     */
+    public void publishLevels(int depth) {
+        BookLevels current = levels;
+        boolean bidsChanged = false;
+        boolean asksChanged = false;
+        for (int i = 0; i < changedLevels.size(); i++) {
+            PriceLevel level = changedLevels.get(i);
+            if (level.getSide() == OrderSide.BUY) {
+                bidsChanged |= current.getBids().covers(level.getPrice(), OrderSide.BUY, depth);
+            } else {
+                asksChanged |= current.getAsks().covers(level.getPrice(), OrderSide.SELL, depth);
             }
         }
+        levels = new BookLevels(sequence,
+                bidsChanged ? LevelArray.of(buyOrders.values(), depth) : current.getBids(),
+                asksChanged ? LevelArray.of(sellOrders.values(), depth) : current.getAsks(),
+                lastTradePrice);
+    }
+    
+    // Publishes both sides from scratch, e.g. after recovery
+    public void republishLevels(int depth) {
+        levels = new BookLevels(sequence, LevelArray.of(buyOrders.values(), depth),
+                LevelArray.of(sellOrders.values(), depth), lastTradePrice);
+    }
+    
+    public void clearChangedLevels() {
+        for (int i = 0; i < changedLevels.size(); i++) {
+            changedLevels.get(i).changed = false;
+        }
+        changedLevels.clear();
+    }
+    
+    // Null if the trader has never rested an order in this book
+    public TraderExposure getExposure(String traderId) {
+        return exposures.get(traderId);
+    }
+    
+    public BookOrder getOrder(long orderId) {
+        return ordersById.get(orderId);
+    }
+    
+    public int getRestingOrderCount() {
+        return ordersById.size();
+    }
+    
+    public void forEachOrder(Consumer<BookOrder> action) {
+        ordersById.forEachValue(action);
+    }
+    
+    private static PriceLevel firstLevel(TreeMap<Long, PriceLevel> orders) {
+        Map.Entry<Long, PriceLevel> first = orders.firstEntry();
+        return first == null ? null : first.getValue();
     }
     
     public BigDecimal getBestBid() {
-        return buyOrders.isEmpty() ? null : buyOrders.firstKey();
+        return bestBidLevel == null ? null : FixedPoint.toBigDecimal(bestBidLevel.getPrice());
     }
     
     public BigDecimal getBestAsk() {
-        return sellOrders.isEmpty() ? null : sellOrders.firstKey();
+        return bestAskLevel == null ? null : FixedPoint.toBigDecimal(bestAskLevel.getPrice());
     }
     
-    public List<Order> getBestBidOrders() {
-        return buyOrders.isEmpty() ? new ArrayList<>() : buyOrders.firstEntry().getValue();
+    public boolean hasCrossedSpread() {
+        return bestBidLevel != null && bestAskLevel != null && bestBidLevel.getPrice() >= bestAskLevel.getPrice();
     }
     
-    public List<Order> getBestAskOrders() {
-        return sellOrders.isEmpty() ? new ArrayList<>() : sellOrders.firstEntry().getValue();
+    // REST view of one side, keyed by BigDecimal price with detached copies of the orders;
+    // icebergs appear with only their filled quantity and current slice
+    public Map<BigDecimal, List<Order>> getBuyOrderView() {
+        return toView(buyOrders);
     }
     
-    public boolean hasCrossedSpread() {
-        BigDecimal bestBid = getBestBid();
-        BigDecimal bestAsk = getBestAsk();
-        return bestBid != null && bestAsk != null && bestBid.compareTo(bestAsk) >= 0;
+    public Map<BigDecimal, List<Order>> getSellOrderView() {
+        return toView(sellOrders);
+    }
+    
+    private static Map<BigDecimal, List<Order>> toView(TreeMap<Long, PriceLevel> orders) {
+        Map<BigDecimal, List<Order>> view = new LinkedHashMap<>();
+        orders.forEach((price, level) -> {
+            List<Order> entities = new ArrayList<>(level.getOrderCount());
+            for (BookOrder order = level.getHead(); order != null; order = order.getNext()) {
+                Order entity = order.toEntity().snapshot();
+                if (order.isIceberg()) {
+                    entity.setQuantity(FixedPoint.toBigDecimal(order.getFilledQuantity() + order.getVisibleQuantity()));
+                }
+                entities.add(entity);
+            }
+            view.put(FixedPoint.toBigDecimal(price), entities);
+        });
+        return view;
     }
-} 
\ No newline at end of file
+}
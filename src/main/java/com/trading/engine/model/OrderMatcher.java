@@ -0,0 +1,94 @@
+package com.trading.engine.model;
+
+/**
+ * The price-time match loop over one {@link OrderBook}. Each execution is applied to
+ * both orders in fixed point and recorded in the book's {@link FillLog}, and filled
+ * resting orders leave the book. Nothing in the loop allocates unless it empties a
+ * level: turning fills into {@link Trade} entities is left to the caller, once results
+ * leave the writer thread.
+ */
+public final class OrderMatcher {
+
+    private OrderMatcher() {
+    }
+
+    /**
+     * Matches an incoming order against the opposite side, as far as its price allows.
+     * Does not rest the remainder.
+     *
+     * @param timestampNanos stamped on every fill, see {@link com.trading.engine.util.EngineClock}
+     */
+    public static void match(OrderBook orderBook, BookOrder incoming, long timestampNanos) {
+        if (incoming.getSide() == OrderSide.BUY) {
+            matchBuyOrder(orderBook, incoming, timestampNanos);
+        } else {
+            matchSellOrder(orderBook, incoming, timestampNanos);
+        }
+    }
+
+    private static void matchBuyOrder(OrderBook orderBook, BookOrder buyOrder, long timestampNanos) {
+        long remainingQuantity = buyOrder.getRemainingQuantity();
+
+        while (remainingQuantity > 0) {
+            PriceLevel bestSellLevel = orderBook.getBestAskLevel();
+
+            if (bestSellLevel == null) {
+                break; // No matching sell orders
+            }
+
+            BookOrder bestSellOrder = bestSellLevel.getHead();
+
+            // Check if prices match; a market order's price is its protection limit
+            if (buyOrder.getPrice() < bestSellOrder.getPrice()) {
+                break; // Buy price is lower than sell price
+            }
+
+            // Calculate trade quantity; an iceberg may only offer its current slice
+            long tradeQuantity = Math.min(remainingQuantity, orderBook.matchableQuantity(bestSellOrder, remainingQuantity));
+
+            execute(orderBook, buyOrder, bestSellOrder, bestSellOrder, tradeQuantity, timestampNanos);
+            remainingQuantity -= tradeQuantity;
+        }
+    }
+
+    private static void matchSellOrder(OrderBook orderBook, BookOrder sellOrder, long timestampNanos) {
+        long remainingQuantity = sellOrder.getRemainingQuantity();
+
+        while (remainingQuantity > 0) {
+            PriceLevel bestBuyLevel = orderBook.getBestBidLevel();
+
+            if (bestBuyLevel == null) {
+                break; // No matching buy orders
+            }
+
+            BookOrder bestBuyOrder = bestBuyLevel.getHead();
+
+            // Check if prices match
+            if (sellOrder.getPrice() > bestBuyOrder.getPrice()) {
+                break; // Sell price is higher than buy price
+            }
+
+            // Calculate trade quantity; an iceberg may only offer its current slice
+            long tradeQuantity = Math.min(remainingQuantity, orderBook.matchableQuantity(bestBuyOrder, remainingQuantity));
+
+            execute(orderBook, bestBuyOrder, sellOrder, bestBuyOrder, tradeQuantity, timestampNanos);
+            remainingQuantity -= tradeQuantity;
+        }
+    }
+
+    // Trades at the resting order's price
+    private static void execute(OrderBook orderBook, BookOrder buyOrder, BookOrder sellOrder, BookOrder resting,
+                                long quantity, long timestampNanos) {
+        long price = resting.getPrice();
+        orderBook.getFills().next().set(buyOrder, sellOrder, resting, quantity, price, timestampNanos);
+
+        // Fills update filled quantity, status, average price and level totals in fixed point
+        orderBook.fillOrder(buyOrder, quantity, price);
+        orderBook.fillOrder(sellOrder, quantity, price);
+        orderBook.setLastTradePrice(price);
+
+        if (resting.isFilled()) {
+            orderBook.removeOrder(resting);
+        }
+    }
+}
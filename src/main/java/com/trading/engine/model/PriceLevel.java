@@ -0,0 +1,81 @@
+package com.trading.engine.model;
+
+import lombok.Getter;
+
+/**
+ * Orders resting at one price, kept as an intrusive doubly-linked FIFO through
+ * {@link BookOrder#prev}/{@link BookOrder#next} so appends and removals are O(1).
+ * The level's open and displayed quantities are maintained incrementally by {@link OrderBook}.
+ */
+@Getter
+public class PriceLevel {
+
+    private final long price;
+    private final OrderSide side;
+    private BookOrder head;
+    private BookOrder tail;
+    private int orderCount;
+    long totalQuantity; // Remaining (unfilled) quantity across the level, scaled
+    long displayedQuantity; // As totalQuantity, but counting only the current slice of icebergs
+    boolean changed; // Already queued in OrderBook.changedLevels for this command
+
+    public PriceLevel(long price, OrderSide side) {
+        this.price = price;
+        this.side = side;
+    }
+
+    public boolean isEmpty() {
+        return head == null;
+    }
+
+    void append(BookOrder order) {
+        order.level = this;
+        order.prev = tail;
+        order.next = null;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+        orderCount++;
+        totalQuantity += order.getRemainingQuantity();
+        displayedQuantity += order.getDisplayedQuantity();
+    }
+
+    void unlink(BookOrder order) {
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        order.prev = null;
+        order.next = null;
+        order.level = null;
+        orderCount--;
+        totalQuantity -= order.getRemainingQuantity();
+        displayedQuantity -= order.getDisplayedQuantity();
+    }
+
+    // Requeues an order behind the rest of the level in O(1), as when an iceberg shows a new slice
+    void moveToBack(BookOrder order) {
+        if (order == tail) {
+            return;
+        }
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        order.next.prev = order.prev;
+        order.prev = tail;
+        order.next = null;
+        tail.next = order;
+        tail = order;
+    }
+}
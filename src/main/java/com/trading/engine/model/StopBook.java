@@ -0,0 +1,109 @@
+package com.trading.engine.model;
+
+import com.trading.engine.util.LongObjectHashMap;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Untriggered STOP and STOP_LIMIT orders of one book, kept out of the matchable
+ * levels and indexed by trigger price. A buy stop fires once the last trade price
+ * rises to its trigger and a sell stop once it falls to it, so each side is sorted
+ * with the next stop to fire first: collecting the k stops a price crosses is
+ * O(log n + k) and never looks at the stops it does not fire. Stops at one trigger
+ * share a {@link PriceLevel}, keyed by the trigger, and fire in arrival order.
+ */
+public class StopBook {
+
+    private final TreeMap<Long, PriceLevel> buyStops = new TreeMap<>(); // Lowest trigger first
+    private final TreeMap<Long, PriceLevel> sellStops = new TreeMap<>(Collections.reverseOrder()); // Highest first
+    private final LongObjectHashMap<BookOrder> stopsById = new LongObjectHashMap<>();
+
+    public static boolean isStop(OrderType type) {
+        return type == OrderType.STOP || type == OrderType.STOP_LIMIT;
+    }
+
+    // A last price of 0 means the book has not traded yet, which fires nothing
+    public static boolean isTriggered(BookOrder stop, long lastPrice) {
+        if (lastPrice <= 0) {
+            return false;
+        }
+        return stop.getSide() == OrderSide.BUY ? lastPrice >= stop.getStopPrice() : lastPrice <= stop.getStopPrice();
+    }
+
+    public void add(BookOrder stop) {
+        TreeMap<Long, PriceLevel> stops = stop.getSide() == OrderSide.BUY ? buyStops : sellStops;
+        stops.computeIfAbsent(stop.getStopPrice(), trigger -> new PriceLevel(trigger, stop.getSide())).append(stop);
+        stopsById.put(stop.getOrderId(), stop);
+    }
+
+    // Returns null if no untriggered stop has this id
+    public BookOrder cancel(long orderId) {
+        BookOrder stop = stopsById.remove(orderId);
+        if (stop == null) {
+            return null;
+        }
+        PriceLevel level = stop.getLevel();
+        level.unlink(stop);
+        if (level.isEmpty()) {
+            (stop.getSide() == OrderSide.BUY ? buyStops : sellStops).remove(level.getPrice());
+        }
+        return stop;
+    }
+
+    /**
+     * Removes every stop the last price has crossed and adds them to {@code fired},
+     * buy and sell stops each in trigger order, then arrival order.
+     */
+    public void pollTriggered(long lastPrice, List<BookOrder> fired) {
+        if (lastPrice <= 0) {
+            return;
+        }
+        drain(buyStops, lastPrice, fired);
+        drain(sellStops, lastPrice, fired);
+    }
+
+    // Both maps are ordered so that a level fires iff every level before it fires
+    private void drain(TreeMap<Long, PriceLevel> stops, long lastPrice, List<BookOrder> fired) {
+        Map.Entry<Long, PriceLevel> first;
+        while ((first = stops.firstEntry()) != null && isTriggered(first.getValue().getHead(), lastPrice)) {
+            stops.pollFirstEntry();
+            PriceLevel level = first.getValue();
+            BookOrder stop;
+            while ((stop = level.getHead()) != null) {
+                level.unlink(stop);
+                stopsById.remove(stop.getOrderId());
+                fired.add(stop);
+            }
+        }
+    }
+
+    public BookOrder get(long orderId) {
+        return stopsById.get(orderId);
+    }
+
+    public int size() {
+        return stopsById.size();
+    }
+
+    public void forEach(Consumer<BookOrder> action) {
+        stopsById.forEachValue(action);
+    }
+
+    // Buy then sell side, each in firing order; used for snapshots so arrival order survives a restart
+    public void forEachInOrder(Consumer<BookOrder> action) {
+        forEachInOrder(buyStops, action);
+        forEachInOrder(sellStops, action);
+    }
+
+    private static void forEachInOrder(TreeMap<Long, PriceLevel> stops, Consumer<BookOrder> action) {
+        for (PriceLevel level : stops.values()) {
+            for (BookOrder stop = level.getHead(); stop != null; stop = stop.getNext()) {
+                action.accept(stop);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.trading.engine.model;
+
+public enum TimeInForce {
+    GTC, // Good till cancelled
+    DAY, // Expires at the configured day close
+    GTD, // Good till the order's expireTime
+    IOC, // Immediate or cancel: trades what it can, the rest is cancelled
+    FOK; // Fill or kill: trades in full at once or not at all
+
+    // Whether any remainder is cancelled instead of resting in the book
+    public boolean isImmediate() {
+        return this == IOC || this == FOK;
+    }
+}
@@ -0,0 +1,155 @@
+package com.trading.engine.model;
+
+import java.util.List;
+
+/**
+ * Pending expiries of one book's orders, in a hierarchical timing wheel of 1 ms ticks:
+ * six levels of 64 slots, each slot of a level spanning one full turn of the level
+ * below, which covers deadlines about two years out. An order is filed at the lowest
+ * level whose current turn contains its deadline and moves down a level each time the
+ * slot it waits in comes round, so it expires on exactly its tick.
+ * <p>
+ * Slots are intrusive lists through the orders themselves, so scheduling and cancelling
+ * are O(1) and allocate nothing. Advancing skips straight past stretches in which no
+ * slot can come due, so its cost is bounded by the orders moved or expired and the
+ * slot turns they wait on, not by the time passed. Owned by the book's writer thread.
+ */
+public class TimingWheel {
+
+    static final int UNSCHEDULED = -1;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 6;
+    private static final int OVERFLOW = SLOTS * LEVELS; // Beyond the top level; re-filed each time it turns
+    private static final long NANOS_PER_TICK = 1_000_000L;
+
+    private final BookOrder[] slots = new BookOrder[OVERFLOW + 1];
+    private final int[] levelSizes = new int[LEVELS + 1]; // Orders filed per level, overflow last
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long nowNanos) {
+        this.currentTick = nowNanos / NANOS_PER_TICK;
+    }
+
+    // Files an order under its expiry; does nothing for an order without one or one already filed
+    public void schedule(BookOrder order) {
+        if (order.getExpireNanos() <= 0 || order.timerSlot != UNSCHEDULED) {
+            return;
+        }
+        long deadline = (order.getExpireNanos() + NANOS_PER_TICK - 1) / NANOS_PER_TICK;
+        order.expireTick = Math.max(deadline, currentTick + 1);
+        file(order);
+        size++;
+    }
+
+    public void cancel(BookOrder order) {
+        if (order.timerSlot == UNSCHEDULED) {
+            return;
+        }
+        unlink(order);
+        size--;
+    }
+
+    /**
+     * Moves the wheel on to {@code nowNanos}, unscheduling every order whose expiry has
+     * been reached and adding it to {@code expired}, earliest tick first.
+     */
+    public void advance(long nowNanos, List<BookOrder> expired) {
+        long target = nowNanos / NANOS_PER_TICK;
+        while (size > 0 && currentTick < target) {
+            // Nothing changes before the next turn of the lowest level holding orders
+            int lowest = 0;
+            while (levelSizes[lowest] == 0) {
+                lowest++;
+            }
+            if (lowest > 0) {
+                currentTick = Math.min(target, currentTick | ((1L << (SLOT_BITS * lowest)) - 1));
+                if (currentTick == target) {
+                    break;
+                }
+            }
+            currentTick++;
+            cascade();
+            BookOrder order;
+            while ((order = slots[(int) (currentTick & (SLOTS - 1))]) != null) {
+                unlink(order);
+                size--;
+                expired.add(order);
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+    }
+
+    // Re-files the slots that have just come round on every level the tick has turned over
+    private void cascade() {
+        for (int level = 1; level <= LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            int slot = level == LEVELS ? OVERFLOW : level * SLOTS + (int) ((currentTick >>> shift) & (SLOTS - 1));
+            BookOrder order = slots[slot];
+            slots[slot] = null;
+            levelSizes[level] = levelSizes[level] - countFrom(order);
+            while (order != null) {
+                BookOrder next = order.timerNext;
+                file(order);
+                order = next;
+            }
+        }
+    }
+
+    private static int countFrom(BookOrder order) {
+        int count = 0;
+        for (; order != null; order = order.timerNext) {
+            count++;
+        }
+        return count;
+    }
+
+    // Lowest level whose current turn contains the deadline, in the deadline's slot
+    private void file(BookOrder order) {
+        long deadline = order.expireTick;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((deadline >>> shift) == (currentTick >>> shift)) {
+                link(order, level * SLOTS + (int) ((deadline >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+                return;
+            }
+        }
+        link(order, OVERFLOW);
+    }
+
+    private void link(BookOrder order, int slot) {
+        BookOrder head = slots[slot];
+        levelSizes[slot / SLOTS]++;
+        order.timerSlot = slot;
+        order.timerPrev = null;
+        order.timerNext = head;
+        if (head != null) {
+            head.timerPrev = order;
+        }
+        slots[slot] = order;
+    }
+
+    private void unlink(BookOrder order) {
+        levelSizes[order.timerSlot / SLOTS]--;
+        if (order.timerPrev == null) {
+            slots[order.timerSlot] = order.timerNext;
+        } else {
+            order.timerPrev.timerNext = order.timerNext;
+        }
+        if (order.timerNext != null) {
+            order.timerNext.timerPrev = order.timerPrev;
+        }
+        order.timerSlot = UNSCHEDULED;
+        order.timerPrev = null;
+        order.timerNext = null;
+    }
+
+    // Orders waiting to expire
+    public int size() {
+        return size;
+    }
+}
@@ -1,5 +1,7 @@
 package com.trading.engine.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,7 +10,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "trades")
+@Table(name = "trades", indexes = {
+    @Index(name = "idx_trades_trade_id", columnList = "tradeId", unique = true),
+    // History pages are keyset scans over (key, timestamp, id), see HistoryCursor
+    @Index(name = "idx_trades_symbol_time", columnList = "symbol, timestamp, id"),
+    @Index(name = "idx_trades_buy_trader_time", columnList = "buyTraderId, timestamp, id"),
+    @Index(name = "idx_trades_sell_trader_time", columnList = "sellTraderId, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,8 +26,10 @@ public class Trade {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // Ids are JSON strings, see Order.orderId
     @Column(nullable = false)
-    private String tradeId;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long tradeId;
     
     @Column(nullable = false)
     private String symbol;
@@ -31,10 +41,12 @@ public class Trade {
     private BigDecimal price;
     
     @Column(nullable = false)
-    private String buyOrderId;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long buyOrderId;
     
     @Column(nullable = false)
-    private String sellOrderId;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long sellOrderId;
     
     @Column(nullable = false)
     private String buyTraderId;
@@ -0,0 +1,36 @@
+package com.trading.engine.model;
+
+import com.trading.engine.util.FixedPoint;
+import lombok.Getter;
+
+/**
+ * What one trader has open in one book: remaining quantity and notional (at each
+ * order's limit price) summed over their resting orders and untriggered stops.
+ * {@link OrderBook} keeps it current as orders rest, park, fill, shrink and leave, so
+ * reading it is O(1). Only touched by the book's writer thread.
+ */
+@Getter
+public class TraderExposure {
+
+    private long openQuantity;
+    private long openNotional;
+    private int openOrders;
+
+    void add(long remaining, long price) {
+        openQuantity += remaining;
+        openNotional += FixedPoint.multiply(remaining, price);
+        openOrders++;
+    }
+
+    void remove(long remaining, long price) {
+        openQuantity -= remaining;
+        openNotional -= FixedPoint.multiply(remaining, price);
+        openOrders--;
+    }
+
+    // Notional is re-derived from both remainders so rounding never accumulates
+    void reduce(long remainingBefore, long remainingAfter, long price) {
+        openQuantity -= remainingBefore - remainingAfter;
+        openNotional -= FixedPoint.multiply(remainingBefore, price) - FixedPoint.multiply(remainingAfter, price);
+    }
+}
@@ -1,31 +1,43 @@
 package com.trading.engine.repository;
 
+import com.trading.engine.dto.OrderSummary;
 import com.trading.engine.model.Order;
 import com.trading.engine.model.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
-    Optional<Order> findByOrderId(String orderId);
+    String SUMMARY = "SELECT new com.trading.engine.dto.OrderSummary(o.id, o.orderId, o.symbol, o.side, o.type, " +
+            "o.quantity, o.price, o.stopPrice, o.displayQuantity, o.timeInForce, o.expireTime, o.status, o.traderId, " +
+            "o.timestamp, o.filledQuantity, o.averagePrice) " +
+            "FROM Order o ";
+    // Keyset condition for pages ordered by NEWEST_FIRST, see HistoryCursor
+    String BEFORE_CURSOR = " AND (o.timestamp < :timestamp OR (o.timestamp = :timestamp AND o.id < :id))";
+    String NEWEST_FIRST = " ORDER BY o.timestamp DESC, o.id DESC";
     
-    List<Order> findBySymbolAndStatus(String symbol, OrderStatus status);
+    Optional<Order> findByOrderId(long orderId);
     
-    List<Order> findByTraderId(String traderId);
+    List<Order> findBySymbolAndStatus(String symbol, OrderStatus status);
     
-    List<Order> findBySymbol(String symbol);
+    @Query(SUMMARY + "WHERE o.symbol = :symbol" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderSummary> findSymbolPage(@Param("symbol") String symbol, @Param("timestamp") LocalDateTime timestamp,
+                                      @Param("id") long id, Limit limit);
     
-    @Query("SELECT o FROM Order o WHERE o.symbol = :symbol AND o.status IN ('PENDING', 'PARTIALLY_FILLED') ORDER BY o.timestamp ASC")
-    List<Order> findActiveOrdersBySymbol(@Param("symbol") String symbol);
+    @Query(SUMMARY + "WHERE o.traderId = :traderId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderSummary> findTraderPage(@Param("traderId") String traderId, @Param("timestamp") LocalDateTime timestamp,
+                                      @Param("id") long id, Limit limit);
     
     @Query("SELECT o FROM Order o WHERE o.symbol = :symbol AND o.side = 'BUY' AND o.status IN ('PENDING', 'PARTIALLY_FILLED') ORDER BY o.price DESC, o.timestamp ASC")
     List<Order> findActiveBuyOrdersBySymbol(@Param("symbol") String symbol);
     
     @Query("SELECT o FROM Order o WHERE o.symbol = :symbol AND o.side = 'SELL' AND o.status IN ('PENDING', 'PARTIALLY_FILLED') ORDER BY o.price ASC, o.timestamp ASC")
     List<Order> findActiveSellOrdersBySymbol(@Param("symbol") String symbol);
-} 
\ No newline at end of file
+}
@@ -1,19 +1,37 @@
 package com.trading.engine.repository;
 
+import com.trading.engine.dto.TradeSummary;
 import com.trading.engine.model.Trade;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TradeRepository extends JpaRepository<Trade, Long> {
     
-    Optional<Trade> findByTradeId(String tradeId);
+    String SUMMARY = "SELECT new com.trading.engine.dto.TradeSummary(t.id, t.tradeId, t.symbol, t.quantity, t.price, " +
+            "t.buyOrderId, t.sellOrderId, t.buyTraderId, t.sellTraderId, t.timestamp) FROM Trade t ";
+    // Keyset condition for pages ordered by NEWEST_FIRST, see HistoryCursor
+    String BEFORE_CURSOR = " AND (t.timestamp < :timestamp OR (t.timestamp = :timestamp AND t.id < :id))";
+    String NEWEST_FIRST = " ORDER BY t.timestamp DESC, t.id DESC";
     
-    List<Trade> findBySymbol(String symbol);
+    Optional<Trade> findByTradeId(long tradeId);
     
-    List<Trade> findBySymbolOrderByTimestampDesc(String symbol);
+    @Query(SUMMARY + "WHERE t.symbol = :symbol" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<TradeSummary> findSymbolPage(@Param("symbol") String symbol, @Param("timestamp") LocalDateTime timestamp,
+                                      @Param("id") long id, Limit limit);
     
-    List<Trade> findByBuyTraderIdOrSellTraderId(String buyTraderId, String sellTraderId);
-} 
\ No newline at end of file
+    // One query per side so each can use its own trader index; HistoryService merges them
+    @Query(SUMMARY + "WHERE t.buyTraderId = :traderId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<TradeSummary> findBuyerPage(@Param("traderId") String traderId, @Param("timestamp") LocalDateTime timestamp,
+                                     @Param("id") long id, Limit limit);
+    
+    @Query(SUMMARY + "WHERE t.sellTraderId = :traderId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<TradeSummary> findSellerPage(@Param("traderId") String traderId, @Param("timestamp") LocalDateTime timestamp,
+                                      @Param("id") long id, Limit limit);
+}
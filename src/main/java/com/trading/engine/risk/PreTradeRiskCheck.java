@@ -0,0 +1,95 @@
+package com.trading.engine.risk;
+
+import com.trading.engine.model.BookOrder;
+import com.trading.engine.model.TraderExposure;
+import com.trading.engine.util.FixedPoint;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-trader limits checked on the engine shard before an order is journaled. Open
+ * exposure is read from the book's {@link TraderExposure}, which the shard keeps
+ * current on every rest, fill and cancel, and assumes the whole new order rests.
+ * A check is a map lookup, a few long comparisons and at most one CAS; it never
+ * allocates once the trader's limits are resolved.
+ */
+@Component
+public class PreTradeRiskCheck {
+
+    private static final long ORIGIN = System.nanoTime();
+
+    private final RiskProperties properties;
+    private final Map<String, TraderLimits> limits = new ConcurrentHashMap<>();
+
+    public PreTradeRiskCheck(RiskProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param exposure the trader's exposure in the order's book, or null if they have none
+     * @return null if the order is within limits
+     */
+    public RiskRejection checkNewOrder(BookOrder order, TraderExposure exposure) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        TraderLimits trader = limitsFor(order.getTraderId());
+        long quantity = order.getRemainingQuantity();
+        long notional = FixedPoint.multiply(quantity, order.getPrice());
+        RiskRejection rejection = checkLimits(trader, notional,
+                openQuantity(exposure) + quantity, openNotional(exposure) + notional);
+        if (rejection == null && !trader.tryAcquire((System.nanoTime() - ORIGIN) / 1_000_000_000L)) {
+            return RiskRejection.ORDER_RATE;
+        }
+        return rejection;
+    }
+
+    /**
+     * Checks a resting order's replacement price and quantity; amends do not count
+     * towards the order rate.
+     */
+    public RiskRejection checkAmend(BookOrder existing, long price, long quantity, TraderExposure exposure) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        long remaining = quantity - existing.getFilledQuantity();
+        long released = existing.getRemainingQuantity();
+        long releasedNotional = FixedPoint.multiply(released, existing.getPrice());
+        return checkLimits(limitsFor(existing.getTraderId()), FixedPoint.multiply(quantity, price),
+                openQuantity(exposure) - released + remaining,
+                openNotional(exposure) - releasedNotional + FixedPoint.multiply(remaining, price));
+    }
+
+    private static RiskRejection checkLimits(TraderLimits trader, long orderNotional,
+                                             long openQuantity, long openNotional) {
+        if (orderNotional > trader.maxOrderNotional) {
+            return RiskRejection.ORDER_NOTIONAL;
+        }
+        if (openQuantity > trader.maxOpenQuantity) {
+            return RiskRejection.OPEN_QUANTITY;
+        }
+        if (openNotional > trader.maxOpenNotional) {
+            return RiskRejection.OPEN_NOTIONAL;
+        }
+        return null;
+    }
+
+    private TraderLimits limitsFor(String traderId) {
+        TraderLimits trader = limits.get(traderId);
+        if (trader == null) {
+            RiskProperties.Limits overrides = properties.getTraders().getOrDefault(traderId, properties.getDefaults());
+            trader = limits.computeIfAbsent(traderId, id -> new TraderLimits(overrides, properties.getDefaults()));
+        }
+        return trader;
+    }
+
+    private static long openQuantity(TraderExposure exposure) {
+        return exposure == null ? 0 : exposure.getOpenQuantity();
+    }
+
+    private static long openNotional(TraderExposure exposure) {
+        return exposure == null ? 0 : exposure.getOpenNotional();
+    }
+}
@@ -0,0 +1,32 @@
+package com.trading.engine.risk;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pre-trade limits, bound from {@code trading.risk.*}. {@code defaults} apply to every
+ * trader; an entry under {@code traders} overrides individual limits for one trader id.
+ * A missing or zero limit is not enforced.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "trading.risk")
+public class RiskProperties {
+
+    private boolean enabled = true;
+    private Limits defaults = new Limits();
+    private Map<String, Limits> traders = new HashMap<>();
+
+    @Data
+    public static class Limits {
+        private BigDecimal maxOrderNotional; // quantity * price of a single order
+        private BigDecimal maxOpenQuantity; // Resting quantity per symbol, counting the new order
+        private BigDecimal maxOpenNotional; // Resting notional per symbol, counting the new order
+        private Integer maxOrdersPerSecond; // New orders across all symbols
+    }
+}
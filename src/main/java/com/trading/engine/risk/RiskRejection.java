@@ -0,0 +1,18 @@
+package com.trading.engine.risk;
+
+public enum RiskRejection {
+    ORDER_NOTIONAL("Order notional exceeds limit"),
+    OPEN_QUANTITY("Open quantity for symbol would exceed limit"),
+    OPEN_NOTIONAL("Open notional for symbol would exceed limit"),
+    ORDER_RATE("Order rate exceeds limit");
+
+    private final String message;
+
+    RiskRejection(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
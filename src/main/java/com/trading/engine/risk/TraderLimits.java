@@ -0,0 +1,60 @@
+package com.trading.engine.risk;
+
+import com.trading.engine.util.FixedPoint;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One trader's limits in fixed point, with unset limits as {@code Long.MAX_VALUE}, and
+ * their order-rate window. A trader's orders reach every shard that owns one of
+ * their symbols, so the window is a single CAS-updated word: the second in the high
+ * bits and the orders counted in it in the low {@value #COUNT_BITS} bits.
+ */
+class TraderLimits {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    final long maxOrderNotional;
+    final long maxOpenQuantity;
+    final long maxOpenNotional;
+    final long maxOrdersPerSecond;
+    private final AtomicLong window = new AtomicLong();
+
+    TraderLimits(RiskProperties.Limits limits, RiskProperties.Limits defaults) {
+        maxOrderNotional = scaled(limits.getMaxOrderNotional(), defaults.getMaxOrderNotional());
+        maxOpenQuantity = scaled(limits.getMaxOpenQuantity(), defaults.getMaxOpenQuantity());
+        maxOpenNotional = scaled(limits.getMaxOpenNotional(), defaults.getMaxOpenNotional());
+        Integer rate = limits.getMaxOrdersPerSecond() != null
+                ? limits.getMaxOrdersPerSecond() : defaults.getMaxOrdersPerSecond();
+        maxOrdersPerSecond = rate == null || rate <= 0 ? Long.MAX_VALUE : Math.min(rate, COUNT_MASK);
+    }
+
+    // Counts the order against the current second unless the limit is already reached
+    boolean tryAcquire(long second) {
+        if (maxOrdersPerSecond == Long.MAX_VALUE) {
+            return true;
+        }
+        while (true) {
+            long current = window.get();
+            long next;
+            if (current >>> COUNT_BITS == second) {
+                if ((current & COUNT_MASK) >= maxOrdersPerSecond) {
+                    return false;
+                }
+                next = current + 1;
+            } else {
+                next = second << COUNT_BITS | 1;
+            }
+            if (window.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static long scaled(BigDecimal limit, BigDecimal fallback) {
+        BigDecimal value = limit != null ? limit : fallback;
+        return value == null || value.signum() <= 0 ? Long.MAX_VALUE : FixedPoint.fromBigDecimal(value);
+    }
+}
@@ -0,0 +1,9 @@
+package com.trading.engine.sequencer;
+
+public enum CommandType {
+    NEW,
+    CANCEL,
+    AMEND,
+    TASK, // Runs a callback on the writer thread, e.g. to snapshot its book
+    HANDOFF // Internal: releases a rebalanced symbol's held commands on its new shard
+}
@@ -0,0 +1,163 @@
+package com.trading.engine.sequencer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Dedicated engine thread for a group of symbols. It is the only thread that
+ * touches those symbols' order books, so matching runs without locks.
+ */
+@Slf4j
+public class EngineShard implements Runnable {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long MAX_PARK_NANOS = 100_000;
+
+    private final int index;
+    private final int cpu;
+    private final OrderRingBuffer ringBuffer;
+    private final Consumer<OrderCommand> handler;
+    private final Thread thread;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private volatile boolean running = true;
+
+    // cpu < 0 leaves scheduling to the OS
+    public EngineShard(int index, int cpu, int ringBufferSize, Consumer<OrderCommand> handler) {
+        this.index = index;
+        this.cpu = cpu;
+        this.ringBuffer = new OrderRingBuffer(ringBufferSize);
+        this.handler = handler;
+        this.thread = new Thread(this, "engine-shard-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public OrderRingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
+    public long getProcessedCount() {
+        return processed.get();
+    }
+
+    // Time spent handling commands, as opposed to waiting for them
+    public long getBusyNanos() {
+        return busyNanos.get();
+    }
+
+    @Override
+    public void run() {
+        if (cpu >= 0) {
+            pinToCpu();
+        }
+        int idle = 0;
+        while (running || ringBuffer.size() > 0) {
+            long started = System.nanoTime();
+            int count;
+            try {
+                count = ringBuffer.drain(this::dispatch);
+            } catch (RuntimeException e) {
+                log.error("Engine shard {} failed to drain ring buffer: {}", index, e.getMessage(), e);
+                count = 1;
+            }
+            if (count > 0) {
+                busyNanos.lazySet(busyNanos.get() + System.nanoTime() - started);
+                processed.lazySet(processed.get() + count);
+                idle = 0;
+            } else {
+                idle = backOff(idle);
+            }
+        }
+        log.info("Engine shard {} stopped", index);
+    }
+
+    private void dispatch(OrderCommand command) {
+        SymbolRoute route = command.route;
+        if (command.getType() == CommandType.HANDOFF) {
+            release(route);
+            command.getTask().run();
+            return;
+        }
+        if (route != null && route.holdingShard == this) {
+            // The previous owner has not finished this symbol's earlier commands yet
+            route.held.add(command.copy());
+            return;
+        }
+        handle(command);
+    }
+
+    private void release(SymbolRoute route) {
+        route.holdingShard = null;
+        OrderCommand held;
+        while ((held = route.held.poll()) != null) {
+            handle(held);
+        }
+    }
+
+    private void handle(OrderCommand command) {
+        try {
+            handler.accept(command);
+        } catch (RuntimeException e) {
+            log.error("Error handling {} command for {}: {}", command.getType(), command.getSymbol(), e.getMessage(), e);
+            if (command.getFuture() != null) {
+                command.getFuture().completeExceptionally(e);
+            }
+        }
+    }
+
+    private int backOff(int idle) {
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1_000L << Math.min(idle - SPIN_TRIES - YIELD_TRIES, 7)));
+        }
+        return idle + 1;
+    }
+
+    // Best effort: Linux only, through taskset on this thread's native id
+    private void pinToCpu() {
+        try {
+            String tid = Files.readSymbolicLink(Path.of("/proc/thread-self")).getFileName().toString();
+            Process taskset = new ProcessBuilder("taskset", "-pc", String.valueOf(cpu), tid)
+                    .redirectErrorStream(true)
+                    .start();
+            if (taskset.waitFor(5, TimeUnit.SECONDS) && taskset.exitValue() == 0) {
+                log.info("Engine shard {} pinned to CPU {}", index, cpu);
+            } else {
+                log.warn("Engine shard {} could not be pinned to CPU {}", index, cpu);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("CPU affinity hint for engine shard {} ignored: {}", index, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.trading.engine.sequencer;
+
+import com.trading.engine.dto.OrderResponse;
+import com.trading.engine.model.Order;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pre-allocated ring buffer slot. Producers copy their request into a claimed
+ * slot, the owning shard reads it and the slot is cleared for reuse.
+ */
+public final class OrderCommand {
+
+    CommandType type;
+    String symbol;
+    Order order;
+    long orderId;
+    long price;
+    long quantity;
+    Runnable task;
+    CompletableFuture<OrderResponse> future;
+    long submitNanos;
+    SymbolRoute route;
+
+    public CommandType getType() {
+        return type;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    // Scaled amend price, see FixedPoint
+    public long getPrice() {
+        return price;
+    }
+
+    // Scaled amend quantity, see FixedPoint
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public Runnable getTask() {
+        return task;
+    }
+
+    public CompletableFuture<OrderResponse> getFuture() {
+        return future;
+    }
+
+    // System.nanoTime() when the producer claimed the slot
+    public long getSubmitNanos() {
+        return submitNanos;
+    }
+
+    // Detached copy for commands a shard has to hold back while a symbol moves to it
+    OrderCommand copy() {
+        OrderCommand copy = new OrderCommand();
+        copy.type = type;
+        copy.symbol = symbol;
+        copy.order = order;
+        copy.orderId = orderId;
+        copy.price = price;
+        copy.quantity = quantity;
+        copy.task = task;
+        copy.future = future;
+        copy.submitNanos = submitNanos;
+        copy.route = route;
+        return copy;
+    }
+
+    void clear() {
+        type = null;
+        symbol = null;
+        order = null;
+        orderId = 0;
+        price = 0;
+        quantity = 0;
+        task = null;
+        future = null;
+        submitNanos = 0;
+        route = null;
+    }
+}
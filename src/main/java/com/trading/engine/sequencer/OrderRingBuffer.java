@@ -0,0 +1,84 @@
+package com.trading.engine.sequencer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Multi-producer, single-consumer ring of pre-allocated {@link OrderCommand} slots.
+ * Producers claim a sequence with a single atomic increment and publish it per slot,
+ * so the consumer never takes a lock and no command objects are allocated per order.
+ */
+public final class OrderRingBuffer {
+
+    private final OrderCommand[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong claimSequence = new AtomicLong(-1);
+    private final AtomicLong consumerSequence = new AtomicLong(-1);
+
+    public OrderRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Ring buffer capacity must be at least 2");
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new OrderCommand[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new OrderCommand();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Claims the next sequence, waiting while the consumer is a full lap behind.
+     */
+    public long claim() {
+        long sequence = claimSequence.incrementAndGet();
+        long wrapPoint = sequence - capacity;
+        while (wrapPoint > consumerSequence.get()) {
+            LockSupport.parkNanos(1_000);
+        }
+        return sequence;
+    }
+
+    public OrderCommand get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    public void publish(long sequence) {
+        published.lazySet((int) sequence & mask, sequence);
+    }
+
+    /**
+     * Hands every contiguous published command to the handler and releases the slots.
+     * Must only be called from the single consumer thread.
+     */
+    public int drain(Consumer<OrderCommand> handler) {
+        long next = consumerSequence.get() + 1;
+        int count = 0;
+        while (published.get((int) next & mask) == next) {
+            OrderCommand command = slots[(int) next & mask];
+            try {
+                handler.accept(command);
+            } finally {
+                command.clear();
+                consumerSequence.lazySet(next);
+            }
+            next++;
+            count++;
+        }
+        return count;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long size() {
+        return claimSequence.get() - consumerSequence.get();
+    }
+}
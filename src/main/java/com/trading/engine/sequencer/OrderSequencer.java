@@ -0,0 +1,206 @@
+package com.trading.engine.sequencer;
+
+import com.trading.engine.dto.OrderResponse;
+import com.trading.engine.model.Order;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Routes commands to the engine shard that owns each symbol's book. Symbols are
+ * assigned by explicit mapping or by hash, and can be moved between shards at runtime.
+ */
+public class OrderSequencer {
+
+    private static final long REBALANCE_TIMEOUT_SECONDS = 10;
+
+    private final EngineShard[] shards;
+    private final Map<String, Integer> mapping;
+    private final Map<String, SymbolRoute> routes = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    public OrderSequencer(int ringBufferSize, Consumer<OrderCommand> handler) {
+        this(1, ringBufferSize, handler, Map.of(), new int[0]);
+    }
+
+    /**
+     * @param mapping symbol to shard index, for symbols that should not be placed by hash
+     * @param cpus    CPU to pin each shard to, by shard index; missing or negative entries are not pinned
+     */
+    public OrderSequencer(int shardCount, int ringBufferSize, Consumer<OrderCommand> handler,
+                          Map<String, Integer> mapping, int[] cpus) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        mapping.forEach((symbol, shard) -> checkShard(shard, shardCount));
+        this.mapping = Map.copyOf(mapping);
+        this.shards = new EngineShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new EngineShard(i, i < cpus.length ? cpus[i] : -1, ringBufferSize, handler);
+            shards[i].start();
+        }
+    }
+
+    public CompletableFuture<OrderResponse> submit(String symbol, CommandType type, Order order, long orderId) {
+        return submit(symbol, type, order, orderId, 0, 0);
+    }
+
+    public CompletableFuture<OrderResponse> submit(String symbol, CommandType type, Order order, long orderId,
+                                                   long price, long quantity) {
+        CompletableFuture<OrderResponse> future = new CompletableFuture<>();
+        SymbolRoute route = routeFor(symbol);
+
+        int slot = route.enter();
+        try {
+            OrderRingBuffer ringBuffer = route.shard.getRingBuffer();
+            long sequence = ringBuffer.claim();
+            OrderCommand command = ringBuffer.get(sequence);
+            command.type = type;
+            command.symbol = symbol;
+            command.order = order;
+            command.orderId = orderId;
+            command.price = price;
+            command.quantity = quantity;
+            command.future = future;
+            command.route = route;
+            command.submitNanos = System.nanoTime();
+            ringBuffer.publish(sequence);
+        } finally {
+            route.exit(slot);
+        }
+
+        return future;
+    }
+
+    /**
+     * Runs the task on the shard that owns the symbol, after every command already queued for it.
+     */
+    public void execute(String symbol, Runnable task) {
+        SymbolRoute route = routeFor(symbol);
+
+        int slot = route.enter();
+        try {
+            publishTask(route.shard, symbol, route, CommandType.TASK, task);
+        } finally {
+            route.exit(slot);
+        }
+    }
+
+    /**
+     * Moves the symbol to another shard and returns once the new shard owns its book.
+     * Commands keep their per-producer order: the target holds anything it receives for
+     * the symbol until the source has handled everything queued before the move.
+     */
+    public synchronized void rebalance(String symbol, int shard) {
+        checkShard(shard, shards.length);
+        SymbolRoute route = routeFor(symbol);
+        EngineShard source = route.shard;
+        EngineShard target = shards[shard];
+        if (source == target) {
+            return;
+        }
+
+        route.moveTo(target);
+        CountDownLatch handedOff = new CountDownLatch(1);
+        publishTask(source, symbol, null, CommandType.TASK,
+                () -> publishTask(target, symbol, route, CommandType.HANDOFF, handedOff::countDown));
+        try {
+            if (!handedOff.await(REBALANCE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out moving " + symbol + " to shard " + shard);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted moving " + symbol + " to shard " + shard, e);
+        }
+    }
+
+    private static void publishTask(EngineShard shard, String symbol, SymbolRoute route, CommandType type,
+                                    Runnable task) {
+        OrderRingBuffer ringBuffer = shard.getRingBuffer();
+        long sequence = ringBuffer.claim();
+        OrderCommand command = ringBuffer.get(sequence);
+        command.type = type;
+        command.symbol = symbol;
+        command.task = task;
+        command.route = route;
+        command.submitNanos = System.nanoTime();
+        ringBuffer.publish(sequence);
+    }
+
+    private SymbolRoute routeFor(String symbol) {
+        if (!running) {
+            throw new IllegalStateException("Order sequencer is shut down");
+        }
+        SymbolRoute route = routes.get(symbol);
+        if (route != null) {
+            return route;
+        }
+        return routes.computeIfAbsent(symbol, s -> new SymbolRoute(s, shards[initialShard(s)]));
+    }
+
+    private int initialShard(String symbol) {
+        Integer mapped = mapping.get(symbol);
+        return mapped != null ? mapped : Math.floorMod(symbol.hashCode(), shards.length);
+    }
+
+    private static void checkShard(int shard, int shardCount) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (shardCount - 1) + ": " + shard);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // Shard currently owning the symbol, placing it if it has not been seen yet
+    public int getShardOf(String symbol) {
+        return routeFor(symbol).shard.getIndex();
+    }
+
+    // Symbol to shard index for every symbol seen so far
+    public Map<String, Integer> getAssignments() {
+        Map<String, Integer> assignments = new TreeMap<>();
+        routes.forEach((symbol, route) -> assignments.put(symbol, route.shard.getIndex()));
+        return assignments;
+    }
+
+    // Commands queued but not yet handled by the shard
+    public int getQueueDepth(int shard) {
+        return (int) shards[shard].getRingBuffer().size();
+    }
+
+    public long getProcessedCount(int shard) {
+        return shards[shard].getProcessedCount();
+    }
+
+    public long getBusyNanos(int shard) {
+        return shards[shard].getBusyNanos();
+    }
+
+    public int getSymbolCount(int shard) {
+        int count = 0;
+        for (SymbolRoute route : routes.values()) {
+            if (route.shard == shards[shard]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getSymbolCount() {
+        return routes.size();
+    }
+
+    public void shutdown() {
+        running = false;
+        for (EngineShard shard : shards) {
+            shard.shutdown();
+        }
+    }
+}
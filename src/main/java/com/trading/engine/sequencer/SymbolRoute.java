@@ -0,0 +1,51 @@
+package com.trading.engine.sequencer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Which shard owns a symbol. Producers bracket each submit with {@link #enter()} and
+ * {@link #exit(int)}, so a move can wait until nobody is still publishing to the
+ * previous owner (two-epoch counting, as in RCU).
+ */
+final class SymbolRoute {
+
+    final String symbol;
+    volatile EngineShard shard;
+
+    // Set while the symbol moves: the new owner holds its commands until the old one hands over
+    volatile EngineShard holdingShard;
+    final ArrayDeque<OrderCommand> held = new ArrayDeque<>(); // Touched by holdingShard's thread only
+
+    private volatile int epoch;
+    private final AtomicIntegerArray inFlight = new AtomicIntegerArray(2);
+
+    SymbolRoute(String symbol, EngineShard shard) {
+        this.symbol = symbol;
+        this.shard = shard;
+    }
+
+    int enter() {
+        int slot = epoch & 1;
+        inFlight.incrementAndGet(slot);
+        return slot;
+    }
+
+    void exit(int slot) {
+        inFlight.decrementAndGet(slot);
+    }
+
+    /**
+     * Points new submits at the target and waits for producers that may still be
+     * publishing to the old shard. Callers must serialize moves.
+     */
+    void moveTo(EngineShard target) {
+        holdingShard = target;
+        shard = target;
+        int previous = epoch;
+        epoch = previous + 1;
+        while (inFlight.get(previous & 1) != 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
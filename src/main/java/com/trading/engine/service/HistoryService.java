@@ -0,0 +1,101 @@
+package com.trading.engine.service;
+
+import com.trading.engine.dto.CursorPage;
+import com.trading.engine.dto.HistoryRow;
+import com.trading.engine.dto.OrderSummary;
+import com.trading.engine.dto.TradeSummary;
+import com.trading.engine.model.Order;
+import com.trading.engine.repository.HistoryCursor;
+import com.trading.engine.repository.OrderRepository;
+import com.trading.engine.repository.TradeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keyset-paginated order and trade history, newest first. Each page reads one row
+ * more than it returns to learn whether another page exists, so no count query runs.
+ */
+@Service
+@RequiredArgsConstructor
+public class HistoryService {
+    
+    public static final int MAX_PAGE_SIZE = 1000;
+    
+    private static final Comparator<HistoryRow> NEWEST_FIRST = Comparator
+            .comparing(HistoryRow::getTimestamp)
+            .thenComparingLong(HistoryRow::getRowId)
+            .reversed();
+    
+    private final OrderRepository orderRepository;
+    private final TradeRepository tradeRepository;
+    private final MatchingEngineService matchingEngineService;
+    
+    public CursorPage<OrderSummary> getOrdersBySymbol(String symbol, String cursor, int limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        return page(orderRepository.findSymbolPage(symbol, after.timestamp(), after.id(), Limit.of(limit + 1)), limit);
+    }
+    
+    public CursorPage<OrderSummary> getOrdersByTrader(String traderId, String cursor, int limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        return page(orderRepository.findTraderPage(traderId, after.timestamp(), after.id(), Limit.of(limit + 1)), limit);
+    }
+    
+    // Open orders come from the engine's active order index, never the database
+    public CursorPage<OrderSummary> getActiveOrdersBySymbol(String symbol, String cursor, int limit) {
+        return activePage(matchingEngineService.getActiveOrders().getBySymbol(symbol), cursor, limit);
+    }
+    
+    public CursorPage<OrderSummary> getActiveOrdersByTrader(String traderId, String cursor, int limit) {
+        return activePage(matchingEngineService.getActiveOrders().getByTrader(traderId), cursor, limit);
+    }
+    
+    public CursorPage<TradeSummary> getTradesBySymbol(String symbol, String cursor, int limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        return page(tradeRepository.findSymbolPage(symbol, after.timestamp(), after.id(), Limit.of(limit + 1)), limit);
+    }
+    
+    // Merges the trader's buy-side and sell-side pages instead of an OR across two columns
+    public CursorPage<TradeSummary> getTradesByTrader(String traderId, String cursor, int limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        List<TradeSummary> merged = new ArrayList<>(
+                tradeRepository.findBuyerPage(traderId, after.timestamp(), after.id(), Limit.of(limit + 1)));
+        for (TradeSummary trade : tradeRepository.findSellerPage(traderId, after.timestamp(), after.id(), Limit.of(limit + 1))) {
+            if (!traderId.equals(trade.getBuyTraderId())) { // Self-trades are already in the buy side
+                merged.add(trade);
+            }
+        }
+        merged.sort(NEWEST_FIRST);
+        return page(merged, limit);
+    }
+    
+    // Same order and cursor as the database pages, with the order id in place of the row id
+    private static CursorPage<OrderSummary> activePage(List<Order> orders, String cursor, int limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        List<OrderSummary> rows = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            int position = order.getTimestamp().compareTo(after.timestamp());
+            if (position < 0 || (position == 0 && order.getOrderId() < after.id())) {
+                rows.add(new OrderSummary(order.getOrderId(), order.getOrderId(), order.getSymbol(), order.getSide(),
+                        order.getType(), order.getQuantity(), order.getPrice(), order.getStopPrice(),
+                        order.getDisplayQuantity(), order.getTimeInForce(), order.getExpireTime(), order.getStatus(),
+                        order.getTraderId(), order.getTimestamp(), order.getFilledQuantity(), order.getAveragePrice()));
+            }
+        }
+        rows.sort(NEWEST_FIRST);
+        return page(rows.size() > limit ? rows.subList(0, limit + 1) : rows, limit);
+    }
+    
+    private static <T extends HistoryRow> CursorPage<T> page(List<T> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, limit));
+        T last = items.get(limit - 1);
+        return new CursorPage<>(items, new HistoryCursor(last.getTimestamp(), last.getRowId()).encode());
+    }
+}
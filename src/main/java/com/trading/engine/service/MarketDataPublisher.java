@@ -0,0 +1,65 @@
+package com.trading.engine.service;
+
+import com.trading.engine.dto.BookDelta;
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.dto.TradePrint;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Pushes book deltas and trade prints to the STOMP broker. Serialization and
+ * broker dispatch happen on one publisher thread, off the engine writers, which
+ * also keeps each symbol's messages in sequence order.
+ */
+@Service
+@Slf4j
+public class MarketDataPublisher {
+
+    public static final String BOOK_TOPIC = "/topic/book/";
+    public static final String TRADES_TOPIC = "/topic/trades/";
+    public static final String CANDLES_TOPIC = "/topic/candles/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "market-data-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MarketDataPublisher(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public void publishBook(BookDelta delta) {
+        executor.execute(() -> send(BOOK_TOPIC + delta.getSymbol(), delta));
+    }
+
+    public void publishTrades(String symbol, List<TradePrint> prints) {
+        executor.execute(() -> prints.forEach(print -> send(TRADES_TOPIC + symbol, print)));
+    }
+
+    // The snapshot is taken on the publisher thread, so it may already include later trades
+    public void publishCandles(String symbol, Supplier<CandleSnapshot> snapshot) {
+        executor.execute(() -> send(CANDLES_TOPIC + symbol, snapshot.get()));
+    }
+
+    private void send(String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSend(destination, payload);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish to {}: {}", destination, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,243 +1,984 @@
 package com.trading.engine.service;
 
+import com.trading.engine.candles.CandleAggregator;
+import com.trading.engine.dto.BatchOrderResponse;
+import com.trading.engine.dto.BookDelta;
+import com.trading.engine.dto.BookSnapshot;
+import com.trading.engine.dto.DepthLevel;
+import com.trading.engine.dto.MarketDepth;
+import com.trading.engine.dto.MarketDepthLevel;
+import com.trading.engine.dto.OrderBookView;
 import com.trading.engine.dto.OrderResponse;
+import com.trading.engine.dto.ShardStatus;
+import com.trading.engine.dto.TopOfBook;
+import com.trading.engine.dto.TradePrint;
+import com.trading.engine.journal.BookSnapshotStore;
+import com.trading.engine.journal.CommandJournal;
+import com.trading.engine.journal.JournalRecord;
+import com.trading.engine.metrics.EngineMetrics;
+import com.trading.engine.metrics.EngineMetrics.Stage;
 import com.trading.engine.model.*;
-import com.trading.engine.repository.OrderRepository;
-import com.trading.engine.repository.TradeRepository;
+import com.trading.engine.risk.PreTradeRiskCheck;
+import com.trading.engine.risk.RiskRejection;
+import com.trading.engine.sequencer.CommandType;
+import com.trading.engine.sequencer.OrderCommand;
+import com.trading.engine.sequencer.OrderSequencer;
+import com.trading.engine.util.EngineClock;
+import com.trading.engine.util.FixedPoint;
+import com.trading.engine.util.IdGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MatchingEngineService {
     
-    private final OrderRepository orderRepository;
-    private final TradeRepository tradeRepository;
+    private final OrderPersistenceService persistenceService;
+    private final MarketDataPublisher marketDataPublisher;
+    private final CandleAggregator candleAggregator;
+    private final PreTradeRiskCheck riskCheck;
+    private final EngineMetrics metrics;
+    private final IdGenerator idGenerator;
     private final Map<String, OrderBook> orderBooks = new ConcurrentHashMap<>();
+    private final ActiveOrderIndex activeOrders = new ActiveOrderIndex(); // Open-order queries without the database
+    private final ThreadLocal<JournalRecord> journalRecords = ThreadLocal.withInitial(JournalRecord::new);
+    private final ThreadLocal<BookOrderPool> orderPools = ThreadLocal.withInitial(BookOrderPool::new);
+    private final ThreadLocal<List<BookOrder>> dueOrders = ThreadLocal.withInitial(ArrayList::new);
     
-    @Transactional
-    public OrderResponse processOrder(Order order) {
-        OrderResponse response = new OrderResponse();
+    @Value("${trading.engine.ring-buffer-size:1024}")
+    private int ringBufferSize;
+    
+    // 0 picks half the available cores
+    @Value("${trading.engine.shards:0}")
+    private int shardCount;
+    
+    // Explicit placement for hot symbols, e.g. "AAPL:0,GOOGL:1"; others are placed by hash
+    @Value("${trading.engine.shard-mapping:}")
+    private String shardMapping;
+    
+    // Optional CPU per shard, e.g. "2,3,4,5"
+    @Value("${trading.engine.shard-cpus:}")
+    private String shardCpus;
+    
+    // Recycle the engine's order objects once orders are done, see BookOrderPool
+    @Value("${trading.engine.pooled-orders:false}")
+    private boolean pooledOrders;
+    
+    // Levels per side copied into each book's published view; deeper depth queries go to the shard
+    @Value("${trading.engine.published-depth:100}")
+    private int publishedDepth;
+    
+    @Value("${trading.journal.enabled:true}")
+    private boolean journalEnabled;
+    
+    @Value("${trading.journal.directory:./data/journal}")
+    private String journalDirectory;
+    
+    @Value("${trading.journal.segment-size-mb:64}")
+    private int journalSegmentSizeMb;
+    
+    private OrderSequencer sequencer;
+    private CommandJournal journal;
+    private BookSnapshotStore snapshotStore;
+    private boolean recovering; // Replaying the journal: no trades, metrics or id allocation
+    
+    @PostConstruct
+    void start() throws IOException {
+        if (journalEnabled) {
+            Path directory = Path.of(journalDirectory);
+            journal = new CommandJournal(directory, journalSegmentSizeMb * 1024 * 1024);
+            snapshotStore = new BookSnapshotStore(directory.resolve("books.snapshot"));
+            recover();
+            journal.open();
+        }
+        orderBooks.values().forEach(metrics::registerBook);
+        int shards = shardCount > 0 ? shardCount : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        sequencer = new OrderSequencer(shards, ringBufferSize, this::onCommand,
+                parseShardMapping(shardMapping), parseShardCpus(shardCpus));
+        metrics.registerShards(sequencer);
+        log.info("Matching engine started with {} shard(s)", shards);
+    }
+    
+    private static Map<String, Integer> parseShardMapping(String mapping) {
+        Map<String, Integer> parsed = new HashMap<>();
+        for (String entry : mapping.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid shard mapping entry: " + entry);
+            }
+            parsed.put(parts[0].trim().toUpperCase(), Integer.parseInt(parts[1].trim()));
+        }
+        return parsed;
+    }
+    
+    private static int[] parseShardCpus(String cpus) {
+        return Arrays.stream(cpus.split(","))
+                .filter(cpu -> !cpu.isBlank())
+                .mapToInt(cpu -> Integer.parseInt(cpu.trim()))
+                .toArray();
+    }
+    
+    @PreDestroy
+    void stop() {
+        sequencer.shutdown();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+    
+    /**
+     * Validates the order and hands it to the writer that owns the symbol's book.
+     * The future completes as soon as the order has been matched; persistence of
+     * the result happens write-behind.
+     */
+    public CompletableFuture<OrderResponse> processOrder(Order order) {
+        long started = System.nanoTime();
+        boolean valid = validateOrder(order);
+        metrics.recordStage(Stage.VALIDATION, System.nanoTime() - started);
+        if (!valid) {
+            OrderResponse response = new OrderResponse();
+            response.setSuccess(false);
+            response.setMessage("Invalid order parameters");
+            return CompletableFuture.completedFuture(response);
+        }
         
-        try {
-            // Validate order
+        if (order.getTimestamp() == null) {
+            order.setTimestamp(LocalDateTime.now());
+        }
+        
+        return sequencer.submit(order.getSymbol(), CommandType.NEW, order, order.getOrderId());
+    }
+    
+    /**
+     * Applies a batch with one writer pass per symbol: that symbol's cancels first,
+     * then its new orders, each list in request order. Every pass hands its results
+     * to write-behind once and publishes one book delta. Results are returned in
+     * request order; cancels must already carry their symbol.
+     */
+    public CompletableFuture<BatchOrderResponse> processBatch(List<Order> cancels, List<Order> orders) {
+        OrderResponse[] cancelResults = new OrderResponse[cancels.size()];
+        OrderResponse[] orderResults = new OrderResponse[orders.size()];
+        Map<String, List<Integer>> cancelsBySymbol = new LinkedHashMap<>();
+        Map<String, List<Integer>> ordersBySymbol = new LinkedHashMap<>();
+        
+        for (int i = 0; i < cancels.size(); i++) {
+            cancelsBySymbol.computeIfAbsent(cancels.get(i).getSymbol(), s -> new ArrayList<>()).add(i);
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
             if (!validateOrder(order)) {
+                OrderResponse response = new OrderResponse();
                 response.setSuccess(false);
                 response.setMessage("Invalid order parameters");
-                return response;
+                orderResults[i] = response;
+                continue;
             }
-            
-            // Save order to database
-            order = orderRepository.save(order);
+            if (order.getTimestamp() == null) {
+                order.setTimestamp(LocalDateTime.now());
+            }
+            ordersBySymbol.computeIfAbsent(order.getSymbol(), s -> new ArrayList<>()).add(i);
+        }
+        
+        Set<String> symbols = new LinkedHashSet<>(cancelsBySymbol.keySet());
+        symbols.addAll(ordersBySymbol.keySet());
+        List<CompletableFuture<Void>> passes = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            List<Integer> symbolCancels = cancelsBySymbol.getOrDefault(symbol, List.of());
+            List<Integer> symbolOrders = ordersBySymbol.getOrDefault(symbol, List.of());
+            CompletableFuture<Void> pass = new CompletableFuture<>();
+            sequencer.execute(symbol, () -> {
+                try {
+                    Set<BookOrder> touchedOrders = Collections.newSetFromMap(new IdentityHashMap<>());
+                    List<Trade> trades = new ArrayList<>();
+                    for (int index : symbolCancels) {
+                        cancelResults[index] = executeCancel(symbol, cancels.get(index).getOrderId(), touchedOrders);
+                    }
+                    for (int index : symbolOrders) {
+                        orderResults[index] = executeNewOrder(orders.get(index), trades, touchedOrders);
+                    }
+                    persist(touchedOrders, trades);
+                    pass.complete(null);
+                } catch (RuntimeException e) {
+                    pass.completeExceptionally(e);
+                }
+            });
+            passes.add(pass);
+        }
+        
+        return CompletableFuture.allOf(passes.toArray(new CompletableFuture[0]))
+                .thenApply(done -> new BatchOrderResponse(Arrays.asList(cancelResults), Arrays.asList(orderResults)));
+    }
+    
+    /**
+     * Cancels through the symbol's writer so the order leaves the in-memory book
+     * before its status is queued for persistence.
+     */
+    public CompletableFuture<OrderResponse> cancelOrder(String symbol, long orderId) {
+        return sequencer.submit(symbol, CommandType.CANCEL, null, orderId);
+    }
+    
+    /**
+     * Changes price and/or quantity of a resting order. A pure size reduction keeps
+     * time priority; anything else re-enters the book as if newly placed.
+     */
+    public CompletableFuture<OrderResponse> amendOrder(String symbol, long orderId, BigDecimal price, BigDecimal quantity) {
+        if (!isPositiveFixedPoint(price) || !isPositiveFixedPoint(quantity) || !hasFixedPointNotional(quantity, price)) {
+            OrderResponse response = new OrderResponse();
+            response.setSuccess(false);
+            response.setMessage("Invalid amend parameters");
+            return CompletableFuture.completedFuture(response);
+        }
+        return sequencer.submit(symbol, CommandType.AMEND, null, orderId,
+                FixedPoint.fromBigDecimal(price), FixedPoint.fromBigDecimal(quantity));
+    }
+    
+    // Runs on the symbol's writer thread only
+    private void onCommand(OrderCommand command) {
+        long started = System.nanoTime();
+        metrics.recordStage(Stage.QUEUE, started - command.getSubmitNanos());
+        
+        // Orders that have reached their expiry leave before the command sees the book
+        OrderBook orderBook = orderBooks.get(command.getSymbol());
+        if (orderBook != null) {
+            expireDue(orderBook);
+        }
+        
+        switch (command.getType()) {
+            case NEW -> handleNewOrder(command.getOrder(), command.getFuture());
+            case CANCEL -> handleCancel(command.getSymbol(), command.getOrderId(), command.getFuture());
+            case AMEND -> handleAmend(command.getSymbol(), command.getOrderId(), command.getPrice(),
+                    command.getQuantity(), command.getFuture());
+            case TASK -> command.getTask().run();
+        }
+        
+        // One delta per command covering every level it touched
+        orderBook = orderBooks.get(command.getSymbol());
+        if (orderBook != null && !orderBook.getChangedLevels().isEmpty()) {
+            long publishStarted = System.nanoTime();
+            publishBookDelta(orderBook);
+            metrics.recordStage(Stage.PUBLISH, System.nanoTime() - publishStarted);
+        }
+        if (orderBook != null) {
+            orderBook.getFills().clear();
+        }
+        metrics.recordCommand(command.getType(), System.nanoTime() - command.getSubmitNanos());
+    }
+    
+    private void handleNewOrder(Order order, CompletableFuture<OrderResponse> future) {
+        Set<BookOrder> touchedOrders = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Trade> trades = new ArrayList<>();
+        OrderResponse response = executeNewOrder(order, trades, touchedOrders);
+        persistAndComplete(touchedOrders, trades, response, future);
+    }
+    
+    // Journals and applies one new order, adding its trades and touched orders to the caller's lists
+    private OrderResponse executeNewOrder(Order order, List<Trade> trades, Set<BookOrder> touchedOrders) {
+        OrderResponse response = new OrderResponse();
+        
+        try {
+            BookOrder bookOrder = newBookOrder().init(order);
             
             // Get or create order book for symbol
-            OrderBook orderBook = orderBooks.computeIfAbsent(order.getSymbol(), OrderBook::new);
+            OrderBook orderBook = orderBooks.computeIfAbsent(order.getSymbol(), this::createOrderBook);
             
-            // Add order to order book
-            orderBook.addOrder(order);
+            // Rejected orders never reach the journal or the book, only the order table
+            long riskStarted = System.nanoTime();
+            RiskRejection rejection = riskCheck.checkNewOrder(bookOrder, orderBook.getExposure(bookOrder.getTraderId()));
+            metrics.recordStage(Stage.RISK, System.nanoTime() - riskStarted);
+            if (rejection != null) {
+                bookOrder.setStatus(OrderStatus.REJECTED);
+                touchedOrders.add(bookOrder);
+                buildOrderResponse(bookOrder, response, false, "Order rejected: " + rejection.getMessage());
+                return response;
+            }
             
-            // Attempt to match orders
-            List<Trade> trades = matchOrders(orderBook, order);
+            // Journal the command before it touches the book
+            JournalRecord record = nextRecord(orderBook, JournalRecord.NEW, order.getOrderId());
+            record.traderId = bookOrder.getTraderId();
+            record.side = bookOrder.getSide();
+            record.orderType = bookOrder.getType();
+            record.price = bookOrder.getPrice();
+            record.quantity = bookOrder.getQuantity();
+            record.timestampNanos = bookOrder.getTimestampNanos();
+            record.stopPrice = bookOrder.getStopPrice();
+            record.displayQuantity = bookOrder.getDisplayQuantity();
+            record.timeInForce = bookOrder.getTimeInForce();
+            record.expireNanos = bookOrder.getExpireNanos();
+            appendToJournal(record);
             
-            // Save trades
-            if (!trades.isEmpty()) {
-                tradeRepository.saveAll(trades);
-                log.info("Executed {} trades for order {}", trades.size(), order.getOrderId());
-            }
+            int firstFill = orderBook.getFills().size();
+            applyNewOrder(orderBook, bookOrder, touchedOrders);
             
-            // Update order status
-            updateOrderStatus(order);
-            orderRepository.save(order);
+            int firstTrade = trades.size();
+            materializeTrades(orderBook, firstFill, trades);
+            List<Trade> executed = trades.subList(firstTrade, trades.size());
+            if (!executed.isEmpty()) {
+                log.info("Executed {} trades for order {}", executed.size(), order.getOrderId());
+                metrics.recordTrades(orderBook.getSymbol(), executed.size());
+                publishTrades(orderBook, executed);
+            }
             
             // Build response
-            buildOrderResponse(order, response, true, "Order processed successfully");
+            buildOrderResponse(bookOrder, response, true, "Order processed successfully");
             
         } catch (Exception e) {
             log.error("Error processing order: {}", e.getMessage(), e);
             response.setSuccess(false);
             response.setMessage("Error processing order: " + e.getMessage());
         }
-        
         return response;
     }
     
-    private boolean validateOrder(Order order) {
-        return order.getSymbol() != null && !order.getSymbol().trim().isEmpty() &&
-               order.getQuantity() != null && order.getQuantity().compareTo(BigDecimal.ZERO) > 0 &&
-               order.getPrice() != null && order.getPrice().compareTo(BigDecimal.ZERO) > 0 &&
-               order.getTraderId() != null && !order.getTraderId().trim().isEmpty();
+    private void handleCancel(String symbol, long orderId, CompletableFuture<OrderResponse> future) {
+        Set<BookOrder> touchedOrders = Collections.newSetFromMap(new IdentityHashMap<>());
+        OrderResponse response = executeCancel(symbol, orderId, touchedOrders);
+        if (!response.isSuccess()) {
+            future.complete(response);
+            return;
+        }
+        persistAndComplete(touchedOrders, List.of(), response, future);
     }
     
-    private List<Trade> matchOrders(OrderBook orderBook, Order newOrder) {
-        List<Trade> trades = new ArrayList<>();
+    private OrderResponse executeCancel(String symbol, long orderId, Set<BookOrder> touchedOrders) {
+        OrderResponse response = new OrderResponse();
+        OrderBook orderBook = orderBooks.get(symbol);
+        BookOrder bookOrder = null;
+        
+        // Only a cancel that takes something out of the book is journaled and sequenced
+        if (orderBook != null && (orderBook.getOrder(orderId) != null || orderBook.getStops().get(orderId) != null)) {
+            appendToJournal(nextRecord(orderBook, JournalRecord.CANCEL, orderId));
+            bookOrder = applyCancel(orderBook, orderId, OrderStatus.CANCELLED);
+        }
         
-        if (newOrder.getSide() == OrderSide.BUY) {
-            trades.addAll(matchBuyOrder(orderBook, newOrder));
-        } else {
-            trades.addAll(matchSellOrder(orderBook, newOrder));
+        if (bookOrder == null) {
+            response.setSuccess(false);
+            response.setMessage("Order is not active");
+            return response;
         }
         
-        return trades;
+        touchedOrders.add(bookOrder);
+        buildOrderResponse(bookOrder, response, true, "Order cancelled successfully");
+        return response;
     }
     
-    private List<Trade> matchBuyOrder(OrderBook orderBook, Order buyOrder) {
+    private void handleAmend(String symbol, long orderId, long price, long quantity,
+                             CompletableFuture<OrderResponse> future) {
+        OrderResponse response = new OrderResponse();
+        Set<BookOrder> touchedOrders = Collections.newSetFromMap(new IdentityHashMap<>());
         List<Trade> trades = new ArrayList<>();
-        BigDecimal remainingQuantity = buyOrder.getQuantity().subtract(buyOrder.getFilledQuantity());
+        OrderBook orderBook = orderBooks.get(symbol);
+        BookOrder existing = orderBook == null ? null : orderBook.getOrder(orderId);
+        BookOrder bookOrder = null;
         
-        while (remainingQuantity.compareTo(BigDecimal.ZERO) > 0) {
-            List<Order> bestSellOrders = orderBook.getBestAskOrders();
-            
-            if (bestSellOrders.isEmpty()) {
-                break; // No matching sell orders
+        // Like a cancel, an amend that cannot apply is neither journaled nor sequenced
+        if (existing != null && quantity > existing.getFilledQuantity()) {
+            RiskRejection rejection =
+                    riskCheck.checkAmend(existing, price, quantity, orderBook.getExposure(existing.getTraderId()));
+            if (rejection != null) {
+                buildOrderResponse(existing, response, false, "Amend rejected: " + rejection.getMessage());
+                future.complete(response);
+                return;
             }
             
-            Order bestSellOrder = bestSellOrders.get(0);
-            
-            // BUG #2: Incorrect price comparison - should be >= for market orders
-            if (buyOrder.getPrice().compareTo(bestSellOrder.getPrice()) < 0) {
-                break; // Buy price is lower than sell price
-            }
-            
-            // Calculate trade quantity
-            BigDecimal tradeQuantity = remainingQuantity.min(
-                bestSellOrder.getQuantity().subtract(bestSellOrder.getFilledQuantity())
-            );
-            
-            // Execute trade
-            Trade trade = executeTrade(buyOrder, bestSellOrder, tradeQuantity, bestSellOrder.getPrice());
-            trades.add(trade);
-            
-            // Update order quantities
-            updateOrderQuantities(buyOrder, bestSellOrder, tradeQuantity, bestSellOrder.getPrice());
-            
-            remainingQuantity = remainingQuantity.subtract(tradeQuantity);
-            
-            // Remove filled sell order from order book
-            if (bestSellOrder.getFilledQuantity().compareTo(bestSellOrder.getQuantity()) >= 0) {
-                orderBook.removeOrder(bestSellOrder);
-                bestSellOrder.setStatus(OrderStatus.FILLED);
-                orderRepository.save(bestSellOrder);
-            }
+            JournalRecord record = nextRecord(orderBook, JournalRecord.AMEND, orderId);
+            record.price = price;
+            record.quantity = quantity;
+            appendToJournal(record);
+            int firstFill = orderBook.getFills().size();
+            bookOrder = applyAmend(orderBook, orderId, price, quantity, touchedOrders);
+            materializeTrades(orderBook, firstFill, trades);
         }
         
-        return trades;
+        if (bookOrder == null) {
+            response.setSuccess(false);
+            response.setMessage("Order is not active or quantity is below the filled quantity");
+            future.complete(response);
+            return;
+        }
+        
+        if (!trades.isEmpty()) {
+            metrics.recordTrades(orderBook.getSymbol(), trades.size());
+            publishTrades(orderBook, trades);
+        }
+        buildOrderResponse(bookOrder, response, true, "Order amended successfully");
+        persistAndComplete(touchedOrders, trades, response, future);
     }
     
-    private List<Trade> matchSellOrder(OrderBook orderBook, Order sellOrder) {
-        List<Trade> trades = new ArrayList<>();
-        BigDecimal remainingQuantity = sellOrder.getQuantity().subtract(sellOrder.getFilledQuantity());
-        
-        while (remainingQuantity.compareTo(BigDecimal.ZERO) > 0) {
-            List<Order> bestBuyOrders = orderBook.getBestBidOrders();
-            
-            if (bestBuyOrders.isEmpty()) {
-                break; // No matching buy orders
+    // Shared by live processing and journal replay; executions are left in the book's fill log
+    private void applyNewOrder(OrderBook orderBook, BookOrder bookOrder, Set<BookOrder> touchedOrders) {
+        // Stops wait off-book until the last price reaches their trigger
+        if (StopBook.isStop(bookOrder.getType()) && !StopBook.isTriggered(bookOrder, orderBook.getLastTradePrice())) {
+            orderBook.addStop(bookOrder);
+            touchedOrders.add(bookOrder);
+            return;
+        }
+        applyActiveOrder(orderBook, bookOrder, touchedOrders);
+    }
+    
+    // Matches an order that is live (not a waiting stop), then fires any stops its trades reached
+    private void applyActiveOrder(OrderBook orderBook, BookOrder bookOrder, Set<BookOrder> touchedOrders) {
+        long lastPrice = orderBook.getLastTradePrice();
+        matchAndRest(orderBook, bookOrder, touchedOrders);
+        if (orderBook.getLastTradePrice() != lastPrice && orderBook.getStops().size() > 0) {
+            fireStops(orderBook, touchedOrders);
+        }
+    }
+    
+    /**
+     * Activates every stop the last price has crossed, in trigger then arrival order.
+     * Activated stops trade in turn, and each new last price can fire further stops,
+     * so a whole cascade completes within the command that started it.
+     */
+    private void fireStops(OrderBook orderBook, Set<BookOrder> touchedOrders) {
+        List<BookOrder> fired = new ArrayList<>();
+        long polledAt = orderBook.getLastTradePrice();
+        orderBook.pollTriggeredStops(polledAt, fired);
+        for (int next = 0; next < fired.size(); next++) {
+            matchAndRest(orderBook, fired.get(next), touchedOrders);
+            if (orderBook.getLastTradePrice() != polledAt) {
+                polledAt = orderBook.getLastTradePrice();
+                orderBook.pollTriggeredStops(polledAt, fired);
             }
-            
-            Order bestBuyOrder = bestBuyOrders.get(0);
-            
-            // Check if prices match
-            if (sellOrder.getPrice().compareTo(bestBuyOrder.getPrice()) > 0) {
-                break; // Sell price is higher than buy price
+        }
+    }
+    
+    private void matchAndRest(OrderBook orderBook, BookOrder bookOrder, Set<BookOrder> touchedOrders) {
+        long started = System.nanoTime();
+        
+        // A fill-or-kill the book cannot fill completely does not trade at all
+        if (bookOrder.getTimeInForce() == TimeInForce.FOK && !orderBook.canFill(bookOrder)) {
+            bookOrder.setStatus(OrderStatus.CANCELLED);
+            touchedOrders.add(bookOrder);
+            return;
+        }
+        
+        // Attempt to match orders
+        FillLog fills = orderBook.getFills();
+        int firstFill = fills.size();
+        OrderMatcher.match(orderBook, bookOrder, EngineClock.epochNanos());
+        for (int i = firstFill; i < fills.size(); i++) {
+            touchedOrders.add(fills.get(i).getResting());
+        }
+        long matched = System.nanoTime();
+        
+        // Rest whatever is left in the order book, unless the order only takes what is there now
+        if (!bookOrder.isFilled()) {
+            if (bookOrder.getTimeInForce().isImmediate()) {
+                bookOrder.setStatus(OrderStatus.CANCELLED);
+            } else {
+                orderBook.addOrder(bookOrder);
             }
-            
-            // Calculate trade quantity
-            BigDecimal tradeQuantity = remainingQuantity.min(
-                bestBuyOrder.getQuantity().subtract(bestBuyOrder.getFilledQuantity())
-            );
-            
-            // Execute trade
-            Trade trade = executeTrade(bestBuyOrder, sellOrder, tradeQuantity, bestBuyOrder.getPrice());
-            trades.add(trade);
-            
-            // Update order quantities
-            updateOrderQuantities(bestBuyOrder, sellOrder, tradeQuantity, bestBuyOrder.getPrice());
-            
-            remainingQuantity = remainingQuantity.subtract(tradeQuantity);
-            
-            // Remove filled buy order from order book
-            if (bestBuyOrder.getFilledQuantity().compareTo(bestBuyOrder.getQuantity()) >= 0) {
-                orderBook.removeOrder(bestBuyOrder);
-                bestBuyOrder.setStatus(OrderStatus.FILLED);
-                orderRepository.save(bestBuyOrder);
+        }
+        
+        if (!recovering) {
+            metrics.recordStage(Stage.MATCH, matched - started);
+            metrics.recordStage(Stage.BOOK_INSERT, System.nanoTime() - matched);
+        }
+        
+        // Update order status
+        updateOrderStatus(bookOrder);
+        touchedOrders.add(bookOrder);
+    }
+    
+    // Takes a resting order or waiting stop out of the book as CANCELLED or EXPIRED
+    private BookOrder applyCancel(OrderBook orderBook, long orderId, OrderStatus status) {
+        BookOrder bookOrder = orderBook.cancelOrder(orderId);
+        if (bookOrder == null) {
+            bookOrder = orderBook.cancelStop(orderId);
+        }
+        if (bookOrder != null) {
+            bookOrder.setStatus(status);
+        }
+        return bookOrder;
+    }
+    
+    /**
+     * Expires the book's DAY and GTD orders whose time has come. Each expiry is journaled
+     * like a cancel, so replay takes the order out at the same point in the sequence
+     * instead of consulting the clock.
+     */
+    private void expireDue(OrderBook orderBook) {
+        List<BookOrder> due = dueOrders.get();
+        orderBook.getExpiries().advance(EngineClock.epochNanos(), due);
+        if (due.isEmpty()) {
+            return;
+        }
+        Set<BookOrder> touchedOrders = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BookOrder order : due) {
+            appendToJournal(nextRecord(orderBook, JournalRecord.EXPIRE, order.getOrderId()));
+            touchedOrders.add(applyCancel(orderBook, order.getOrderId(), OrderStatus.EXPIRED));
+        }
+        log.info("Expired {} orders in {}", due.size(), orderBook.getSymbol());
+        due.clear();
+        persist(touchedOrders, List.of());
+    }
+    
+    /**
+     * Gives every book with orders waiting to expire a pass on its writer thread, so
+     * expiries are not held back until the symbol's next command.
+     */
+    @Scheduled(fixedDelayString = "${trading.engine.expiry-check-ms:100}")
+    public void expireOrders() {
+        if (sequencer == null) {
+            return;
+        }
+        orderBooks.forEach((symbol, orderBook) -> {
+            // Read off the writer thread, so only a hint; a pass that finds nothing due does nothing
+            if (orderBook.getExpiries().size() > 0) {
+                sequencer.execute(symbol, () -> expireDue(orderBook));
             }
+        });
+    }
+    
+    private BookOrder applyAmend(OrderBook orderBook, long orderId, long price, long quantity,
+                                 Set<BookOrder> touchedOrders) {
+        BookOrder existing = orderBook.getOrder(orderId);
+        if (existing == null || quantity <= existing.getFilledQuantity()) {
+            return null;
         }
         
-        return trades;
-    }
-    
-    private Trade executeTrade(Order buyOrder, Order sellOrder, BigDecimal quantity, BigDecimal price) {
-        Trade trade = new Trade();
-        trade.setTradeId(generateTradeId());
-        trade.setSymbol(buyOrder.getSymbol());
-        trade.setQuantity(quantity);
-        trade.setPrice(price);
-        trade.setBuyOrderId(buyOrder.getOrderId());
-        trade.setSellOrderId(sellOrder.getOrderId());
-        trade.setBuyTraderId(buyOrder.getTraderId());
-        trade.setSellTraderId(sellOrder.getTraderId());
-        trade.setTimestamp(LocalDateTime.now());
-        trade.setTotalValue(quantity.multiply(price));
+        if (price == existing.getPrice() && quantity <= existing.getQuantity()) {
+            orderBook.reduceOrder(existing, quantity);
+            touchedOrders.add(existing);
+            return existing;
+        }
         
-        return trade;
+        // Price change or size increase: loses priority and may now cross
+        orderBook.removeOrder(existing);
+        Order order = existing.toEntity();
+        order.setPrice(FixedPoint.toBigDecimal(price));
+        order.setQuantity(FixedPoint.toBigDecimal(quantity));
+        BookOrder replacement = newBookOrder().init(order);
+        applyActiveOrder(orderBook, replacement, touchedOrders);
+        return replacement;
     }
     
-    private void updateOrderQuantities(Order buyOrder, Order sellOrder, BigDecimal tradeQuantity, BigDecimal price) {
-        // Update buy order
-        BigDecimal newFilledQuantity = buyOrder.getFilledQuantity().add(tradeQuantity);
-        buyOrder.setFilledQuantity(newFilledQuantity);
+    // Advances the book's command sequence and prepares the writer thread's journal record
+    private JournalRecord nextRecord(OrderBook orderBook, byte type, long orderId) {
+        long sequence = orderBook.getSequence() + 1;
+        orderBook.setSequence(sequence);
         
-        if (newFilledQuantity.compareTo(buyOrder.getQuantity()) >= 0) {
-            buyOrder.setStatus(OrderStatus.FILLED);
-        } else {
-            buyOrder.setStatus(OrderStatus.PARTIALLY_FILLED);
+        JournalRecord record = journalRecords.get();
+        record.type = type;
+        record.symbolSequence = sequence;
+        record.symbol = orderBook.getSymbol();
+        record.orderId = orderId;
+        return record;
+    }
+    
+    private void appendToJournal(JournalRecord record) {
+        if (journal != null) {
+            long started = System.nanoTime();
+            journal.append(record);
+            metrics.recordStage(Stage.JOURNAL, System.nanoTime() - started);
         }
+    }
+    
+    // Writer-thread (or startup) creation of a book, with its gauges
+    private OrderBook createOrderBook(String symbol) {
+        OrderBook orderBook = new OrderBook(symbol);
+        metrics.registerBook(orderBook);
+        return orderBook;
+    }
+    
+    /**
+     * Rebuilds the books from the latest snapshot plus the journal tail. Runs once at
+     * startup, before any writer thread exists, and bypasses persistence entirely.
+     */
+    private void recover() throws IOException {
+        long started = System.nanoTime();
+        BookSnapshotStore.Snapshot snapshot = snapshotStore.read();
+        snapshot.books().forEach(book -> orderBooks.put(book.getSymbol(), book));
         
-        // Update average price for buy order
-        updateAveragePrice(buyOrder, tradeQuantity, price);
+        Set<BookOrder> scratch = Collections.newSetFromMap(new IdentityHashMap<>());
+        recovering = true;
+        long replayed = journal.replay(snapshot.journalSegment(), new JournalRecord(), record -> {
+            scratch.clear();
+            replay(record, scratch);
+            releaseFinished(scratch);
+        });
+        recovering = false;
+        orderBooks.values().forEach(book -> {
+            book.clearChangedLevels();
+            book.setPublishedSequence(book.getSequence());
+            book.republishLevels(publishedDepth);
+            book.forEachOrder(order -> idGenerator.advancePast(order.getOrderId()));
+            book.getStops().forEach(stop -> idGenerator.advancePast(stop.getOrderId()));
+        });
         
-        // Update sell order
-        BigDecimal sellFilledQuantity = sellOrder.getFilledQuantity().add(tradeQuantity);
-        sellOrder.setFilledQuantity(sellFilledQuantity);
+        // Re-publish the surviving resting orders and stops so lookups and the database agree with the books
+        List<Order> restingOrders = new ArrayList<>();
+        orderBooks.values().forEach(book -> {
+            book.forEachOrder(order -> restingOrders.add(order.toEntity().snapshot()));
+            book.getStops().forEach(stop -> restingOrders.add(stop.toEntity().snapshot()));
+        });
+        restingOrders.forEach(activeOrders::update);
+        persistenceService.persist(restingOrders, List.of());
         
-        if (sellFilledQuantity.compareTo(sellOrder.getQuantity()) >= 0) {
-            sellOrder.setStatus(OrderStatus.FILLED);
-        } else {
-            sellOrder.setStatus(OrderStatus.PARTIALLY_FILLED);
+        log.info("Recovered {} books with {} resting orders ({} journal entries replayed) in {} ms",
+                orderBooks.size(), restingOrders.size(), replayed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+    
+    private void replay(JournalRecord record, Set<BookOrder> scratch) {
+        OrderBook orderBook = orderBooks.computeIfAbsent(record.symbol, OrderBook::new);
+        if (record.symbolSequence <= orderBook.getSequence()) {
+            return; // Already contained in the snapshot
         }
+        orderBook.setSequence(record.symbolSequence);
+        orderBook.clearChangedLevels();
+        orderBook.getFills().clear();
+        idGenerator.advancePast(record.orderId); // Ids issued before the restart must never be reused
         
-        // Update average price for sell order
-        updateAveragePrice(sellOrder, tradeQuantity, price);
-        
-        // Save updated orders
-        orderRepository.save(buyOrder);
-        orderRepository.save(sellOrder);
+        switch (record.type) {
+            case JournalRecord.NEW -> {
+                // The entity is only built if the order is still in the book at the end
+                BookOrder bookOrder = newBookOrder().init(record.orderId, orderBook.getSymbol(), record.traderId,
+                        record.side, record.orderType, record.price, record.stopPrice, record.displayQuantity,
+                        record.quantity, record.timestampNanos, record.timeInForce, record.expireNanos);
+                applyNewOrder(orderBook, bookOrder, scratch);
+            }
+            case JournalRecord.CANCEL -> applyCancel(orderBook, record.orderId, OrderStatus.CANCELLED);
+            case JournalRecord.EXPIRE -> applyCancel(orderBook, record.orderId, OrderStatus.EXPIRED);
+            case JournalRecord.AMEND -> applyAmend(orderBook, record.orderId, record.price, record.quantity, scratch);
+            default -> log.warn("Skipping unknown journal record type {}", record.type);
+        }
     }
     
-    private void updateAveragePrice(Order order, BigDecimal tradeQuantity, BigDecimal tradePrice) {
-        // BUG #1: NullPointerException when averagePrice is null for new orders
-        BigDecimal totalValue = order.getAveragePrice().multiply(order.getFilledQuantity().subtract(tradeQuantity))
-                .add(tradeQuantity.multiply(tradePrice));
-        BigDecimal newFilledQuantity = order.getFilledQuantity();
+    /**
+     * Snapshots every book on its own writer thread, then drops the journal segments
+     * the snapshot makes redundant.
+     */
+    @Scheduled(fixedDelayString = "${trading.journal.snapshot-interval-ms:60000}",
+               initialDelayString = "${trading.journal.snapshot-interval-ms:60000}")
+    public void takeSnapshot() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        // Every entry in an earlier segment was applied before the tasks below run
+        int segment = journal.getCurrentSegmentIndex();
+        
+        List<CompletableFuture<byte[]>> encodedBooks = new ArrayList<>();
+        for (String symbol : orderBooks.keySet()) {
+            CompletableFuture<byte[]> encoded = new CompletableFuture<>();
+            sequencer.execute(symbol, () -> {
+                try {
+                    encoded.complete(BookSnapshotStore.encode(orderBooks.get(symbol)));
+                } catch (RuntimeException e) {
+                    encoded.completeExceptionally(e);
+                }
+            });
+            encodedBooks.add(encoded);
+        }
         
-        if (newFilledQuantity.compareTo(BigDecimal.ZERO) > 0) {
-            order.setAveragePrice(totalValue.divide(newFilledQuantity, 4, BigDecimal.ROUND_HALF_UP));
+        List<byte[]> books = new ArrayList<>(encodedBooks.size());
+        for (CompletableFuture<byte[]> encoded : encodedBooks) {
+            books.add(encoded.join());
+        }
+        
+        // Flushes segment onward, including any the journal rolled past while the books were encoded
+        journal.force();
+        snapshotStore.write(segment, books);
+        journal.deleteSegmentsBefore(segment);
+        log.info("Snapshot of {} books written, journal segments before {} released", books.size(), segment);
+    }
+    
+    /**
+     * Aggregated view of the whole book taken on its writer thread, so its sequence
+     * lines up exactly with the deltas on {@code /topic/book/{symbol}}.
+     */
+    public CompletableFuture<BookSnapshot> getBookSnapshot(String symbol) {
+        return queryBook(symbol, this::buildBookSnapshot);
+    }
+    
+    /**
+     * Immutable copy of the book for the REST views, versioned by the last published
+     * delta sequence. Built on the writer thread, so it never sees a half-applied command.
+     */
+    public CompletableFuture<OrderBookView> getOrderBookView(String symbol) {
+        return queryBook(symbol, orderBook -> new OrderBookView(orderBook.getSymbol(),
+                orderBook.getPublishedSequence(), orderBook.getBestBid(), orderBook.getBestAsk(),
+                orderBook.getBuyOrderView(), orderBook.getSellOrderView()));
+    }
+    
+    /**
+     * Top {@code levels} price levels per side from the levels' running displayed totals,
+     * so iceberg reserves stay hidden; cost is O(levels) regardless of how many orders
+     * rest at each price. Up to the published depth this reads the book's last published
+     * levels on the calling thread; deeper queries run on the shard.
+     */
+    public CompletableFuture<MarketDepth> getMarketDepth(String symbol, int levels) {
+        OrderBook published = orderBooks.get(symbol);
+        if (published == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (levels <= publishedDepth) {
+            BookLevels view = published.getLevels();
+            MarketDepth depth = new MarketDepth();
+            depth.setSymbol(symbol);
+            depth.setSequence(view.getSequence());
+            collectDepth(view.getBids(), levels, depth.getBids());
+            collectDepth(view.getAsks(), levels, depth.getAsks());
+            return CompletableFuture.completedFuture(depth);
+        }
+        return queryBook(symbol, orderBook -> {
+            MarketDepth depth = new MarketDepth();
+            depth.setSymbol(orderBook.getSymbol());
+            depth.setSequence(orderBook.getPublishedSequence());
+            collectDepth(orderBook.getBuyOrders().values(), levels, depth.getBids());
+            collectDepth(orderBook.getSellOrders().values(), levels, depth.getAsks());
+            return depth;
+        });
+    }
+    
+    private static void collectDepth(Collection<PriceLevel> side, int levels, List<MarketDepthLevel> out) {
+        long cumulative = 0;
+        for (PriceLevel level : side) {
+            if (out.size() == levels) {
+                break;
+            }
+            cumulative += level.getDisplayedQuantity();
+            out.add(new MarketDepthLevel(FixedPoint.toBigDecimal(level.getPrice()),
+                    FixedPoint.toBigDecimal(level.getDisplayedQuantity()), level.getOrderCount(),
+                    FixedPoint.toBigDecimal(cumulative)));
+        }
+    }
+    
+    private static void collectDepth(LevelArray side, int levels, List<MarketDepthLevel> out) {
+        long cumulative = 0;
+        for (int i = 0; i < side.size() && i < levels; i++) {
+            cumulative += side.getQuantity(i);
+            out.add(new MarketDepthLevel(FixedPoint.toBigDecimal(side.getPrice(i)),
+                    FixedPoint.toBigDecimal(side.getQuantity(i)), side.getOrderCount(i),
+                    FixedPoint.toBigDecimal(cumulative)));
+        }
+    }
+    
+    // Best bid, best ask and last price from the book's published levels, or null if there is no book; safe from any thread
+    public TopOfBook getTopOfBook(String symbol) {
+        OrderBook orderBook = orderBooks.get(symbol);
+        if (orderBook == null) {
+            return null;
+        }
+        BookLevels view = orderBook.getLevels();
+        TopOfBook top = new TopOfBook();
+        top.setSymbol(symbol);
+        top.setSequence(view.getSequence());
+        if (!view.getBids().isEmpty()) {
+            top.setBidPrice(FixedPoint.toBigDecimal(view.getBids().getPrice(0)));
+            top.setBidQuantity(FixedPoint.toBigDecimal(view.getBids().getQuantity(0)));
+        }
+        if (!view.getAsks().isEmpty()) {
+            top.setAskPrice(FixedPoint.toBigDecimal(view.getAsks().getPrice(0)));
+            top.setAskQuantity(FixedPoint.toBigDecimal(view.getAsks().getQuantity(0)));
+        }
+        if (view.getLastTradePrice() > 0) {
+            top.setLastPrice(FixedPoint.toBigDecimal(view.getLastTradePrice()));
+        }
+        return top;
+    }
+    
+    // Version of the book's visible state, or -1 if the symbol has no book; safe from any thread
+    public long getBookVersion(String symbol) {
+        OrderBook orderBook = orderBooks.get(symbol);
+        return orderBook == null ? -1 : orderBook.getPublishedSequence();
+    }
+    
+    // Runs a read on the shard that owns the symbol; completes with null if there is no book
+    private <T> CompletableFuture<T> queryBook(String symbol, Function<OrderBook, T> query) {
+        if (!orderBooks.containsKey(symbol)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        sequencer.execute(symbol, () -> {
+            try {
+                result.complete(query.apply(orderBooks.get(symbol)));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+    
+    private BookSnapshot buildBookSnapshot(OrderBook orderBook) {
+        BookSnapshot snapshot = new BookSnapshot();
+        snapshot.setSymbol(orderBook.getSymbol());
+        snapshot.setSequence(orderBook.getPublishedSequence());
+        orderBook.getBuyOrders().values().forEach(level -> snapshot.getBids().add(toDepthLevel(level)));
+        orderBook.getSellOrders().values().forEach(level -> snapshot.getAsks().add(toDepthLevel(level)));
+        return snapshot;
+    }
+    
+    private void publishBookDelta(OrderBook orderBook) {
+        BookDelta delta = new BookDelta();
+        delta.setSymbol(orderBook.getSymbol());
+        delta.setPreviousSequence(orderBook.getPublishedSequence());
+        delta.setSequence(orderBook.getSequence());
+        for (PriceLevel level : orderBook.getChangedLevels()) {
+            (level.getSide() == OrderSide.BUY ? delta.getBids() : delta.getAsks()).add(toDepthLevel(level));
+        }
+        orderBook.publishLevels(publishedDepth);
+        orderBook.clearChangedLevels();
+        orderBook.setPublishedSequence(orderBook.getSequence());
+        marketDataPublisher.publishBook(delta);
+    }
+    
+    private void publishTrades(OrderBook orderBook, List<Trade> trades) {
+        List<TradePrint> prints = new ArrayList<>(trades.size());
+        for (Trade trade : trades) {
+            TradePrint print = new TradePrint();
+            print.setTradeId(IdGenerator.format(trade.getTradeId()));
+            print.setSymbol(trade.getSymbol());
+            print.setPrice(trade.getPrice());
+            print.setQuantity(trade.getQuantity());
+            print.setTimestamp(trade.getTimestamp());
+            print.setSequence(orderBook.getSequence());
+            prints.add(print);
+        }
+        marketDataPublisher.publishTrades(orderBook.getSymbol(), prints);
+        candleAggregator.onTrades(orderBook.getSymbol(), trades);
+    }
+    
+    private static DepthLevel toDepthLevel(PriceLevel level) {
+        return new DepthLevel(FixedPoint.toBigDecimal(level.getPrice()),
+                FixedPoint.toBigDecimal(level.getDisplayedQuantity()), level.getOrderCount());
+    }
+    
+    // Queues detached copies for write-behind so the book can keep changing
+    private void persistAndComplete(Collection<BookOrder> touchedOrders, List<Trade> trades,
+                                    OrderResponse response, CompletableFuture<OrderResponse> future) {
+        persist(touchedOrders, trades);
+        future.complete(response);
+    }
+    
+    private void persist(Collection<BookOrder> touchedOrders, List<Trade> trades) {
+        long started = System.nanoTime();
+        List<Order> snapshots = new ArrayList<>(touchedOrders.size());
+        for (BookOrder touched : touchedOrders) {
+            Order snapshot = touched.toEntity().snapshot();
+            activeOrders.update(snapshot);
+            snapshots.add(snapshot);
+        }
+        persistenceService.persist(snapshots, trades);
+        metrics.recordStage(Stage.PERSIST, System.nanoTime() - started);
+        releaseFinished(touchedOrders);
+    }
+    
+    private BookOrder newBookOrder() {
+        return pooledOrders ? orderPools.get().acquire() : new BookOrder();
+    }
+    
+    // Returns orders that are done for good to the writer thread's pool; the response and snapshots are already built
+    private void releaseFinished(Collection<BookOrder> touchedOrders) {
+        if (!pooledOrders) {
+            return;
+        }
+        BookOrderPool pool = orderPools.get();
+        for (BookOrder touched : touchedOrders) {
+            OrderStatus status = touched.getStatus();
+            if (!touched.isResting() && (status == OrderStatus.FILLED || status == OrderStatus.CANCELLED
+                    || status == OrderStatus.EXPIRED || status == OrderStatus.REJECTED)) {
+                pool.release(touched);
+            }
         }
     }
     
-    private void updateOrderStatus(Order order) {
+    // Identifier lengths are capped here as well as on the REST DTO, since they are journaled as short-prefixed strings
+    private boolean validateOrder(Order order) {
+        return order.getSymbol() != null && !order.getSymbol().trim().isEmpty() &&
+               order.getSymbol().length() <= Order.MAX_SYMBOL_LENGTH &&
+               isPositiveFixedPoint(order.getQuantity()) &&
+               isPositiveFixedPoint(order.getPrice()) &&
+               hasFixedPointNotional(order.getQuantity(), order.getPrice()) &&
+               (!StopBook.isStop(order.getType()) || isPositiveFixedPoint(order.getStopPrice())) &&
+               (order.getType() != OrderType.ICEBERG || isPositiveFixedPoint(order.getDisplayQuantity())) &&
+               hasValidTimeInForce(order) &&
+               order.getTraderId() != null && !order.getTraderId().trim().isEmpty() &&
+               order.getTraderId().length() <= Order.MAX_TRADER_ID_LENGTH;
+    }
+    
+    // DAY and GTD orders need an expiry still to come, others none; an iceberg cannot be IOC or FOK
+    private boolean hasValidTimeInForce(Order order) {
+        TimeInForce timeInForce = order.getTimeInForce() != null ? order.getTimeInForce() : TimeInForce.GTC;
+        if (timeInForce == TimeInForce.DAY || timeInForce == TimeInForce.GTD) {
+            return order.getExpireTime() != null && order.getExpireTime().isAfter(LocalDateTime.now());
+        }
+        return order.getExpireTime() == null
+                && !(timeInForce.isImmediate() && order.getType() == OrderType.ICEBERG);
+    }
+    
+    // Risk exposure is kept as scaled-long notional, so quantity * price has to fit too
+    private boolean hasFixedPointNotional(BigDecimal quantity, BigDecimal price) {
+        try {
+            FixedPoint.multiply(FixedPoint.fromBigDecimal(quantity), FixedPoint.fromBigDecimal(price));
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+    
+    // Rejects values that round to zero or overflow the engine's scaled-long representation
+    private boolean isPositiveFixedPoint(BigDecimal value) {
+        if (value == null) {
+            return false;
+        }
+        try {
+            return FixedPoint.fromBigDecimal(value) > 0;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Trade entities for the fills the book has logged since {@code firstFill}. Fills
+     * only become objects here, on their way to market data and persistence.
+     */
+    private void materializeTrades(OrderBook orderBook, int firstFill, List<Trade> trades) {
+        FillLog fills = orderBook.getFills();
+        for (int i = firstFill; i < fills.size(); i++) {
+            Fill fill = fills.get(i);
+            BigDecimal tradeQuantity = FixedPoint.toBigDecimal(fill.getQuantity());
+            BigDecimal tradePrice = FixedPoint.toBigDecimal(fill.getPrice());
+            
+            Trade trade = new Trade();
+            trade.setTradeId(idGenerator.nextId());
+            trade.setSymbol(orderBook.getSymbol());
+            trade.setQuantity(tradeQuantity);
+            trade.setPrice(tradePrice);
+            trade.setBuyOrderId(fill.getBuyOrderId());
+            trade.setSellOrderId(fill.getSellOrderId());
+            trade.setBuyTraderId(fill.getBuyTraderId());
+            trade.setSellTraderId(fill.getSellTraderId());
+            trade.setTimestamp(EngineClock.toLocalDateTime(fill.getTimestampNanos()));
+            trade.setTotalValue(tradeQuantity.multiply(tradePrice));
+            trades.add(trade);
+        }
+    }
+    
+    private void updateOrderStatus(BookOrder order) {
         if (order.getStatus() == null) {
-            if (order.getFilledQuantity().compareTo(BigDecimal.ZERO) == 0) {
+            if (order.getFilledQuantity() == 0) {
                 order.setStatus(OrderStatus.PENDING);
-            } else if (order.getFilledQuantity().compareTo(order.getQuantity()) >= 0) {
+            } else if (order.isFilled()) {
                 order.setStatus(OrderStatus.FILLED);
             } else {
                 order.setStatus(OrderStatus.PARTIALLY_FILLED);
@@ -245,13 +986,19 @@ public class MatchingEngineService {
         }
     }
     
-    private void buildOrderResponse(Order order, OrderResponse response, boolean success, String message) {
-        response.setOrderId(order.getOrderId());
+    private void buildOrderResponse(BookOrder bookOrder, OrderResponse response, boolean success, String message) {
+        long started = System.nanoTime();
+        Order order = bookOrder.toEntity();
+        response.setOrderId(IdGenerator.format(order.getOrderId()));
         response.setSymbol(order.getSymbol());
         response.setSide(order.getSide().name());
         response.setType(order.getType().name());
         response.setQuantity(order.getQuantity());
         response.setPrice(order.getPrice());
+        response.setStopPrice(order.getStopPrice());
+        response.setDisplayQuantity(order.getDisplayQuantity());
+        response.setTimeInForce(order.getTimeInForce());
+        response.setExpireTime(order.getExpireTime());
         response.setStatus(order.getStatus());
         response.setTraderId(order.getTraderId());
         response.setTimestamp(order.getTimestamp());
@@ -259,17 +1006,42 @@ public class MatchingEngineService {
         response.setAveragePrice(order.getAveragePrice());
         response.setSuccess(success);
         response.setMessage(message);
+        metrics.recordStage(Stage.RESPONSE, System.nanoTime() - started);
     }
     
-    private String generateTradeId() {
-        return "TRADE_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8);
+    /**
+     * Moves a symbol to another engine shard. Blocks until the new shard owns the
+     * book; commands submitted meanwhile are held, not rejected.
+     */
+    public void rebalance(String symbol, int shard) {
+        sequencer.rebalance(symbol, shard);
+        log.info("Moved {} to engine shard {}", symbol, shard);
+    }
+    
+    public int getShardCount() {
+        return sequencer.getShardCount();
+    }
+    
+    public Map<String, Integer> getShardAssignments() {
+        return sequencer.getAssignments();
+    }
+    
+    public List<ShardStatus> getShardStatus() {
+        List<ShardStatus> status = new ArrayList<>();
+        for (int shard = 0; shard < sequencer.getShardCount(); shard++) {
+            status.add(new ShardStatus(shard, sequencer.getSymbolCount(shard), sequencer.getQueueDepth(shard),
+                    sequencer.getProcessedCount(shard), metrics.utilizationOf(shard)));
+        }
+        return status;
     }
     
-    public OrderBook getOrderBook(String symbol) {
-        return orderBooks.get(symbol);
+    // Active orders of every book, updated before each command's response completes; safe from any thread
+    public ActiveOrderIndex getActiveOrders() {
+        return activeOrders;
     }
     
-    public Map<String, OrderBook> getAllOrderBooks() {
-        return new HashMap<>(orderBooks);
+    // Symbols with a book; safe from any thread, unlike reading the books themselves
+    public Set<String> getSymbols() {
+        return new TreeSet<>(orderBooks.keySet());
     }
 } 
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.trading.engine.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.engine.dto.OrderBookView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-encoded JSON for the order book and price endpoints, rebuilt only when the
+ * book's version moves. Polls of an unchanged book are a map lookup and a volatile
+ * read; concurrent polls after a change share one rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderBookViewCache {
+    
+    private final MatchingEngineService matchingEngineService;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<CachedBookView>> views = new ConcurrentHashMap<>();
+    
+    public record CachedBookView(long version, String eTag, byte[] orderBookJson, byte[] priceJson) {
+    }
+    
+    // Returns null if the symbol has no book
+    public CachedBookView getView(String symbol) {
+        long version = matchingEngineService.getBookVersion(symbol);
+        if (version < 0) {
+            return null;
+        }
+        
+        CompletableFuture<CachedBookView> view = views.get(symbol);
+        if (view == null || isStale(view, version)) {
+            view = views.compute(symbol, (key, existing) ->
+                    existing == null || isStale(existing, version) ? rebuild(symbol) : existing);
+        }
+        return view.join();
+    }
+    
+    // An unfinished rebuild was queued after the version moved, so it is waited on rather than replaced
+    private static boolean isStale(CompletableFuture<CachedBookView> view, long version) {
+        if (!view.isDone()) {
+            return false;
+        }
+        return view.isCompletedExceptionally() || view.join() == null || view.join().version() < version;
+    }
+    
+    private CompletableFuture<CachedBookView> rebuild(String symbol) {
+        // Encode off the writer thread; it only has to copy the book
+        return matchingEngineService.getOrderBookView(symbol)
+                .thenApplyAsync(view -> view == null ? null : encode(view));
+    }
+    
+    private CachedBookView encode(OrderBookView view) {
+        Map<String, Object> orderBook = new LinkedHashMap<>();
+        orderBook.put("symbol", view.getSymbol());
+        orderBook.put("version", view.getVersion());
+        orderBook.put("bestBid", view.getBestBid());
+        orderBook.put("bestAsk", view.getBestAsk());
+        orderBook.put("buyOrders", view.getBuyOrders());
+        orderBook.put("sellOrders", view.getSellOrders());
+        
+        Map<String, Object> price = new LinkedHashMap<>();
+        price.put("symbol", view.getSymbol());
+        price.put("version", view.getVersion());
+        price.put("bestBid", view.getBestBid());
+        price.put("bestAsk", view.getBestAsk());
+        
+        BigDecimal bestBid = view.getBestBid();
+        BigDecimal bestAsk = view.getBestAsk();
+        
+        if (bestBid != null && bestAsk != null) {
+            price.put("spread", bestAsk.subtract(bestBid));
+            price.put("midPrice", bestBid.add(bestAsk).divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP));
+        }
+        
+        try {
+            return new CachedBookView(view.getVersion(), "\"" + view.getSymbol() + "-" + view.getVersion() + "\"",
+                    objectMapper.writeValueAsBytes(orderBook), objectMapper.writeValueAsBytes(price));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode order book " + view.getSymbol(), e);
+        }
+    }
+}
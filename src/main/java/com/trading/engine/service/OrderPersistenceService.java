@@ -0,0 +1,292 @@
+package com.trading.engine.service;
+
+import com.trading.engine.metrics.EngineMetrics;
+import com.trading.engine.model.Order;
+import com.trading.engine.model.Trade;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind persistence for engine results. Order snapshots are coalesced by
+ * orderId so only the latest state is written, trades are appended, and both are
+ * flushed as JDBC batches when the batch size is reached or the flush interval
+ * elapses, whichever comes first.
+ * <p>
+ * A failed batch is retried ahead of anything queued after it. Failures of the
+ * database itself are retried for as long as they last; a batch that keeps failing
+ * for any other reason is written row by row after {@code max-attempts}, and rows
+ * that still fail on their own are logged and dropped so they cannot stall the rest.
+ */
+@Service
+@Slf4j
+public class OrderPersistenceService {
+
+    private static final String UPSERT_ORDER_SQL =
+            "MERGE INTO orders (order_id, symbol, side, type, quantity, price, stop_price, display_quantity, " +
+            "time_in_force, expire_time, status, trader_id, timestamp, filled_quantity, average_price, last_modified) " +
+            "KEY (order_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TRADE_SQL =
+            "INSERT INTO trades (trade_id, symbol, quantity, price, buy_order_id, sell_order_id, " +
+            "buy_trader_id, sell_trader_id, timestamp, total_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EngineMetrics metrics;
+
+    // Latest unflushed snapshot per orderId; later updates replace earlier ones
+    private final Map<Long, Order> pendingOrders = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Trade> pendingTrades = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingTradeCount = new AtomicInteger();
+    // Trades taken off the queue but not yet written, oldest first; flusher thread only
+    private List<Trade> unwrittenTrades = new ArrayList<>();
+    private int failedAttempts; // Consecutive failures of the current batch; flusher thread only
+
+    @Value("${trading.persistence.batch-size:500}")
+    private int batchSize;
+
+    @Value("${trading.persistence.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${trading.persistence.max-pending:100000}")
+    private int maxPending;
+
+    // Failures of one batch, other than the database being unavailable, before it is split into rows
+    @Value("${trading.persistence.max-attempts:3}")
+    private int maxAttempts;
+
+    private Thread flusher;
+    private volatile boolean running = true;
+
+    public OrderPersistenceService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   EngineMetrics metrics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        metrics.registerPersistenceBacklog(this::getPendingCount);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = new Thread(this::runFlusher, "order-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues detached order snapshots and trades. Called from engine writer threads;
+     * it only blocks when the flusher has fallen more than {@code max-pending} rows behind.
+     */
+    public void persist(List<Order> orders, List<Trade> trades) {
+        awaitCapacity();
+        for (Order order : orders) {
+            pendingOrders.put(order.getOrderId(), order);
+        }
+        if (!trades.isEmpty()) {
+            pendingTrades.addAll(trades);
+            pendingTradeCount.addAndGet(trades.size());
+        }
+        if (getPendingCount() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    // Read-your-writes for order lookups that arrive before the next flush
+    public Order findPendingOrder(long orderId) {
+        return pendingOrders.get(orderId);
+    }
+
+    public int getPendingCount() {
+        return pendingOrders.size() + pendingTradeCount.get();
+    }
+
+    private void awaitCapacity() {
+        if (getPendingCount() < maxPending) {
+            return;
+        }
+        log.warn("Write-behind backlog reached {} rows, applying backpressure", maxPending);
+        while (getPendingCount() >= maxPending && running) {
+            LockSupport.unpark(flusher);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    private void runFlusher() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running) {
+            if (getPendingCount() < batchSize) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Write-behind flush failed, will retry: {}", e.getMessage(), e);
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    private void flush() {
+        while (getPendingCount() > 0) {
+            List<Order> orders = new ArrayList<>(Math.min(pendingOrders.size(), batchSize));
+            for (Order order : pendingOrders.values()) {
+                if (orders.size() == batchSize) {
+                    break;
+                }
+                orders.add(order);
+            }
+            // Trades of a failed batch stay at the front, so they are still written in order
+            List<Trade> trades = unwrittenTrades;
+            Trade trade;
+            while (trades.size() < batchSize && (trade = pendingTrades.poll()) != null) {
+                trades.add(trade);
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    writeOrders(orders);
+                    writeTrades(trades);
+                });
+                failedAttempts = 0;
+            } catch (RuntimeException e) {
+                if (isUnavailable(e) || ++failedAttempts < maxAttempts) {
+                    throw e;
+                }
+                log.warn("Write-behind batch failed {} times, writing its rows one at a time: {}",
+                        failedAttempts, e.getMessage());
+                failedAttempts = 0;
+                writeRowByRow(orders, trades);
+            }
+
+            markWritten(orders, trades);
+        }
+    }
+
+    // Isolates the rows that make a batch fail; rows written or dropped are taken out of both lists
+    private void writeRowByRow(List<Order> orders, List<Trade> trades) {
+        for (Iterator<Order> it = orders.iterator(); it.hasNext(); ) {
+            Order order = it.next();
+            writeOrDrop("orders", order, () -> writeOrders(List.of(order)));
+            pendingOrders.remove(order.getOrderId(), order);
+            it.remove();
+        }
+        int done = 0;
+        try {
+            for (Trade trade : trades) {
+                writeOrDrop("trades", trade, () -> writeTrades(List.of(trade)));
+                done++;
+            }
+        } finally {
+            trades.subList(0, done).clear();
+            pendingTradeCount.addAndGet(-done);
+        }
+    }
+
+    private void writeOrDrop(String kind, Object row, Runnable write) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write.run());
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                throw e; // Says nothing about the row; the rest of the batch is retried later
+            }
+            log.error("Dropping {} row that cannot be written: {}", kind, row, e);
+            metrics.recordDroppedRow(kind);
+        }
+    }
+
+    private void markWritten(List<Order> orders, List<Trade> trades) {
+        pendingTradeCount.addAndGet(-trades.size());
+        unwrittenTrades = new ArrayList<>();
+        for (Order order : orders) {
+            // Keeps the entry if the engine queued a newer snapshot meanwhile
+            pendingOrders.remove(order.getOrderId(), order);
+        }
+    }
+
+    // The database or its connection is at fault rather than the rows, so retrying may succeed
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+    }
+
+    private void writeOrders(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(UPSERT_ORDER_SQL, orders, orders.size(), (ps, order) -> {
+            ps.setLong(1, order.getOrderId());
+            ps.setString(2, order.getSymbol());
+            ps.setString(3, order.getSide().name());
+            ps.setString(4, order.getType().name());
+            ps.setBigDecimal(5, order.getQuantity());
+            ps.setBigDecimal(6, order.getPrice());
+            ps.setBigDecimal(7, order.getStopPrice());
+            ps.setBigDecimal(8, order.getDisplayQuantity());
+            ps.setString(9, order.getTimeInForce().name());
+            ps.setObject(10, order.getExpireTime());
+            ps.setString(11, order.getStatus().name());
+            ps.setString(12, order.getTraderId());
+            ps.setObject(13, order.getTimestamp());
+            ps.setBigDecimal(14, order.getFilledQuantity());
+            ps.setBigDecimal(15, order.getAveragePrice());
+            ps.setObject(16, now);
+        });
+        metrics.recordFlush("orders", System.nanoTime() - started, orders.size());
+    }
+
+    private void writeTrades(List<Trade> trades) {
+        if (trades.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        jdbcTemplate.batchUpdate(INSERT_TRADE_SQL, trades, trades.size(), (ps, trade) -> {
+            ps.setLong(1, trade.getTradeId());
+            ps.setString(2, trade.getSymbol());
+            ps.setBigDecimal(3, trade.getQuantity());
+            ps.setBigDecimal(4, trade.getPrice());
+            ps.setLong(5, trade.getBuyOrderId());
+            ps.setLong(6, trade.getSellOrderId());
+            ps.setString(7, trade.getBuyTraderId());
+            ps.setString(8, trade.getSellTraderId());
+            ps.setObject(9, trade.getTimestamp());
+            ps.setBigDecimal(10, trade.getTotalValue());
+        });
+        metrics.recordFlush("trades", System.nanoTime() - started, trades.size());
+    }
+
+    /**
+     * Flushes everything still queued. Engine writers are stopped first because
+     * MatchingEngineService depends on this bean and is destroyed before it.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        flush();
+        log.info("Write-behind persistence flushed and stopped");
+    }
+}
@@ -1,17 +1,31 @@
 package com.trading.engine.service;
 
+import com.trading.engine.dto.BatchOrderRequest;
+import com.trading.engine.dto.BatchOrderResponse;
+import com.trading.engine.dto.OrderAmendRequest;
 import com.trading.engine.dto.OrderRequest;
 import com.trading.engine.dto.OrderResponse;
 import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderSide;
 import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.StopBook;
+import com.trading.engine.model.TimeInForce;
 import com.trading.engine.repository.OrderRepository;
+import com.trading.engine.util.IdGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -20,53 +34,158 @@ public class OrderService {
     
     private final OrderRepository orderRepository;
     private final MatchingEngineService matchingEngineService;
+    private final OrderPersistenceService persistenceService;
+    private final IdGenerator idGenerator;
     
-    public OrderResponse placeOrder(OrderRequest request) {
+    // Local time at which DAY orders expire
+    @Value("${trading.engine.day-close:23:59:59}")
+    private String dayClose;
+    
+    public CompletableFuture<OrderResponse> placeOrder(OrderRequest request) {
         try {
             // Create order from request
             Order order = createOrderFromRequest(request);
             
             // Process order through matching engine
-            return matchingEngineService.processOrder(order);
+            return matchingEngineService.processOrder(order)
+                    .exceptionally(this::placeOrderFailed);
             
         } catch (Exception e) {
-            log.error("Error placing order: {}", e.getMessage(), e);
-            OrderResponse response = new OrderResponse();
-            response.setSuccess(false);
-            response.setMessage("Error placing order: " + e.getMessage());
-            return response;
+            return CompletableFuture.completedFuture(placeOrderFailed(e));
+        }
+    }
+    
+    /**
+     * Places and cancels many orders in one engine pass per symbol. Cancels that
+     * cannot be resolved to an active order fail here without reaching the engine.
+     */
+    public CompletableFuture<BatchOrderResponse> placeBatch(BatchOrderRequest request) {
+        List<String> cancelIds = request.getCancels();
+        OrderResponse[] cancelResults = new OrderResponse[cancelIds.size()];
+        List<Order> cancels = new ArrayList<>(cancelIds.size());
+        List<Integer> cancelIndexes = new ArrayList<>(cancelIds.size());
+        
+        for (int i = 0; i < cancelIds.size(); i++) {
+            Optional<Order> orderOpt = findOrder(cancelIds.get(i));
+            if (orderOpt.isEmpty()) {
+                cancelResults[i] = failedResponse("Order not found");
+            } else if (orderOpt.get().getStatus() == OrderStatus.FILLED) {
+                cancelResults[i] = failedResponse("Cannot cancel filled order");
+            } else {
+                cancels.add(orderOpt.get());
+                cancelIndexes.add(i);
+            }
+        }
+        
+        // An order that cannot be built fails in its own slot; the rest of the batch still runs
+        List<OrderRequest> orderRequests = request.getOrders();
+        OrderResponse[] orderResults = new OrderResponse[orderRequests.size()];
+        List<Order> orders = new ArrayList<>(orderRequests.size());
+        List<Integer> orderIndexes = new ArrayList<>(orderRequests.size());
+        for (int i = 0; i < orderRequests.size(); i++) {
+            try {
+                orders.add(createOrderFromRequest(orderRequests.get(i)));
+                orderIndexes.add(i);
+            } catch (Exception e) {
+                orderResults[i] = placeOrderFailed(e);
+            }
+        }
+        
+        return matchingEngineService.processBatch(cancels, orders).thenApply(result -> {
+            for (int i = 0; i < cancelIndexes.size(); i++) {
+                cancelResults[cancelIndexes.get(i)] = result.getCancels().get(i);
+            }
+            for (int i = 0; i < orderIndexes.size(); i++) {
+                orderResults[orderIndexes.get(i)] = result.getOrders().get(i);
+            }
+            return new BatchOrderResponse(Arrays.asList(cancelResults), Arrays.asList(orderResults));
+        });
+    }
+    
+    private static OrderResponse failedResponse(String message) {
+        OrderResponse response = new OrderResponse();
+        response.setSuccess(false);
+        response.setMessage(message);
+        return response;
+    }
+    
+    private OrderResponse placeOrderFailed(Throwable e) {
+        log.error("Error placing order: {}", e.getMessage(), e);
+        OrderResponse response = new OrderResponse();
+        response.setSuccess(false);
+        response.setMessage("Error placing order: " + e.getMessage());
+        return response;
+    }
+    
+    /**
+     * Entry point for non-REST gateways that have already decoded the fields.
+     * The symbol must already be upper case.
+     */
+    public CompletableFuture<OrderResponse> placeOrder(String symbol, OrderSide side, OrderType type,
+                                                       BigDecimal quantity, BigDecimal price, String traderId) {
+        try {
+            return matchingEngineService.processOrder(createOrder(symbol, side, type, quantity, price, null, null,
+                            TimeInForce.GTC, null, traderId))
+                    .exceptionally(this::placeOrderFailed);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(placeOrderFailed(e));
         }
     }
     
     private Order createOrderFromRequest(OrderRequest request) {
+        return createOrder(request.getSymbol().toUpperCase(), request.getSide(), request.getType(),
+                request.getQuantity(), request.getPrice(), request.getStopPrice(), request.getDisplayQuantity(),
+                request.getTimeInForce() != null ? request.getTimeInForce() : TimeInForce.GTC, request.getExpireTime(),
+                request.getTraderId());
+    }
+    
+    private Order createOrder(String symbol, OrderSide side, OrderType type,
+                              BigDecimal quantity, BigDecimal price, BigDecimal stopPrice,
+                              BigDecimal displayQuantity, TimeInForce timeInForce, LocalDateTime expireTime,
+                              String traderId) {
+        LocalDateTime now = LocalDateTime.now();
         Order order = new Order();
-        order.setOrderId(generateOrderId());
-        order.setSymbol(request.getSymbol().toUpperCase());
-        order.setSide(request.getSide());
-        order.setType(request.getType());
-        order.setQuantity(request.getQuantity());
-        order.setPrice(request.getPrice());
-        order.setTraderId(request.getTraderId());
+        order.setOrderId(idGenerator.nextId());
+        order.setSymbol(symbol);
+        order.setSide(side);
+        order.setType(type);
+        order.setQuantity(quantity);
+        order.setPrice(price);
+        order.setStopPrice(StopBook.isStop(type) ? stopPrice : null);
+        order.setDisplayQuantity(type == OrderType.ICEBERG ? displayQuantity : null);
+        order.setTimeInForce(timeInForce);
+        order.setExpireTime(expiryOf(timeInForce, expireTime, now));
+        order.setTraderId(traderId);
         order.setStatus(OrderStatus.PENDING);
+        order.setTimestamp(now);
         return order;
     }
     
-    private String generateOrderId() {
-        return "ORDER_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8);
+    // DAY orders run to the next day close, GTD orders to the requested time; others never expire
+    private LocalDateTime expiryOf(TimeInForce timeInForce, LocalDateTime expireTime, LocalDateTime now) {
+        if (timeInForce == TimeInForce.DAY) {
+            LocalDateTime close = now.toLocalDate().atTime(dayClose != null ? LocalTime.parse(dayClose) : LocalTime.MAX);
+            return close.isAfter(now) ? close : close.plusDays(1);
+        }
+        return timeInForce == TimeInForce.GTD ? expireTime : null;
     }
     
     public OrderResponse getOrder(String orderId) {
-        Optional<Order> orderOpt = orderRepository.findByOrderId(orderId);
+        Optional<Order> orderOpt = findOrder(orderId);
         
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
             OrderResponse response = new OrderResponse();
-            response.setOrderId(order.getOrderId());
+            response.setOrderId(IdGenerator.format(order.getOrderId()));
             response.setSymbol(order.getSymbol());
             response.setSide(order.getSide().name());
             response.setType(order.getType().name());
             response.setQuantity(order.getQuantity());
             response.setPrice(order.getPrice());
+            response.setStopPrice(order.getStopPrice());
+            response.setDisplayQuantity(order.getDisplayQuantity());
+            response.setTimeInForce(order.getTimeInForce());
+            response.setExpireTime(order.getExpireTime());
             response.setStatus(order.getStatus());
             response.setTraderId(order.getTraderId());
             response.setTimestamp(order.getTimestamp());
@@ -83,20 +202,22 @@ public class OrderService {
         }
     }
     
-    public List<Order> getOrdersBySymbol(String symbol) {
-        return orderRepository.findBySymbol(symbol);
-    }
-    
-    public List<Order> getOrdersByTrader(String traderId) {
-        return orderRepository.findByTraderId(traderId);
-    }
-    
-    public List<Order> getActiveOrdersBySymbol(String symbol) {
-        return orderRepository.findActiveOrdersBySymbol(symbol);
+    // Active orders come from the engine's index; orders waiting for the next write-behind flush are newer than the database row
+    private Optional<Order> findOrder(String orderId) {
+        long id = IdGenerator.parse(orderId);
+        if (id < 0) {
+            return Optional.empty();
+        }
+        Order active = matchingEngineService.getActiveOrders().get(id);
+        if (active != null) {
+            return Optional.of(active);
+        }
+        Order pending = persistenceService.findPendingOrder(id);
+        return pending != null ? Optional.of(pending) : orderRepository.findByOrderId(id);
     }
     
-    public OrderResponse cancelOrder(String orderId) {
-        Optional<Order> orderOpt = orderRepository.findByOrderId(orderId);
+    public CompletableFuture<OrderResponse> cancelOrder(String orderId) {
+        Optional<Order> orderOpt = findOrder(orderId);
         
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
@@ -105,33 +226,39 @@ public class OrderService {
                 OrderResponse response = new OrderResponse();
                 response.setSuccess(false);
                 response.setMessage("Cannot cancel filled order");
-                return response;
+                return CompletableFuture.completedFuture(response);
             }
             
-            // BUG #3: Not removing order from in-memory order book when cancelling
-            order.setStatus(OrderStatus.CANCELLED);
-            orderRepository.save(order);
-            
+            // The engine removes the order from the in-memory book and persists the cancel
+            return matchingEngineService.cancelOrder(order.getSymbol(), order.getOrderId());
+        } else {
             OrderResponse response = new OrderResponse();
-            response.setOrderId(order.getOrderId());
-            response.setSymbol(order.getSymbol());
-            response.setSide(order.getSide().name());
-            response.setType(order.getType().name());
-            response.setQuantity(order.getQuantity());
-            response.setPrice(order.getPrice());
-            response.setStatus(order.getStatus());
-            response.setTraderId(order.getTraderId());
-            response.setTimestamp(order.getTimestamp());
-            response.setFilledQuantity(order.getFilledQuantity());
-            response.setAveragePrice(order.getAveragePrice());
-            response.setSuccess(true);
-            response.setMessage("Order cancelled successfully");
-            return response;
+            response.setSuccess(false);
+            response.setMessage("Order not found");
+            return CompletableFuture.completedFuture(response);
+        }
+    }
+    
+    public CompletableFuture<OrderResponse> amendOrder(String orderId, OrderAmendRequest request) {
+        Optional<Order> orderOpt = findOrder(orderId);
+        
+        if (orderOpt.isPresent()) {
+            Order order = orderOpt.get();
+            
+            if (order.getStatus() == OrderStatus.FILLED || order.getStatus() == OrderStatus.CANCELLED) {
+                OrderResponse response = new OrderResponse();
+                response.setSuccess(false);
+                response.setMessage("Cannot amend " + order.getStatus().name().toLowerCase() + " order");
+                return CompletableFuture.completedFuture(response);
+            }
+            
+            return matchingEngineService.amendOrder(order.getSymbol(), order.getOrderId(),
+                    request.getPrice(), request.getQuantity());
         } else {
             OrderResponse response = new OrderResponse();
             response.setSuccess(false);
             response.setMessage("Order not found");
-            return response;
+            return CompletableFuture.completedFuture(response);
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.trading.engine.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Cheap timestamps for the matching path. One wall-clock reading is taken at startup
+ * and later times are that reading plus elapsed {@link System#nanoTime()}, so taking a
+ * timestamp is a single nanoTime call, never allocates and never goes backwards. It
+ * does not follow adjustments made to the system clock while the engine runs.
+ * <p>
+ * Times are nanoseconds since the epoch of the local wall clock, i.e. a
+ * {@link LocalDateTime} read as if it were UTC, which is also how the journal stores them.
+ */
+public final class EngineClock {
+
+    private static final long ORIGIN_NANO_TIME = System.nanoTime();
+    private static final long ORIGIN_EPOCH_NANOS = toEpochNanos(LocalDateTime.now());
+
+    private EngineClock() {
+    }
+
+    public static long epochNanos() {
+        return ORIGIN_EPOCH_NANOS + (System.nanoTime() - ORIGIN_NANO_TIME);
+    }
+
+    public static long toEpochNanos(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
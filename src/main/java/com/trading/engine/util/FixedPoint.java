@@ -0,0 +1,89 @@
+package com.trading.engine.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Scaled-long arithmetic for prices and quantities inside the matching core.
+ * Values carry four implied decimals, matching the {@code precision = 19, scale = 4}
+ * columns, so 150.25 is held as 1_502_500.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 4;
+    public static final long ONE = 10_000L;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Converts at the REST/JPA boundary, rounding half-up to the column scale.
+     *
+     * @throws ArithmeticException if the value does not fit in a scaled long
+     */
+    public static long fromBigDecimal(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long value) {
+        return BigDecimal.valueOf(value, SCALE);
+    }
+
+    /**
+     * Volume-weighted average price after a fill, equivalent to
+     * {@code (avg * previousFilled + quantity * price) / (previousFilled + quantity)}
+     * evaluated in BigDecimal and rounded half-up to four decimals.
+     */
+    public static long weightedAverage(long averagePrice, long previousFilled, long quantity, long price) {
+        long newFilled = Math.addExact(previousFilled, quantity);
+        if (newFilled <= 0) {
+            return averagePrice;
+        }
+        try {
+            long totalValue = Math.addExact(
+                    Math.multiplyExact(averagePrice, previousFilled),
+                    Math.multiplyExact(quantity, price));
+            return divideHalfUp(totalValue, newFilled);
+        } catch (ArithmeticException overflow) {
+            BigInteger totalValue = BigInteger.valueOf(averagePrice).multiply(BigInteger.valueOf(previousFilled))
+                    .add(BigInteger.valueOf(quantity).multiply(BigInteger.valueOf(price)));
+            return new BigDecimal(totalValue)
+                    .divide(BigDecimal.valueOf(newFilled), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        }
+    }
+
+    /**
+     * {@code quantity * price} rounded half-up to four decimals, e.g. a trade's notional.
+     */
+    public static long multiply(long quantity, long price) {
+        try {
+            return divideHalfUp(Math.multiplyExact(quantity, price), ONE);
+        } catch (ArithmeticException overflow) {
+            return new BigDecimal(BigInteger.valueOf(quantity).multiply(BigInteger.valueOf(price)))
+                    .divide(BigDecimal.valueOf(ONE), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        }
+    }
+
+    /**
+     * {@code dividend / divisor} as a column-scale decimal, e.g. notional over volume
+     * for a VWAP. Meant for read paths; zero when the divisor is zero.
+     */
+    public static BigDecimal quotient(long dividend, long divisor) {
+        if (divisor == 0) {
+            return BigDecimal.ZERO.setScale(SCALE);
+        }
+        return BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0 && Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,82 @@
+package com.trading.engine.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic 64-bit ids for orders and trades, laid out like a snowflake id:
+ *
+ * <pre>
+ * 41 bits milliseconds since 2024-01-01 UTC | 10 bits node | 12 bits sequence
+ * </pre>
+ * When more than 4096 ids are taken within one millisecond the sequence borrows the
+ * next millisecond instead of waiting, so ids stay unique and increasing without locks.
+ * Ids are positive; the API renders them as decimal strings.
+ */
+@Component
+public class IdGenerator {
+
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    // Milliseconds and sequence of the last id, without the node bits
+    private final AtomicLong last = new AtomicLong();
+
+    public IdGenerator(@Value("${trading.ids.node:0}") int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Id node must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    public long nextId() {
+        long floor = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long next = last.updateAndGet(previous -> Math.max(previous + 1, floor));
+        return compose(next);
+    }
+
+    /**
+     * Makes every later id larger than the given one, e.g. after replaying ids that were
+     * issued before a restart with the clock set back.
+     */
+    public void advancePast(long id) {
+        long issued = ((id >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS) | (id & SEQUENCE_MASK);
+        last.accumulateAndGet(issued, Math::max);
+    }
+
+    private long compose(long millisAndSequence) {
+        return ((millisAndSequence >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                | (node << SEQUENCE_BITS)
+                | (millisAndSequence & SEQUENCE_MASK);
+    }
+
+    public static String format(long id) {
+        return Long.toString(id);
+    }
+
+    // Returns -1 for anything that is not a valid id, so callers can treat it as not found
+    public static long parse(String id) {
+        if (id == null || id.isEmpty() || id.length() > 19) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+            if (value < 0) {
+                return -1;
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,83 @@
+package com.trading.engine.candles;
+
+import com.trading.engine.dto.Candle;
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SymbolCandlesTest {
+
+    private static final long START = LocalDateTime.of(2024, 3, 1, 9, 30).toEpochSecond(ZoneOffset.UTC) * 1000L;
+
+    @Test
+    void aggregatesOhlcvAndVwapWithinABar() {
+        SymbolCandles candles = new SymbolCandles("AAPL", 10);
+        candles.add(START + 100, fixed("150.00"), fixed("10"));
+        candles.add(START + 200, fixed("152.00"), fixed("30"));
+        candles.add(START + 900, fixed("149.00"), fixed("10"));
+
+        List<Candle> bars = candles.history(CandleInterval.ONE_SECOND, 10).getCandles();
+        assertEquals(1, bars.size());
+        Candle bar = bars.get(0);
+        assertEquals(LocalDateTime.of(2024, 3, 1, 9, 30), bar.getOpenTime());
+        assertEquals(new BigDecimal("150.0000"), bar.getOpen());
+        assertEquals(new BigDecimal("152.0000"), bar.getHigh());
+        assertEquals(new BigDecimal("149.0000"), bar.getLow());
+        assertEquals(new BigDecimal("149.0000"), bar.getClose());
+        assertEquals(new BigDecimal("50.0000"), bar.getVolume());
+        assertEquals(new BigDecimal("151.0000"), bar.getVwap()); // (1500 + 4560 + 1490) / 50
+        assertEquals(3, bar.getTradeCount());
+    }
+
+    @Test
+    void rollsOverAndKeepsOnlyTheLatestBars() {
+        SymbolCandles candles = new SymbolCandles("AAPL", 3);
+        for (int second = 0; second < 5; second++) {
+            candles.add(START + second * 1000L, fixed(100 + second + ".00"), fixed("1"));
+        }
+
+        List<Candle> seconds = candles.history(CandleInterval.ONE_SECOND, 10).getCandles();
+        assertEquals(3, seconds.size());
+        assertEquals(new BigDecimal("102.0000"), seconds.get(0).getOpen());
+        assertEquals(new BigDecimal("104.0000"), seconds.get(2).getClose());
+        assertEquals(2, candles.history(CandleInterval.ONE_SECOND, 2).getCandles().size());
+
+        List<Candle> minutes = candles.history(CandleInterval.ONE_MINUTE, 10).getCandles();
+        assertEquals(1, minutes.size());
+        assertEquals(new BigDecimal("100.0000"), minutes.get(0).getOpen());
+        assertEquals(new BigDecimal("104.0000"), minutes.get(0).getHigh());
+        assertEquals(5, minutes.get(0).getTradeCount());
+
+        CandleSnapshot current = candles.current();
+        assertEquals(CandleInterval.values().length, current.getCandles().size());
+        assertEquals(new BigDecimal("104.0000"), current.getLastPrice());
+    }
+
+    @Test
+    void resetsSessionOnANewDay() {
+        SymbolCandles candles = new SymbolCandles("AAPL", 10);
+        assertNull(candles.current().getSessionDate());
+
+        candles.add(START, fixed("100.00"), fixed("10"));
+        candles.add(START + 86_400_000L, fixed("110.00"), fixed("5"));
+
+        CandleSnapshot snapshot = candles.current();
+        assertEquals(LocalDate.of(2024, 3, 2), snapshot.getSessionDate());
+        assertEquals(new BigDecimal("5.0000"), snapshot.getSessionVolume());
+        assertEquals(new BigDecimal("110.0000"), snapshot.getSessionVwap());
+        assertEquals(1, snapshot.getSessionTradeCount());
+    }
+
+    private static long fixed(String value) {
+        return FixedPoint.fromBigDecimal(new BigDecimal(value));
+    }
+}
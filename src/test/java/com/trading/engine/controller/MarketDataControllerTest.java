@@ -0,0 +1,161 @@
+package com.trading.engine.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.engine.candles.CandleAggregator;
+import com.trading.engine.dto.BookDelta;
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.dto.TradePrint;
+import com.trading.engine.metrics.EngineMetrics;
+import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.TimeInForce;
+import com.trading.engine.model.Trade;
+import com.trading.engine.risk.PreTradeRiskCheck;
+import com.trading.engine.risk.RiskProperties;
+import com.trading.engine.service.MarketDataPublisher;
+import com.trading.engine.service.MatchingEngineService;
+import com.trading.engine.service.OrderBookViewCache;
+import com.trading.engine.service.OrderPersistenceService;
+import com.trading.engine.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GETs of the cached book views against a real engine, with persistence
+ * and market data stubbed out.
+ */
+class MarketDataControllerTest {
+
+    private final IdGenerator ids = new IdGenerator(0);
+    private MatchingEngineService engine;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        EngineMetrics metrics = new EngineMetrics(new SimpleMeterRegistry());
+        OrderPersistenceService persistence = new OrderPersistenceService(null, null, metrics) {
+            @Override
+            public void persist(List<Order> orders, List<Trade> trades) {
+            }
+        };
+        MarketDataPublisher publisher = new MarketDataPublisher(null) {
+            @Override
+            public void publishBook(BookDelta delta) {
+            }
+
+            @Override
+            public void publishTrades(String symbol, List<TradePrint> prints) {
+            }
+
+            @Override
+            public void publishCandles(String symbol, Supplier<CandleSnapshot> snapshot) {
+            }
+        };
+        CandleAggregator candles = new CandleAggregator(publisher, 16);
+        engine = new MatchingEngineService(persistence, publisher, candles,
+                new PreTradeRiskCheck(new RiskProperties()), metrics, ids);
+        ReflectionTestUtils.setField(engine, "ringBufferSize", 1024);
+        ReflectionTestUtils.setField(engine, "shardCount", 1);
+        ReflectionTestUtils.setField(engine, "shardMapping", "");
+        ReflectionTestUtils.setField(engine, "shardCpus", "");
+        ReflectionTestUtils.invokeMethod(engine, "start");
+
+        OrderBookViewCache cache = new OrderBookViewCache(engine, new ObjectMapper().findAndRegisterModules());
+        mvc = MockMvcBuilders.standaloneSetup(new MarketDataController(engine, cache, candles)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+    }
+
+    @Test
+    void anUnchangedBookAnswersAConditionalGetWith304() throws Exception {
+        place(OrderSide.SELL, "10", "150");
+
+        for (String path : List.of("/api/market/orderbook/AAPL", "/api/market/price/AAPL")) {
+            String eTag = fetch(path).getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotNull(eTag);
+
+            mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().bytes(new byte[0]));
+        }
+    }
+
+    @Test
+    void aNewPublishedSequenceInvalidatesTheView() throws Exception {
+        place(OrderSide.SELL, "10", "150");
+        String path = "/api/market/orderbook/AAPL";
+        MvcResult first = fetch(path);
+        String firstETag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        place(OrderSide.BUY, "4", "149");
+        long version = engine.getBookVersion("AAPL");
+        MvcResult second = mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, firstETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(version))
+                .andExpect(jsonPath("$.bestBid").value(149.0))
+                .andReturn();
+        String secondETag = second.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(firstETag, secondETag);
+        assertEquals("\"AAPL-" + version + "\"", secondETag);
+
+        // The price view moves with the same version
+        mvc.perform(get("/api/market/price/AAPL").header(HttpHeaders.IF_NONE_MATCH, firstETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.spread").value(1.0));
+        mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, secondETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void anUnknownSymbolIsNotFound() throws Exception {
+        mvc.perform(get("/api/market/orderbook/MSFT")).andExpect(status().isNotFound());
+        mvc.perform(get("/api/market/price/MSFT")).andExpect(status().isNotFound());
+    }
+
+    private MvcResult fetch(String path) throws Exception {
+        return mvc.perform(get(path)).andExpect(status().isOk()).andReturn();
+    }
+
+    private void place(OrderSide side, String quantity, String price) throws Exception {
+        Order order = new Order();
+        order.setOrderId(ids.nextId());
+        order.setSymbol("AAPL");
+        order.setSide(side);
+        order.setType(OrderType.LIMIT);
+        order.setQuantity(new BigDecimal(quantity));
+        order.setPrice(new BigDecimal(price));
+        order.setTimeInForce(TimeInForce.GTC);
+        order.setTraderId(side == OrderSide.BUY ? "B1" : "S1");
+        order.setStatus(OrderStatus.PENDING);
+        order.setTimestamp(LocalDateTime.now());
+        engine.processOrder(order).get(5, TimeUnit.SECONDS);
+        // The delta is published after the order completes; a query queued behind it waits for that
+        engine.getBookSnapshot("AAPL").get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,164 @@
+package com.trading.engine.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports against the real schema on H2; rows are written with plain SQL, as
+ * write-behind does.
+ */
+@DataJpaTest
+class ExportServiceTest {
+
+    private static final LocalDateTime OPEN = LocalDateTime.of(2024, 1, 2, 9, 30, 0);
+    // Order ids are 10 and 20 above the trade id
+    private static final String INSERT_TRADE = "INSERT INTO trades (trade_id, symbol, quantity, price, buy_order_id, " +
+            "sell_order_id, buy_trader_id, sell_trader_id, timestamp, total_value) " +
+            "VALUES (?, ?, 2, 150.25, ?, ?, ?, ?, ?, 300.5)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(jdbcTemplate, transactionManager, objectMapper);
+        ReflectionTestUtils.setField(exportService, "fetchSize", 2);
+    }
+
+    @Test
+    void csvHasAHeaderAndOneRowPerTradeOldestFirst() throws IOException {
+        insertTrade(2, "AAPL", "desk,2", "S1", OPEN.plusSeconds(2));
+        insertTrade(1, "AAPL", "B1", "say \"hi\"", OPEN.plusSeconds(1));
+        insertTrade(3, "MSFT", "B1", "S1", OPEN.plusSeconds(1));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, exportService.exportTrades("AAPL", null, null, ExportFormat.CSV, out));
+
+        assertEquals("trade_id,symbol,quantity,price,buy_order_id,sell_order_id,buy_trader_id,sell_trader_id," +
+                        "timestamp,total_value\r\n" +
+                        "1,AAPL,2.0000,150.2500,11,21,B1,\"say \"\"hi\"\"\",2024-01-02T09:30:01,300.5000\r\n" +
+                        "2,AAPL,2.0000,150.2500,12,22,\"desk,2\",S1,2024-01-02T09:30:02,300.5000\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLineWithIdsAsStringsAndNulls() throws IOException {
+        insertOrder(7_000_000_000_001L, "AAPL", OPEN.plusSeconds(1));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1, exportService.exportOrders("AAPL", null, null, ExportFormat.NDJSON, out));
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("}\n"));
+        assertEquals(1, body.split("\n").length);
+        JsonNode order = objectMapper.readTree(body);
+        assertEquals("7000000000001", order.get("orderId").textValue());
+        assertEquals("AAPL", order.get("symbol").textValue());
+        assertEquals("LIMIT", order.get("type").textValue());
+        assertTrue(body.contains("\"quantity\":1.5000,"), body); // Plain decimal at the column's scale
+        assertTrue(order.get("stopPrice").isNull());
+        assertTrue(order.get("expireTime").isNull());
+        assertEquals("2024-01-02T09:30:01", order.get("timestamp").textValue());
+        assertEquals(16, order.size());
+    }
+
+    @Test
+    void boundsIncludeFromAndExcludeTo() throws IOException {
+        for (int second = 0; second < 4; second++) {
+            insertTrade(second + 1, "AAPL", "B1", "S1", OPEN.plusSeconds(second));
+        }
+        insertTrade(9, "MSFT", "B1", "S1", OPEN.plusSeconds(1));
+
+        assertEquals(List.of("2", "3"), tradeIds(OPEN.plusSeconds(1), OPEN.plusSeconds(3)));
+        assertEquals(List.of("1", "2", "3"), tradeIds(null, OPEN.plusSeconds(3)));
+        assertEquals(List.of("3", "4"), tradeIds(OPEN.plusSeconds(2), null));
+        assertEquals(List.of(), tradeIds(OPEN.plusSeconds(2), OPEN.plusSeconds(2)));
+    }
+
+    @Test
+    void aClientThatGoesAwayAbortsTheQuery() {
+        List<Object[]> trades = new ArrayList<>();
+        for (int i = 1; i <= 5_000; i++) {
+            trades.add(new Object[] {i, "AAPL", 10 + i, 20 + i, "B1", "S1", Timestamp.valueOf(OPEN.plusSeconds(i))});
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRADE, trades);
+
+        for (ExportFormat format : ExportFormat.values()) {
+            DisconnectedStream out = new DisconnectedStream();
+            IOException failure = assertThrows(IOException.class,
+                    () -> exportService.exportTrades("AAPL", null, null, format, out));
+            assertEquals("Connection reset", failure.getMessage());
+            // Nothing more was read or written after the first failed write
+            assertEquals(1, out.attempts, format.name());
+        }
+    }
+
+    private List<String> tradeIds(LocalDateTime from, LocalDateTime to) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exportService.exportTrades("AAPL", from, to, ExportFormat.NDJSON, out);
+        List<String> ids = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                ids.add(objectMapper.readTree(line).get("tradeId").textValue());
+            }
+        }
+        assertEquals(written, ids.size());
+        return ids;
+    }
+
+    private void insertTrade(long tradeId, String symbol, String buyTraderId, String sellTraderId,
+                             LocalDateTime timestamp) {
+        jdbcTemplate.update(INSERT_TRADE, tradeId, symbol, 10 + tradeId, 20 + tradeId, buyTraderId, sellTraderId,
+                Timestamp.valueOf(timestamp));
+    }
+
+    private void insertOrder(long orderId, String symbol, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO orders (order_id, symbol, side, type, quantity, price, time_in_force, " +
+                        "status, trader_id, timestamp, filled_quantity, average_price) " +
+                        "VALUES (?, ?, 'BUY', 'LIMIT', 1.5, 100, 'GTC', 'PENDING', 'T1', ?, 0, 0)",
+                orderId, symbol, Timestamp.valueOf(timestamp));
+    }
+
+    // A response whose client has disconnected: every write fails
+    private static class DisconnectedStream extends OutputStream {
+
+        int attempts;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            attempts++;
+            throw new IOException("Connection reset");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.trading.engine.gateway;
+
+import com.trading.engine.candles.CandleAggregator;
+import com.trading.engine.dto.BookDelta;
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.dto.TradePrint;
+import com.trading.engine.metrics.EngineMetrics;
+import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.Trade;
+import com.trading.engine.risk.PreTradeRiskCheck;
+import com.trading.engine.risk.RiskProperties;
+import com.trading.engine.service.MarketDataPublisher;
+import com.trading.engine.service.MatchingEngineService;
+import com.trading.engine.service.OrderPersistenceService;
+import com.trading.engine.service.OrderService;
+import com.trading.engine.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Client and server over loopback against a real engine, with persistence and
+ * market data stubbed out.
+ */
+@Slf4j
+class OrderGatewayLoopbackTest {
+
+    private static final long ONE = 10_000L; // FixedPoint scale
+
+    private MatchingEngineService engine;
+    private OrderGatewayServer server;
+    private OrderGatewayClient client;
+    private final ExecutionReport report = new ExecutionReport();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EngineMetrics metrics = new EngineMetrics(new SimpleMeterRegistry());
+        OrderPersistenceService persistence = new OrderPersistenceService(null, null, metrics) {
+            @Override
+            public void persist(List<Order> orders, List<Trade> trades) {
+            }
+        };
+        MarketDataPublisher publisher = new MarketDataPublisher(null) {
+            @Override
+            public void publishBook(BookDelta delta) {
+            }
+
+            @Override
+            public void publishTrades(String symbol, List<TradePrint> prints) {
+            }
+
+            @Override
+            public void publishCandles(String symbol, Supplier<CandleSnapshot> snapshot) {
+            }
+        };
+        IdGenerator ids = new IdGenerator(0);
+        engine = new MatchingEngineService(persistence, publisher, new CandleAggregator(publisher, 16),
+                new PreTradeRiskCheck(new RiskProperties()), metrics, ids);
+        ReflectionTestUtils.setField(engine, "ringBufferSize", 1024);
+        ReflectionTestUtils.setField(engine, "shardCount", 1);
+        ReflectionTestUtils.setField(engine, "shardMapping", "");
+        ReflectionTestUtils.setField(engine, "shardCpus", "");
+        ReflectionTestUtils.invokeMethod(engine, "start");
+
+        server = new OrderGatewayServer(new OrderService(null, engine, persistence, ids), engine, 0);
+        server.start();
+        client = OrderGatewayClient.connect("localhost", server.getLocalPort());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.stop();
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+    }
+
+    @Test
+    void newFillAndCancelRoundTrip() throws Exception {
+        long sell = client.newOrder("aapl", OrderSide.SELL, OrderType.LIMIT, 150 * ONE, 10 * ONE, "T1");
+        client.read(report);
+        assertTrue(report.isAck());
+        assertEquals(sell, report.getRequestId());
+        assertEquals(OrderStatus.PENDING, report.getStatus());
+        long sellId = report.getOrderId();
+
+        client.newOrder("AAPL", OrderSide.BUY, OrderType.LIMIT, 151 * ONE, 4 * ONE, "T2");
+        client.read(report);
+        assertTrue(report.isFill());
+        assertEquals(OrderStatus.FILLED, report.getStatus());
+        assertEquals(4 * ONE, report.getFilledQuantity());
+        assertEquals(150 * ONE, report.getAveragePrice());
+
+        client.amend("AAPL", sellId, 150 * ONE, 8 * ONE);
+        client.read(report);
+        assertTrue(report.isFill()); // Still partially filled
+        assertEquals(4 * ONE, report.getFilledQuantity());
+
+        client.cancel("AAPL", sellId);
+        client.read(report);
+        assertTrue(report.isAck());
+        assertEquals(OrderStatus.CANCELLED, report.getStatus());
+
+        long again = client.cancel("AAPL", sellId);
+        client.read(report);
+        assertTrue(report.isReject());
+        assertEquals(again, report.getRequestId());
+    }
+
+    @Test
+    void loopbackRoundTripLatency() throws Exception {
+        Histogram histogram = new Histogram(TimeUnit.SECONDS.toNanos(10), 3);
+        int iterations = 20_000;
+
+        for (int i = 0; i < iterations; i++) {
+            long started = System.nanoTime();
+            client.newOrder("LAT", OrderSide.BUY, OrderType.LIMIT, 100 * ONE, ONE, "T1");
+            client.read(report);
+            long acked = System.nanoTime();
+            assertTrue(report.isAck());
+
+            client.cancel("LAT", report.getOrderId());
+            client.read(report);
+            long cancelled = System.nanoTime();
+            assertTrue(report.isAck());
+
+            histogram.recordValue(acked - started);
+            histogram.recordValue(cancelled - acked);
+        }
+
+        log.info("Gateway loopback round trip over {} requests: p50={}us p99={}us p99.9={}us max={}us",
+                histogram.getTotalCount(), micros(histogram.getValueAtPercentile(50)),
+                micros(histogram.getValueAtPercentile(99)), micros(histogram.getValueAtPercentile(99.9)),
+                micros(histogram.getMaxValue()));
+        assertEquals(2L * iterations, histogram.getTotalCount());
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
+}
@@ -0,0 +1,118 @@
+package com.trading.engine.journal;
+
+import com.trading.engine.model.BookOrder;
+import com.trading.engine.model.OrderBook;
+import com.trading.engine.model.OrderMatcher;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.TimeInForce;
+import com.trading.engine.util.EngineClock;
+import com.trading.engine.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWhatWasEncoded() throws IOException {
+        long now = EngineClock.epochNanos();
+        OrderBook book = new OrderBook("AAPL");
+        book.addOrder(order(1, OrderSide.BUY, OrderType.LIMIT, "100", "10", 0, 0, TimeInForce.GTC, 0, now));
+        book.addOrder(order(2, OrderSide.SELL, OrderType.ICEBERG, "101", "10", 0, scaled("3"), TimeInForce.GTC, 0, now));
+        long expiry = now + 3_600_000_000_000L;
+        book.addOrder(order(3, OrderSide.SELL, OrderType.LIMIT, "102", "5", 0, 0, TimeInForce.GTD, expiry, now));
+        book.addStop(order(4, OrderSide.BUY, OrderType.STOP_LIMIT, "106", "4", scaled("105"), 0, TimeInForce.GTC, 0, now));
+
+        // Takes one full slice of the iceberg and one unit of the next
+        BookOrder buy = order(5, OrderSide.BUY, OrderType.LIMIT, "101", "4", 0, 0, TimeInForce.GTC, 0, now);
+        OrderMatcher.match(book, buy, now);
+        book.getFills().clear();
+        book.setSequence(42);
+        BookOrder iceberg = book.getOrder(2);
+
+        BookSnapshotStore store = new BookSnapshotStore(directory.resolve("books.snapshot"));
+        store.write(7, List.of(BookSnapshotStore.encode(book)));
+        BookSnapshotStore.Snapshot snapshot = store.read();
+
+        assertEquals(7, snapshot.journalSegment());
+        assertEquals(1, snapshot.books().size());
+        OrderBook restored = snapshot.books().get(0);
+        assertEquals("AAPL", restored.getSymbol());
+        assertEquals(42, restored.getSequence());
+        assertEquals(scaled("101"), restored.getLastTradePrice());
+        assertEquals(3, restored.getRestingOrderCount());
+        assertEquals(book.getBestBid(), restored.getBestBid());
+        assertEquals(book.getBestAsk(), restored.getBestAsk());
+
+        BookOrder restoredIceberg = restored.getOrder(2);
+        assertEquals(scaled("4"), restoredIceberg.getFilledQuantity());
+        assertEquals(scaled("101"), restoredIceberg.getAveragePrice());
+        assertEquals(iceberg.getVisibleQuantity(), restoredIceberg.getVisibleQuantity());
+        assertEquals(scaled("3"), restoredIceberg.getDisplayQuantity());
+        assertEquals(OrderStatus.PARTIALLY_FILLED, restoredIceberg.getStatus());
+        assertEquals(now, restoredIceberg.getTimestampNanos());
+
+        BookOrder restoredGtd = restored.getOrder(3);
+        assertEquals(TimeInForce.GTD, restoredGtd.getTimeInForce());
+        assertEquals(expiry, restoredGtd.getExpireNanos());
+        assertEquals(1, restored.getExpiries().size());
+
+        assertEquals(1, restored.getStops().size());
+        BookOrder stop = restored.getStops().get(4);
+        assertEquals(OrderType.STOP_LIMIT, stop.getType());
+        assertEquals(scaled("105"), stop.getStopPrice());
+        assertEquals(scaled("106"), stop.getPrice());
+    }
+
+    @Test
+    void rejectsOtherVersions() throws IOException {
+        Path file = directory.resolve("books.snapshot");
+        for (int version : new int[] {4, 6}) {
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+                out.writeInt(0x4F42534E);
+                out.writeInt(version);
+                out.writeInt(0);
+                out.writeInt(0);
+            }
+            IOException failure = assertThrows(IOException.class, () -> new BookSnapshotStore(file).read());
+            assertTrue(failure.getMessage().contains("format version " + version + ", this build reads version 5"),
+                    failure.getMessage());
+            assertTrue(failure.getMessage().contains(file.toString()));
+        }
+    }
+
+    @Test
+    void startsFromSegmentZeroWithoutASnapshot() throws IOException {
+        BookSnapshotStore.Snapshot snapshot = new BookSnapshotStore(directory.resolve("books.snapshot")).read();
+        assertEquals(0, snapshot.journalSegment());
+        assertTrue(snapshot.books().isEmpty());
+    }
+
+    private static BookOrder order(long orderId, OrderSide side, OrderType type, String price, String quantity,
+                                   long stopPrice, long displayQuantity, TimeInForce timeInForce, long expireNanos,
+                                   long timestampNanos) {
+        BookOrder order = new BookOrder().init(orderId, "AAPL", "T" + orderId, side, type, scaled(price), stopPrice,
+                displayQuantity, scaled(quantity), timestampNanos, timeInForce, expireNanos);
+        order.setStatus(OrderStatus.PENDING);
+        return order;
+    }
+
+    private static long scaled(String value) {
+        return FixedPoint.fromBigDecimal(new BigDecimal(value));
+    }
+}
@@ -0,0 +1,222 @@
+package com.trading.engine.journal;
+
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.TimeInForce;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandJournalTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEveryRecordTypeInAppendOrder() {
+        CommandJournal journal = open();
+        journal.append(newOrder(1, 101, "T1"));
+        journal.append(command(JournalRecord.AMEND, 2, 101));
+        journal.append(command(JournalRecord.CANCEL, 3, 101));
+        journal.append(command(JournalRecord.EXPIRE, 4, 102));
+        journal.close();
+
+        List<String> replayed = replay();
+        assertEquals(List.of(
+                "1/1/AAPL/101/T1/BUY/ICEBERG/1500000/100000/123/0/20000/GTD/456",
+                "3/2/AAPL/101/null/null/null/1510000/50000/0/0/0/null/0",
+                "2/3/AAPL/101/null/null/null/0/0/0/0/0/null/0",
+                "4/4/AAPL/102/null/null/null/0/0/0/0/0/null/0"), replayed);
+    }
+
+    @Test
+    void rollsSegmentsAndReplaysAcrossThem() throws IOException {
+        CommandJournal journal = new CommandJournal(directory, 4096);
+        journal.open();
+        for (int i = 1; i <= 500; i++) {
+            journal.append(newOrder(i, i, "T" + i));
+        }
+        journal.close();
+
+        assertTrue(segments().size() > 1);
+        List<String> replayed = replay();
+        assertEquals(500, replayed.size());
+        for (int i = 0; i < replayed.size(); i++) {
+            assertTrue(replayed.get(i).startsWith("1/" + (i + 1) + "/AAPL/" + (i + 1) + "/T" + (i + 1) + "/"));
+        }
+    }
+
+    @Test
+    void stepsOverUnwrittenSpaceAndUnfinishedEntries() throws IOException {
+        CommandJournal journal = open();
+        for (int i = 1; i <= 5; i++) {
+            journal.append(newOrder(i, i, "T1"));
+        }
+        journal.close();
+
+        // Entry 2 claimed but never written, entry 4 written but its checksum not yet stored
+        Path segment = segments().get(0);
+        List<Integer> entries = entryOffsets(segment);
+        zero(segment, entries.get(1), entries.get(2) - entries.get(1));
+        zero(segment, entries.get(3) + 4, 4);
+
+        List<String> replayed = replay();
+        assertEquals(3, replayed.size());
+        assertTrue(replayed.get(0).startsWith("1/1/"));
+        assertTrue(replayed.get(1).startsWith("1/3/"));
+        assertTrue(replayed.get(2).startsWith("1/5/"));
+    }
+
+    @Test
+    void skipsATornTail() throws IOException {
+        CommandJournal journal = open();
+        journal.append(newOrder(1, 1, "T1"));
+        journal.append(newOrder(2, 2, "T1"));
+        journal.close();
+
+        Path segment = segments().get(0);
+        zero(segment, entryOffsets(segment).get(1) + 4, 4);
+
+        List<String> replayed = replay();
+        assertEquals(1, replayed.size());
+        assertTrue(replayed.get(0).startsWith("1/1/"));
+    }
+
+    @Test
+    void stopsReadingASegmentAtACorruptEntry() throws IOException {
+        CommandJournal journal = open();
+        for (int i = 1; i <= 3; i++) {
+            journal.append(newOrder(i, i, "T1"));
+        }
+        journal.close();
+
+        Path segment = segments().get(0);
+        int second = entryOffsets(segment).get(1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7F}), second + 12);
+        }
+
+        List<String> replayed = replay();
+        assertEquals(1, replayed.size());
+        assertTrue(replayed.get(0).startsWith("1/1/"));
+    }
+
+    @Test
+    void sizesTheEncodeBufferFromTheRecord() {
+        CommandJournal journal = open();
+        String longTrader = "T".repeat(20_000);
+        journal.append(newOrder(1, 1, longTrader));
+        assertThrows(IllegalArgumentException.class, () -> journal.append(newOrder(2, 2, "\u00e9".repeat(20_000))));
+        journal.close();
+
+        List<String> replayed = replay();
+        assertEquals(1, replayed.size());
+        assertTrue(replayed.get(0).contains("/" + longTrader + "/"));
+    }
+
+    @Test
+    void rejectsASegmentOfAnotherFormatVersion() throws IOException {
+        CommandJournal journal = open();
+        journal.append(newOrder(1, 1, "T1"));
+        journal.close();
+
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 2), 4);
+        }
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, this::replay);
+        assertTrue(failure.getMessage().startsWith("Journal segment 0 has format version 2, this build reads version 1"),
+                failure.getMessage());
+    }
+
+    @Test
+    void rejectsASegmentWithoutAHeader() throws IOException {
+        Files.write(directory.resolve("journal-0000000000.log"), new byte[SEGMENT_SIZE]);
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, this::replay);
+        assertTrue(failure.getMessage().startsWith("Journal segment 0 has no format header"), failure.getMessage());
+    }
+
+    private CommandJournal open() {
+        CommandJournal journal = new CommandJournal(directory, SEGMENT_SIZE);
+        journal.open();
+        return journal;
+    }
+
+    private List<String> replay() {
+        List<String> replayed = new ArrayList<>();
+        new CommandJournal(directory, SEGMENT_SIZE).replay(0, new JournalRecord(), record -> replayed.add(
+                record.type + "/" + record.symbolSequence + "/" + record.symbol + "/" + record.orderId + "/" +
+                record.traderId + "/" + record.side + "/" + record.orderType + "/" + record.price + "/" +
+                record.quantity + "/" + record.timestampNanos + "/" + record.stopPrice + "/" +
+                record.displayQuantity + "/" + record.timeInForce + "/" + record.expireNanos));
+        return replayed;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    // Start of every entry in a segment written without gaps, after its format header
+    private static List<Integer> entryOffsets(Path segment) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<Integer> offsets = new ArrayList<>();
+        int position = 8;
+        while (position + 8 <= bytes.limit() && bytes.getInt(position) > 0) {
+            offsets.add(position);
+            position += (8 + bytes.getInt(position) + 7) & ~7;
+        }
+        offsets.add(position);
+        return offsets;
+    }
+
+    private static void zero(Path segment, int position, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(length), position);
+        }
+    }
+
+    private static JournalRecord newOrder(long sequence, long orderId, String traderId) {
+        JournalRecord record = command(JournalRecord.NEW, sequence, orderId);
+        record.traderId = traderId;
+        record.side = OrderSide.BUY;
+        record.orderType = OrderType.ICEBERG;
+        record.price = 1_500_000;
+        record.quantity = 100_000;
+        record.timestampNanos = 123;
+        record.displayQuantity = 20_000;
+        record.timeInForce = TimeInForce.GTD;
+        record.expireNanos = 456;
+        return record;
+    }
+
+    private static JournalRecord command(byte type, long sequence, long orderId) {
+        JournalRecord record = new JournalRecord();
+        record.type = type;
+        record.symbolSequence = sequence;
+        record.symbol = "AAPL";
+        record.orderId = orderId;
+        if (type == JournalRecord.AMEND) {
+            record.price = 1_510_000;
+            record.quantity = 50_000;
+        }
+        return record;
+    }
+}
@@ -0,0 +1,44 @@
+package com.trading.engine.loadgen;
+
+import com.trading.engine.dto.OrderRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderFlowGeneratorTest {
+
+    @Test
+    void sameSeedProducesSameFlow() {
+        LoadGeneratorProperties properties = new LoadGeneratorProperties();
+        OrderFlowGenerator first = new OrderFlowGenerator(properties, 7L, "T");
+        OrderFlowGenerator second = new OrderFlowGenerator(properties, 7L, "T");
+
+        for (int i = 0; i < 1_000; i++) {
+            OrderRequest a = first.nextOrder();
+            OrderRequest b = second.nextOrder();
+            assertEquals(a, b);
+        }
+    }
+
+    @Test
+    void symbolPopularityFollowsZipf() {
+        LoadGeneratorProperties properties = new LoadGeneratorProperties();
+        properties.setSymbols(10);
+        properties.setZipfExponent(1.0);
+        OrderFlowGenerator generator = new OrderFlowGenerator(properties, 1L, "T");
+
+        int[] counts = new int[10];
+        int draws = 200_000;
+        for (int i = 0; i < draws; i++) {
+            counts[generator.nextSymbol()]++;
+        }
+
+        // Rank 1 should see about twice the flow of rank 2 and ten times rank 10
+        assertEquals(2.0, (double) counts[0] / counts[1], 0.1);
+        assertEquals(10.0, (double) counts[0] / counts[9], 1.0);
+        for (int i = 1; i < counts.length; i++) {
+            assertTrue(counts[i - 1] > counts[i]);
+        }
+    }
+}
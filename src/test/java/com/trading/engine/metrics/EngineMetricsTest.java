@@ -0,0 +1,146 @@
+package com.trading.engine.metrics;
+
+import com.trading.engine.candles.CandleAggregator;
+import com.trading.engine.dto.BookDelta;
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.dto.TradePrint;
+import com.trading.engine.metrics.EngineMetrics.Stage;
+import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.TimeInForce;
+import com.trading.engine.model.Trade;
+import com.trading.engine.risk.PreTradeRiskCheck;
+import com.trading.engine.risk.RiskProperties;
+import com.trading.engine.service.MarketDataPublisher;
+import com.trading.engine.service.MatchingEngineService;
+import com.trading.engine.service.OrderPersistenceService;
+import com.trading.engine.util.IdGenerator;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Meters registered and recorded by a real engine on one shard, with persistence
+ * and market data stubbed out.
+ */
+class EngineMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EngineMetrics metrics = new EngineMetrics(registry);
+    private final IdGenerator ids = new IdGenerator(0);
+    private MatchingEngineService engine;
+
+    @BeforeEach
+    void setUp() {
+        OrderPersistenceService persistence = new OrderPersistenceService(null, null, metrics) {
+            @Override
+            public void persist(List<Order> orders, List<Trade> trades) {
+            }
+        };
+        MarketDataPublisher publisher = new MarketDataPublisher(null) {
+            @Override
+            public void publishBook(BookDelta delta) {
+            }
+
+            @Override
+            public void publishTrades(String symbol, List<TradePrint> prints) {
+            }
+
+            @Override
+            public void publishCandles(String symbol, Supplier<CandleSnapshot> snapshot) {
+            }
+        };
+        engine = new MatchingEngineService(persistence, publisher, new CandleAggregator(publisher, 16),
+                new PreTradeRiskCheck(new RiskProperties()), metrics, ids);
+        ReflectionTestUtils.setField(engine, "ringBufferSize", 1024);
+        ReflectionTestUtils.setField(engine, "shardCount", 1);
+        ReflectionTestUtils.setField(engine, "shardMapping", "");
+        ReflectionTestUtils.setField(engine, "shardCpus", "");
+        ReflectionTestUtils.invokeMethod(engine, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+    }
+
+    @Test
+    void everyStageOfACrossingOrderIsTimed() throws Exception {
+        place(OrderSide.SELL, "10", "150");
+        place(OrderSide.BUY, "4", "150");
+
+        for (Stage stage : Stage.values()) {
+            Timer timer = registry.get("engine.order.stage").tag("stage", stage.name().toLowerCase()).timer();
+            if (stage == Stage.JOURNAL) {
+                assertEquals(0, timer.count(), "journal is disabled"); // Registered up front all the same
+            } else {
+                assertTrue(timer.count() > 0, stage + " was not recorded");
+            }
+        }
+        assertEquals(2, registry.get("engine.command.latency").tag("command", "new").timer().count());
+        assertEquals(0, registry.get("engine.command.latency").tag("command", "cancel").timer().count());
+        assertEquals(1.0, registry.get("engine.trades").tag("symbol", "AAPL").counter().count());
+    }
+
+    @Test
+    void bookAndShardGaugesFollowTheEngine() throws Exception {
+        place(OrderSide.SELL, "10", "150");
+        place(OrderSide.SELL, "5", "151");
+        place(OrderSide.BUY, "4", "150");
+
+        assertEquals(2.0, gauge("engine.book.levels", "symbol", "AAPL", "side", "sell"));
+        assertEquals(0.0, gauge("engine.book.levels", "symbol", "AAPL", "side", "buy"));
+        assertEquals(2.0, gauge("engine.book.resting", "symbol", "AAPL"));
+
+        // The shard frees a command's ring slot only after completing its future
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gauge("engine.queue.depth", "shard", "0") != 0.0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0.0, gauge("engine.queue.depth", "shard", "0"));
+        assertEquals(1.0, gauge("engine.shard.symbols", "shard", "0"));
+        assertTrue(registry.get("engine.shard.commands").tag("shard", "0").functionCounter().count() >= 3);
+        registry.get("engine.shard.utilization").tag("shard", "0").gauge();
+
+        // The rate is the trades since the previous sample
+        metrics.sample();
+        assertEquals(1.0, gauge("engine.trades.rate"));
+        metrics.sample();
+        assertEquals(0.0, gauge("engine.trades.rate"));
+    }
+
+    private double gauge(String name, String... tags) {
+        return registry.get(name).tags(tags).gauge().value();
+    }
+
+    private void place(OrderSide side, String quantity, String price) throws Exception {
+        Order order = new Order();
+        order.setOrderId(ids.nextId());
+        order.setSymbol("AAPL");
+        order.setSide(side);
+        order.setType(OrderType.LIMIT);
+        order.setQuantity(new BigDecimal(quantity));
+        order.setPrice(new BigDecimal(price));
+        order.setTimeInForce(TimeInForce.GTC);
+        order.setTraderId(side == OrderSide.BUY ? "B1" : "S1");
+        order.setStatus(OrderStatus.PENDING);
+        order.setTimestamp(LocalDateTime.now());
+        engine.processOrder(order).get(5, TimeUnit.SECONDS);
+        // Publishing runs after the order completes; a query queued behind it waits for that
+        engine.getBookSnapshot("AAPL").get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,53 @@
+package com.trading.engine.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActiveOrderIndexTest {
+
+    @Test
+    void tracksOrdersUntilTheyAreTerminal() {
+        ActiveOrderIndex index = new ActiveOrderIndex();
+        index.update(order(1, "AAPL", "T1", OrderStatus.PENDING));
+        index.update(order(2, "MSFT", "T1", OrderStatus.PENDING));
+        index.update(order(3, "AAPL", "T2", OrderStatus.REJECTED));
+
+        assertEquals(2, index.getByTrader("T1").size());
+        assertEquals(1, index.getBySymbol("AAPL").size());
+        assertNull(index.get(3));
+
+        Order partial = order(1, "AAPL", "T1", OrderStatus.PARTIALLY_FILLED);
+        index.update(partial);
+        assertSame(partial, index.get(1));
+        assertSame(partial, index.getBySymbol("AAPL").get(0));
+
+        index.update(order(1, "AAPL", "T1", OrderStatus.FILLED));
+        index.update(order(2, "MSFT", "T1", OrderStatus.CANCELLED));
+        assertNull(index.get(1));
+        assertTrue(index.getByTrader("T1").isEmpty());
+        assertTrue(index.getBySymbol("AAPL").isEmpty());
+        assertTrue(index.getBySymbol("GOOGL").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private static Order order(long orderId, String symbol, String traderId, OrderStatus status) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setSymbol(symbol);
+        order.setSide(OrderSide.BUY);
+        order.setType(OrderType.LIMIT);
+        order.setPrice(new BigDecimal("100"));
+        order.setQuantity(BigDecimal.TEN);
+        order.setStatus(status);
+        order.setTraderId(traderId);
+        order.setTimestamp(LocalDateTime.now());
+        return order;
+    }
+}
@@ -0,0 +1,199 @@
+package com.trading.engine.model;
+
+import com.trading.engine.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookLevelsTest {
+
+    private static final int DEPTH = 64;
+    private static final int COMMANDS = 200_000;
+    private static final int READERS = 3;
+
+    private long nextId = 1;
+
+    @Test
+    void onlyChangedSidesInsideThePublishedDepthAreCopied() {
+        OrderBook book = new OrderBook("AAPL");
+        book.addOrder(order(OrderSide.BUY, "99", "10"));
+        book.addOrder(order(OrderSide.BUY, "98", "10"));
+        book.addOrder(order(OrderSide.SELL, "101", "10"));
+        publish(book, 2);
+        BookLevels first = book.getLevels();
+        assertEquals(2, first.getBids().size());
+        assertEquals(scaled("99"), first.getBids().getPrice(0));
+        assertEquals(scaled("101"), first.getAsks().getPrice(0));
+
+        // Beyond the two published bid levels: nothing shown changes
+        book.addOrder(order(OrderSide.BUY, "97", "10"));
+        publish(book, 2);
+        assertSame(first.getBids(), book.getLevels().getBids());
+        assertEquals(2, book.getLevels().getSequence());
+
+        book.addOrder(order(OrderSide.SELL, "102", "5"));
+        publish(book, 2);
+        BookLevels third = book.getLevels();
+        assertSame(first.getBids(), third.getBids());
+        assertNotSame(first.getAsks(), third.getAsks());
+        assertEquals(scaled("5"), third.getAsks().getQuantity(1));
+
+        book.addOrder(order(OrderSide.BUY, "99", "1"));
+        publish(book, 2);
+        assertEquals(scaled("11"), book.getLevels().getBids().getQuantity(0));
+        assertEquals(2, book.getLevels().getBids().getOrderCount(0));
+        assertEquals(scaled("10"), first.getBids().getQuantity(0));
+    }
+
+    @Test
+    void zeroDepthPublishesEmptySides() {
+        OrderBook book = new OrderBook("AAPL");
+        book.addOrder(order(OrderSide.BUY, "99", "10"));
+        book.addOrder(order(OrderSide.SELL, "101", "10"));
+        publish(book, 0);
+        book.addOrder(order(OrderSide.SELL, "100", "10"));
+        publish(book, 0);
+        assertTrue(book.getLevels().getBids().isEmpty());
+        assertTrue(book.getLevels().getAsks().isEmpty());
+        assertEquals(2, book.getLevels().getSequence());
+    }
+
+    /**
+     * Every command adds a bid and an ask of the same size, fills both orders of an
+     * earlier pair by the same amount, or cancels such a pair, and stamps its sequence
+     * as the last price. A view that mixed two commands would break one of the checks.
+     */
+    @Test
+    void readersNeverSeeTornViewsAtFullWriteRate() throws Exception {
+        OrderBook book = new OrderBook("AAPL");
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            Thread reader = new Thread(() -> {
+                long lastSequence = 0;
+                while (writing.get() && failure.get() == null) {
+                    BookLevels view = book.getLevels();
+                    String problem = check(view, lastSequence);
+                    if (problem != null) {
+                        failure.compareAndSet(null, problem);
+                    }
+                    lastSequence = view.getSequence();
+                    reads.incrementAndGet();
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        Random random = new Random(42);
+        List<BookOrder[]> pairs = new ArrayList<>();
+        for (int command = 1; command <= COMMANDS; command++) {
+            int action = random.nextInt(3);
+            if (pairs.isEmpty() || action == 0) {
+                long quantity = 1 + random.nextInt(100);
+                BookOrder bid = order(OrderSide.BUY, 90 + random.nextInt(10), quantity);
+                BookOrder ask = order(OrderSide.SELL, 101 + random.nextInt(10), quantity);
+                book.addOrder(bid);
+                book.addOrder(ask);
+                pairs.add(new BookOrder[] {bid, ask});
+            } else {
+                BookOrder[] pair = pairs.get(random.nextInt(pairs.size()));
+                if (action == 1 && pair[0].getRemainingQuantity() > 1) {
+                    long quantity = pair[0].getRemainingQuantity() / 2;
+                    book.fillOrder(pair[0], quantity, pair[0].getPrice());
+                    book.fillOrder(pair[1], quantity, pair[1].getPrice());
+                } else {
+                    book.cancelOrder(pair[0].getOrderId());
+                    book.cancelOrder(pair[1].getOrderId());
+                    pairs.remove(pair);
+                }
+            }
+            book.setLastTradePrice(command);
+            publish(book, DEPTH);
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertTrue(reads.get() > 0);
+        assertEquals(COMMANDS, book.getLevels().getSequence());
+    }
+
+    private static String check(BookLevels view, long lastSequence) {
+        if (view.getSequence() < lastSequence) {
+            return "sequence went back from " + lastSequence + " to " + view.getSequence();
+        }
+        if (view.getLastTradePrice() != view.getSequence()) {
+            return "last price " + view.getLastTradePrice() + " at sequence " + view.getSequence();
+        }
+        long[] bidTotals = totals(view.getBids(), OrderSide.BUY);
+        long[] askTotals = totals(view.getAsks(), OrderSide.SELL);
+        if (bidTotals == null || askTotals == null) {
+            return "unsorted or empty level at sequence " + view.getSequence();
+        }
+        if (bidTotals[0] != askTotals[0] || bidTotals[1] != askTotals[1]) {
+            return "bids and asks disagree at sequence " + view.getSequence();
+        }
+        if (!view.getBids().isEmpty() && !view.getAsks().isEmpty()
+                && view.getBids().getPrice(0) >= view.getAsks().getPrice(0)) {
+            return "crossed at sequence " + view.getSequence();
+        }
+        return null;
+    }
+
+    // Quantity and order count over the side, or null if it is out of order or has an empty level
+    private static long[] totals(LevelArray side, OrderSide orderSide) {
+        long quantity = 0;
+        long orders = 0;
+        for (int i = 0; i < side.size(); i++) {
+            if (side.getQuantity(i) <= 0 || side.getOrderCount(i) <= 0) {
+                return null;
+            }
+            if (i > 0 && (orderSide == OrderSide.BUY
+                    ? side.getPrice(i) >= side.getPrice(i - 1)
+                    : side.getPrice(i) <= side.getPrice(i - 1))) {
+                return null;
+            }
+            quantity += side.getQuantity(i);
+            orders += side.getOrderCount(i);
+        }
+        return new long[] {quantity, orders};
+    }
+
+    private static void publish(OrderBook book, int depth) {
+        book.setSequence(book.getSequence() + 1);
+        book.publishLevels(depth);
+        book.clearChangedLevels();
+    }
+
+    private BookOrder order(OrderSide side, String price, String quantity) {
+        return order(side, scaled(price), scaled(quantity));
+    }
+
+    private BookOrder order(OrderSide side, long price, long quantity) {
+        long orderId = nextId++;
+        return new BookOrder().init(orderId, "AAPL", "T1", side, OrderType.LIMIT, price, 0, 0, quantity, orderId,
+                TimeInForce.GTC, 0);
+    }
+
+    private static long scaled(String value) {
+        return FixedPoint.fromBigDecimal(new BigDecimal(value));
+    }
+}
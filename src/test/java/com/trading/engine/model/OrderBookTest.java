@@ -0,0 +1,190 @@
+package com.trading.engine.model;
+
+import com.trading.engine.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderBookTest {
+
+    @Test
+    void levelAggregatesFollowAddFillReduceAndCancel() {
+        OrderBook book = new OrderBook("AAPL");
+        BookOrder first = order(1, OrderSide.BUY, "100", "10");
+        BookOrder second = order(2, OrderSide.BUY, "100", "5");
+        book.addOrder(first);
+        book.addOrder(second);
+
+        PriceLevel level = book.getBuyOrders().get(FixedPoint.fromBigDecimal(new BigDecimal("100")));
+        assertEquals(2, level.getOrderCount());
+        assertEquals(scaled("15"), level.getTotalQuantity());
+
+        book.fillOrder(first, scaled("4"), scaled("100"));
+        assertEquals(scaled("11"), level.getTotalQuantity());
+
+        book.reduceOrder(second, scaled("2"));
+        assertEquals(scaled("8"), level.getTotalQuantity());
+
+        book.cancelOrder(1);
+        assertEquals(1, level.getOrderCount());
+        assertEquals(scaled("2"), level.getTotalQuantity());
+
+        book.cancelOrder(2);
+        assertFalse(book.getBuyOrders().containsKey(level.getPrice()));
+        assertNull(book.getBestBid());
+    }
+
+    @Test
+    void traderExposureFollowsRestingOrders() {
+        OrderBook book = new OrderBook("AAPL");
+        BookOrder bid = order(1, OrderSide.BUY, "100", "10");
+        BookOrder ask = order(2, OrderSide.SELL, "101.5", "4");
+        book.addOrder(bid);
+        book.addOrder(ask);
+
+        TraderExposure exposure = book.getExposure("T1");
+        assertEquals(2, exposure.getOpenOrders());
+        assertEquals(scaled("14"), exposure.getOpenQuantity());
+        assertEquals(scaled("1406"), exposure.getOpenNotional());
+
+        book.fillOrder(bid, scaled("3"), scaled("100"));
+        book.reduceOrder(ask, scaled("1"));
+        assertEquals(scaled("8"), exposure.getOpenQuantity());
+        assertEquals(scaled("801.5"), exposure.getOpenNotional());
+
+        book.cancelOrder(1);
+        book.cancelOrder(2);
+        assertEquals(0, exposure.getOpenOrders());
+        assertEquals(0, exposure.getOpenQuantity());
+        assertEquals(0, exposure.getOpenNotional());
+    }
+
+    @Test
+    void traderExposureCountsParkedStopsUntilTheyLeaveOrTrigger() {
+        OrderBook book = new OrderBook("AAPL");
+        BookOrder cancelled = stop(1, "106", "105", "2");
+        BookOrder triggered = stop(2, "104", "103", "5");
+        book.addStop(cancelled);
+        book.addStop(triggered);
+
+        TraderExposure exposure = book.getExposure("T1");
+        assertEquals(2, exposure.getOpenOrders());
+        assertEquals(scaled("7"), exposure.getOpenQuantity());
+        assertEquals(scaled("732"), exposure.getOpenNotional());
+
+        book.cancelStop(1);
+        assertEquals(scaled("5"), exposure.getOpenQuantity());
+
+        // A fired stop leaves exposure until it rests
+        List<BookOrder> fired = new ArrayList<>();
+        book.pollTriggeredStops(scaled("103"), fired);
+        assertEquals(List.of(triggered), fired);
+        assertEquals(0, exposure.getOpenOrders());
+        assertEquals(0, exposure.getOpenQuantity());
+        assertEquals(0, exposure.getOpenNotional());
+        book.addOrder(triggered);
+        assertEquals(scaled("520"), exposure.getOpenNotional());
+    }
+
+    @Test
+    void icebergShowsOneSliceAndRequeuesRefreshes() {
+        OrderBook book = new OrderBook("AAPL");
+        BookOrder iceberg = iceberg(1, "100", "25", "10");
+        BookOrder limit = order(2, OrderSide.SELL, "100", "5");
+        book.addOrder(iceberg);
+        book.addOrder(limit);
+
+        PriceLevel level = book.getBestAskLevel();
+        assertEquals(scaled("15"), level.getDisplayedQuantity());
+        assertEquals(scaled("30"), level.getTotalQuantity());
+        assertEquals(scaled("10"), book.matchableQuantity(iceberg, scaled("12")));
+        assertEquals(scaled("25"), book.matchableQuantity(iceberg, scaled("30")));
+
+        // Exhausting the slice shows the next one behind the limit order
+        book.fillOrder(iceberg, scaled("10"), scaled("100"));
+        assertSame(limit, level.getHead());
+        assertSame(iceberg, level.getTail());
+        assertEquals(scaled("15"), level.getDisplayedQuantity());
+        assertEquals(scaled("20"), level.getTotalQuantity());
+
+        // Alone at the level, one fill can span slices
+        book.removeOrder(limit);
+        assertEquals(scaled("15"), book.matchableQuantity(iceberg, scaled("12")));
+        book.fillOrder(iceberg, scaled("12"), scaled("100"));
+        assertEquals(scaled("3"), iceberg.getDisplayedQuantity());
+        assertEquals(scaled("3"), level.getDisplayedQuantity());
+        assertEquals(scaled("3"), level.getTotalQuantity());
+    }
+
+    @Test
+    void canFillCountsHiddenQuantityOnCrossingLevels() {
+        OrderBook book = new OrderBook("AAPL");
+        book.addOrder(iceberg(1, "100", "25", "10"));
+        book.addOrder(order(2, OrderSide.SELL, "101", "5"));
+        book.addOrder(order(3, OrderSide.SELL, "103", "50"));
+
+        assertTrue(book.canFill(order(4, OrderSide.BUY, "100", "25")));
+        assertFalse(book.canFill(order(5, OrderSide.BUY, "100", "26")));
+        assertTrue(book.canFill(order(6, OrderSide.BUY, "102", "30")));
+        assertFalse(book.canFill(order(7, OrderSide.BUY, "102", "31")));
+        assertFalse(book.canFill(order(8, OrderSide.SELL, "99", "1")));
+        assertEquals(scaled("25"), book.getBestAskLevel().getTotalQuantity());
+    }
+
+    private static BookOrder iceberg(long orderId, String price, String quantity, String displayQuantity) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setSymbol("AAPL");
+        order.setSide(OrderSide.SELL);
+        order.setType(OrderType.ICEBERG);
+        order.setPrice(new BigDecimal(price));
+        order.setQuantity(new BigDecimal(quantity));
+        order.setDisplayQuantity(new BigDecimal(displayQuantity));
+        order.setStatus(OrderStatus.PENDING);
+        order.setTraderId("T1");
+        order.setTimestamp(LocalDateTime.now());
+        return new BookOrder(order);
+    }
+
+    private static BookOrder order(long orderId, OrderSide side, String price, String quantity) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setSymbol("AAPL");
+        order.setSide(side);
+        order.setType(OrderType.LIMIT);
+        order.setPrice(new BigDecimal(price));
+        order.setQuantity(new BigDecimal(quantity));
+        order.setStatus(OrderStatus.PENDING);
+        order.setTraderId("T1");
+        order.setTimestamp(LocalDateTime.now());
+        return new BookOrder(order);
+    }
+
+    private static BookOrder stop(long orderId, String price, String stopPrice, String quantity) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setSymbol("AAPL");
+        order.setSide(OrderSide.BUY);
+        order.setType(OrderType.STOP_LIMIT);
+        order.setPrice(new BigDecimal(price));
+        order.setStopPrice(new BigDecimal(stopPrice));
+        order.setQuantity(new BigDecimal(quantity));
+        order.setStatus(OrderStatus.PENDING);
+        order.setTraderId("T1");
+        order.setTimestamp(LocalDateTime.now());
+        return new BookOrder(order);
+    }
+
+    private static long scaled(String value) {
+        return FixedPoint.fromBigDecimal(new BigDecimal(value));
+    }
+}
@@ -0,0 +1,118 @@
+package com.trading.engine.model;
+
+import com.trading.engine.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderMatcherTest {
+
+    @Test
+    void recordsFillsAtRestingPricesAndRemovesFilledOrders() {
+        OrderBook book = new OrderBook("AAPL");
+        BookOrder first = order(1, "S1", OrderSide.SELL, "100", "5");
+        BookOrder second = order(2, "S2", OrderSide.SELL, "101", "5");
+        book.addOrder(first);
+        book.addOrder(second);
+
+        BookOrder buy = order(3, "B1", OrderSide.BUY, "102", "8");
+        OrderMatcher.match(book, buy, 42L);
+
+        FillLog fills = book.getFills();
+        assertEquals(2, fills.size());
+        assertSame(first, fills.get(0).getResting());
+        assertEquals(scaled("100"), fills.get(0).getPrice());
+        assertEquals(scaled("5"), fills.get(0).getQuantity());
+        assertEquals(3, fills.get(1).getBuyOrderId());
+        assertEquals("S2", fills.get(1).getSellTraderId());
+        assertEquals(scaled("101"), fills.get(1).getPrice());
+        assertEquals(scaled("3"), fills.get(1).getQuantity());
+        assertEquals(42L, fills.get(1).getTimestampNanos());
+
+        assertTrue(buy.isFilled());
+        assertNull(book.getOrder(1));
+        assertEquals(OrderStatus.PARTIALLY_FILLED, second.getStatus());
+        assertEquals(scaled("101"), book.getLastTradePrice());
+
+        fills.clear();
+        assertEquals(0, fills.size());
+    }
+
+    @Test
+    void pooledOrdersAreReusedAndBuildTheirEntityOnDemand() {
+        BookOrderPool pool = new BookOrderPool();
+        BookOrder order = order(pool, 7, "T1", OrderSide.BUY, "99.5", "10");
+        assertNull(order.getOrder());
+        assertEquals(new BigDecimal("99.5000"), order.toEntity().getPrice());
+        assertEquals("AAPL", order.toEntity().getSymbol());
+
+        pool.release(order);
+        assertEquals(1, pool.size());
+        assertNull(order.getOrder());
+        assertSame(order, pool.acquire());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void pooledCrossAtAnExistingLevelAllocatesNothing() {
+        // The loop OrderMatcherBenchmark runs, counted by the thread's allocation counter
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        BookOrderPool pool = new BookOrderPool();
+        OrderBook book = new OrderBook("AAPL");
+        for (int level = 0; level < 10; level++) {
+            book.addOrder(order(pool, 1_000 + level, "B1", OrderSide.BUY, String.valueOf(99 - level), "10"));
+            book.addOrder(order(pool, 2_000 + level, "S1", OrderSide.SELL, String.valueOf(100 + level), "10"));
+        }
+        long bestAsk = scaled("100");
+        long quantity = scaled("10");
+        long[] nextId = {10_000};
+        Runnable crossAtTouch = () -> {
+            book.addOrder(pool.acquire().init(++nextId[0], "AAPL", "S1", OrderSide.SELL, OrderType.LIMIT,
+                    bestAsk, 0, 0, quantity, nextId[0], TimeInForce.GTC, 0));
+            BookOrder buy = pool.acquire().init(++nextId[0], "AAPL", "B1", OrderSide.BUY, OrderType.LIMIT,
+                    bestAsk, 0, 0, quantity, nextId[0], TimeInForce.GTC, 0);
+            OrderMatcher.match(book, buy, nextId[0]);
+            pool.release(book.getFills().get(0).getResting());
+            pool.release(buy);
+            book.getFills().clear();
+            book.clearChangedLevels();
+        };
+        // Fills the pool and sizes the fill log, level queues and indexes
+        for (int i = 0; i < 1_000; i++) {
+            crossAtTouch.run();
+        }
+
+        int crosses = 100_000;
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < crosses; i++) {
+            crossAtTouch.run();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Any object per cross is at least 16 bytes; less than a byte per cross is JVM noise, as in -prof gc
+        assertTrue(allocated < crosses, allocated + " bytes allocated over " + crosses + " crosses");
+        assertEquals(20, book.getRestingOrderCount());
+        assertEquals(2, pool.size());
+    }
+
+    private static BookOrder order(long orderId, String traderId, OrderSide side, String price, String quantity) {
+        return order(new BookOrderPool(), orderId, traderId, side, price, quantity);
+    }
+
+    private static BookOrder order(BookOrderPool pool, long orderId, String traderId, OrderSide side,
+                                   String price, String quantity) {
+        return pool.acquire().init(orderId, "AAPL", traderId, side, OrderType.LIMIT,
+                scaled(price), 0, 0, scaled(quantity), orderId, TimeInForce.GTC, 0);
+    }
+
+    private static long scaled(String value) {
+        return FixedPoint.fromBigDecimal(new BigDecimal(value));
+    }
+}
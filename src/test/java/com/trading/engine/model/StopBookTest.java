@@ -0,0 +1,92 @@
+package com.trading.engine.model;
+
+import com.trading.engine.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StopBookTest {
+
+    @Test
+    void firesCrossedStopsInTriggerThenArrivalOrder() {
+        StopBook stops = new StopBook();
+        BookOrder buyHigh = stop(1, OrderSide.BUY, "105");
+        BookOrder buyLow = stop(2, OrderSide.BUY, "102");
+        BookOrder buyLowLater = stop(3, OrderSide.BUY, "102");
+        BookOrder sell = stop(4, OrderSide.SELL, "95");
+        stops.add(buyHigh);
+        stops.add(buyLow);
+        stops.add(buyLowLater);
+        stops.add(sell);
+
+        List<BookOrder> fired = new ArrayList<>();
+        stops.pollTriggered(scaled("101"), fired);
+        assertTrue(fired.isEmpty());
+
+        stops.pollTriggered(scaled("103"), fired);
+        assertEquals(List.of(buyLow, buyLowLater), fired);
+        assertNull(stops.get(2));
+        assertEquals(2, stops.size());
+
+        fired.clear();
+        stops.pollTriggered(scaled("95"), fired);
+        assertEquals(List.of(sell), fired);
+        assertSame(buyHigh, stops.get(1));
+    }
+
+    @Test
+    void cancelRemovesOnlyThatStop() {
+        StopBook stops = new StopBook();
+        BookOrder first = stop(1, OrderSide.SELL, "95");
+        BookOrder second = stop(2, OrderSide.SELL, "95");
+        stops.add(first);
+        stops.add(second);
+
+        assertSame(first, stops.cancel(1));
+        assertNull(stops.cancel(1));
+
+        List<BookOrder> fired = new ArrayList<>();
+        stops.pollTriggered(scaled("90"), fired);
+        assertEquals(List.of(second), fired);
+        assertEquals(0, stops.size());
+    }
+
+    @Test
+    void untradedBookFiresNothing() {
+        StopBook stops = new StopBook();
+        BookOrder sell = stop(1, OrderSide.SELL, "95");
+        stops.add(sell);
+
+        List<BookOrder> fired = new ArrayList<>();
+        stops.pollTriggered(0, fired);
+        assertTrue(fired.isEmpty());
+        assertEquals(false, StopBook.isTriggered(sell, 0));
+    }
+
+    private static BookOrder stop(long orderId, OrderSide side, String stopPrice) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setSymbol("AAPL");
+        order.setSide(side);
+        order.setType(OrderType.STOP_LIMIT);
+        order.setPrice(new BigDecimal(stopPrice));
+        order.setStopPrice(new BigDecimal(stopPrice));
+        order.setQuantity(BigDecimal.TEN);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTraderId("T1");
+        order.setTimestamp(LocalDateTime.now());
+        return new BookOrder(order);
+    }
+
+    private static long scaled(String value) {
+        return FixedPoint.fromBigDecimal(new BigDecimal(value));
+    }
+}
@@ -0,0 +1,110 @@
+package com.trading.engine.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final long START = 1_000_000 * MILLIS;
+
+    private long nextId = 1;
+
+    @Test
+    void ordersExpireOnTheirTickAtEveryLevel() {
+        TimingWheel wheel = new TimingWheel(START);
+        long[] offsets = {1, 63, 64, 65, 4_095, 4_096, 300_000, 20_000_000, 5_000_000_000L, 100_000_000_000L};
+        List<BookOrder> orders = new ArrayList<>();
+        for (long offset : offsets) {
+            BookOrder order = order(START + offset * MILLIS);
+            wheel.schedule(order);
+            orders.add(order);
+        }
+        assertEquals(offsets.length, wheel.size());
+
+        List<BookOrder> expired = new ArrayList<>();
+        for (int i = 0; i < offsets.length; i++) {
+            wheel.advance(START + offsets[i] * MILLIS - 1, expired);
+            assertTrue(expired.isEmpty(), "expired early at offset " + offsets[i]);
+            wheel.advance(START + offsets[i] * MILLIS, expired);
+            assertEquals(List.of(orders.get(i)), expired);
+            expired.clear();
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledOrdersDoNotExpire() {
+        TimingWheel wheel = new TimingWheel(START);
+        BookOrder kept = order(START + 10 * MILLIS);
+        BookOrder cancelled = order(START + 10 * MILLIS);
+        BookOrder noExpiry = order(0);
+        wheel.schedule(kept);
+        wheel.schedule(cancelled);
+        wheel.schedule(noExpiry);
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+        assertEquals(1, wheel.size());
+
+        // Already past when scheduled: due on the next tick
+        BookOrder late = order(START - 5 * MILLIS);
+        wheel.schedule(late);
+
+        List<BookOrder> expired = new ArrayList<>();
+        wheel.advance(START + MILLIS, expired);
+        assertEquals(List.of(late), expired);
+        expired.clear();
+        wheel.advance(START + 60 * MILLIS, expired);
+        assertEquals(List.of(kept), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void randomDeadlinesMatchASortedScan() {
+        Random random = new Random(7);
+        TimingWheel wheel = new TimingWheel(START);
+        List<BookOrder> pending = new ArrayList<>();
+        long now = START;
+        for (int round = 0; round < 2_000; round++) {
+            for (int i = random.nextInt(5); i > 0; i--) {
+                long horizon = random.nextBoolean() ? 1_000 : 100_000_000;
+                BookOrder order = order(now + (1 + (long) (random.nextDouble() * horizon)) * MILLIS);
+                wheel.schedule(order);
+                pending.add(order);
+            }
+            if (!pending.isEmpty() && random.nextInt(4) == 0) {
+                wheel.cancel(pending.remove(random.nextInt(pending.size())));
+            }
+            now += (long) (random.nextDouble() * (random.nextInt(10) == 0 ? 10_000_000 : 500)) * MILLIS;
+
+            List<BookOrder> expected = new ArrayList<>();
+            for (BookOrder order : pending) {
+                if (order.getExpireNanos() <= now) {
+                    expected.add(order);
+                }
+            }
+            pending.removeAll(expected);
+            expected.sort((a, b) -> Long.compare(a.getExpireNanos(), b.getExpireNanos()));
+
+            List<BookOrder> expired = new ArrayList<>();
+            wheel.advance(now, expired);
+            assertEquals(expected.size(), expired.size());
+            for (int i = 0; i < expired.size(); i++) {
+                assertEquals(expected.get(i).getExpireNanos(), expired.get(i).getExpireNanos());
+            }
+            assertEquals(pending.size(), wheel.size());
+        }
+    }
+
+    private BookOrder order(long expireNanos) {
+        long orderId = nextId++;
+        return new BookOrder().init(orderId, "AAPL", "T1", OrderSide.BUY, OrderType.LIMIT, 1, 0, 0, 1, orderId,
+                expireNanos > 0 ? TimeInForce.GTD : TimeInForce.GTC, expireNanos);
+    }
+}
@@ -0,0 +1,45 @@
+package com.trading.engine.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryCursorTest {
+
+    @Test
+    void decodesWhatItEncoded() {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2024, 1, 2, 9, 30, 15, 123_456_789), 42);
+        String token = cursor.encode();
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "not URL safe: " + token);
+        assertEquals(cursor, HistoryCursor.decode(token));
+
+        // Whole seconds print without a fraction and still round trip
+        HistoryCursor onTheSecond = new HistoryCursor(LocalDateTime.of(2024, 1, 2, 9, 30), Long.MAX_VALUE);
+        assertEquals(onTheSecond, HistoryCursor.decode(onTheSecond.encode()));
+    }
+
+    @Test
+    void noTokenStartsFromTheNewestRow() {
+        assertSame(HistoryCursor.START, HistoryCursor.decode(null));
+        assertSame(HistoryCursor.START, HistoryCursor.decode(""));
+    }
+
+    @Test
+    void rejectsATokenItDidNotProduce() {
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode("not a token"));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode("bm8tc2VwYXJhdG9y"));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(encode("2024-01-02T09:30|x")));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(encode("yesterday|1")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+}
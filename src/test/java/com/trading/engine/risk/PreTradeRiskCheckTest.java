@@ -0,0 +1,83 @@
+package com.trading.engine.risk;
+
+import com.trading.engine.model.BookOrder;
+import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderBook;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreTradeRiskCheckTest {
+
+    private long nextId = 1;
+
+    @Test
+    void rejectsOrdersOverNotionalAndOpenLimits() {
+        RiskProperties properties = new RiskProperties();
+        properties.getDefaults().setMaxOrderNotional(new BigDecimal("30000"));
+        properties.getDefaults().setMaxOpenQuantity(new BigDecimal("150"));
+        PreTradeRiskCheck riskCheck = new PreTradeRiskCheck(properties);
+        OrderBook book = new OrderBook("AAPL");
+
+        assertEquals(RiskRejection.ORDER_NOTIONAL,
+                riskCheck.checkNewOrder(order("T1", "100", "300.01"), book.getExposure("T1")));
+
+        BookOrder resting = order("T1", "100", "90");
+        assertNull(riskCheck.checkNewOrder(resting, book.getExposure("T1")));
+        book.addOrder(resting);
+        assertEquals(RiskRejection.OPEN_QUANTITY,
+                riskCheck.checkNewOrder(order("T1", "99", "61"), book.getExposure("T1")));
+        assertNull(riskCheck.checkNewOrder(order("T2", "99", "60"), book.getExposure("T2")));
+
+        // Fills release exposure
+        book.fillOrder(resting, scaled("40"), scaled("100"));
+        assertNull(riskCheck.checkNewOrder(order("T1", "99", "61"), book.getExposure("T1")));
+        assertEquals(RiskRejection.OPEN_QUANTITY,
+                riskCheck.checkAmend(resting, scaled("100"), scaled("201"), book.getExposure("T1")));
+    }
+
+    @Test
+    void overridesApplyPerTraderAndRateIsCounted() {
+        RiskProperties properties = new RiskProperties();
+        properties.getDefaults().setMaxOrdersPerSecond(1_000_000);
+        RiskProperties.Limits slow = new RiskProperties.Limits();
+        slow.setMaxOrdersPerSecond(2);
+        properties.getTraders().put("SLOW", slow);
+        PreTradeRiskCheck riskCheck = new PreTradeRiskCheck(properties);
+
+        int accepted = 0;
+        for (int i = 0; i < 5; i++) {
+            if (riskCheck.checkNewOrder(order("SLOW", "10", "1"), null) == null) {
+                accepted++;
+            }
+            assertNull(riskCheck.checkNewOrder(order("FAST", "10", "1"), null));
+        }
+        // The loop can straddle a second boundary, which opens one new window
+        assertTrue(accepted >= 2 && accepted < 5);
+    }
+
+    private BookOrder order(String traderId, String price, String quantity) {
+        Order order = new Order();
+        order.setOrderId(nextId++);
+        order.setSymbol("AAPL");
+        order.setSide(OrderSide.BUY);
+        order.setType(OrderType.LIMIT);
+        order.setPrice(new BigDecimal(price));
+        order.setQuantity(new BigDecimal(quantity));
+        order.setStatus(OrderStatus.PENDING);
+        order.setTraderId(traderId);
+        return new BookOrder(order);
+    }
+
+    private static long scaled(String value) {
+        return FixedPoint.fromBigDecimal(new BigDecimal(value));
+    }
+}
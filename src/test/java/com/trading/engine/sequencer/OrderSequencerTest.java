@@ -0,0 +1,181 @@
+package com.trading.engine.sequencer;
+
+import com.trading.engine.dto.OrderResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderSequencerTest {
+
+    private static final int PRODUCERS = 3;
+    private static final int COMMANDS_PER_PRODUCER = 20_000;
+
+    private final OrderSequencer sequencer = new OrderSequencer(4, 1024, command -> command.getTask().run(),
+            Map.of("HOT", 0), new int[0]);
+
+    @AfterEach
+    void tearDown() {
+        sequencer.shutdown();
+    }
+
+    @Test
+    void placesSymbolsByMappingThenHash() {
+        assertEquals(0, sequencer.getShardOf("HOT"));
+        assertEquals(Math.floorMod("AAPL".hashCode(), 4), sequencer.getShardOf("AAPL"));
+        assertEquals(Map.of("AAPL", sequencer.getShardOf("AAPL"), "HOT", 0), sequencer.getAssignments());
+    }
+
+    @Test
+    void concurrentSubmitsToOneSymbolApplyInPerProducerOrder() throws Exception {
+        // A small ring so producers wrap it many times over
+        List<Long> applied = new ArrayList<>();
+        OrderSequencer single = new OrderSequencer(1, 64, command -> {
+            if (command.getType() == CommandType.TASK) {
+                command.getTask().run();
+            } else {
+                applied.add(command.getOrderId());
+                command.getFuture().complete(null);
+            }
+        }, Map.of(), new int[0]);
+        try {
+            List<CompletableFuture<OrderResponse>> futures = new CopyOnWriteArrayList<>();
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                long base = (long) p * COMMANDS_PER_PRODUCER;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < COMMANDS_PER_PRODUCER; i++) {
+                        CompletableFuture<OrderResponse> future = single.submit("AAPL", CommandType.NEW, null, base + i);
+                        if (i == COMMANDS_PER_PRODUCER - 1) {
+                            futures.add(future);
+                        }
+                    }
+                });
+                producers.add(thread);
+                thread.start();
+            }
+            for (Thread thread : producers) {
+                thread.join();
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+            assertEquals(PRODUCERS, futures.size());
+
+            CountDownLatch drained = new CountDownLatch(1);
+            single.execute("AAPL", drained::countDown);
+            assertTrue(drained.await(10, TimeUnit.SECONDS));
+
+            assertEquals(PRODUCERS * COMMANDS_PER_PRODUCER, applied.size());
+            long[] next = new long[PRODUCERS];
+            for (long orderId : applied) {
+                int producer = (int) (orderId / COMMANDS_PER_PRODUCER);
+                assertEquals(next[producer]++, orderId % COMMANDS_PER_PRODUCER);
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void fullRingBufferHoldsProducersUntilTheShardCatchesUp() throws Exception {
+        OrderSequencer single = new OrderSequencer(1, 4, command -> command.getTask().run(), Map.of(), new int[0]);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            single.execute("AAPL", () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            List<Integer> applied = new ArrayList<>();
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 16; i++) {
+                    int value = i;
+                    single.execute("AAPL", () -> applied.add(value));
+                }
+            });
+            producer.start();
+
+            // Three free slots, then the producer waits in claim() for the stalled shard
+            producer.join(200);
+            assertTrue(producer.isAlive());
+
+            release.countDown();
+            producer.join(10_000);
+            assertFalse(producer.isAlive());
+
+            CountDownLatch drained = new CountDownLatch(1);
+            single.execute("AAPL", drained::countDown);
+            assertTrue(drained.await(10, TimeUnit.SECONDS));
+            assertEquals(16, applied.size());
+            for (int i = 0; i < applied.size(); i++) {
+                assertEquals(i, applied.get(i));
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void rebalanceKeepsPerProducerOrderAndASingleOwner() throws Exception {
+        // Touched only from the owning shard, so plain lists are enough if ownership holds
+        List<List<Integer>> seen = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            seen.add(new ArrayList<>());
+        }
+        AtomicBoolean inside = new AtomicBoolean();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(PRODUCERS);
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < COMMANDS_PER_PRODUCER; i++) {
+                    int value = i;
+                    sequencer.execute("HOT", () -> {
+                        if (!inside.compareAndSet(false, true)) {
+                            overlapped.set(true);
+                        }
+                        seen.get(producer).add(value);
+                        inside.set(false);
+                    });
+                }
+                sequencer.execute("HOT", done::countDown);
+            });
+            producers.add(thread);
+            thread.start();
+        }
+
+        int moves = 0;
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            sequencer.rebalance("HOT", ++moves % 4);
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        CountDownLatch drained = new CountDownLatch(1);
+        sequencer.execute("HOT", drained::countDown);
+        assertTrue(drained.await(10, TimeUnit.SECONDS));
+
+        assertFalse(overlapped.get());
+        assertEquals(moves % 4, sequencer.getShardOf("HOT"));
+        for (List<Integer> values : seen) {
+            assertEquals(COMMANDS_PER_PRODUCER, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                assertEquals(i, values.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.trading.engine.service;
+
+import com.trading.engine.dto.CursorPage;
+import com.trading.engine.dto.HistoryRow;
+import com.trading.engine.dto.OrderSummary;
+import com.trading.engine.dto.TradeSummary;
+import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.repository.OrderRepository;
+import com.trading.engine.repository.TradeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Walks every history listing page by page over rows whose timestamps tie across
+ * page boundaries. Rows are written with plain SQL, as write-behind does, so their
+ * timestamps are kept as given.
+ */
+@DataJpaTest
+class HistoryServiceTest {
+
+    private static final LocalDateTime OPEN = LocalDateTime.of(2024, 1, 2, 9, 30);
+    // Seconds after OPEN of each row in insertion order: ties, and inserts out of time order
+    private static final int[] SECONDS = {1, 0, 2, 1, 0, 2, 1, 0, 1};
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Never started; only its active order index is read
+    private final MatchingEngineService engine = new MatchingEngineService(null, null, null, null, null, null);
+    private final List<Row> rows = new ArrayList<>();
+    private HistoryService history;
+
+    @BeforeEach
+    void setUp() {
+        history = new HistoryService(orderRepository, tradeRepository, engine);
+    }
+
+    @Test
+    void orderPagesVisitEveryRowOnceWhenTimestampsTie() {
+        for (int i = 0; i < SECONDS.length; i++) {
+            insertOrder(100 + i, "AAPL", i % 2 == 0 ? "T1" : "T2", OPEN.plusSeconds(SECONDS[i]));
+            insertOrder(200 + i, "MSFT", "T1", OPEN.plusSeconds(SECONDS[i]));
+        }
+
+        assertEquals(newestFirst(row -> row.symbol().equals("AAPL")),
+                walk((cursor, limit) -> history.getOrdersBySymbol("AAPL", cursor, limit), OrderSummary::getOrderId));
+        assertEquals(newestFirst(row -> row.trader().equals("T1")),
+                walk((cursor, limit) -> history.getOrdersByTrader("T1", cursor, limit), OrderSummary::getOrderId));
+    }
+
+    @Test
+    void tradePagesVisitEveryRowOnceWhenTimestampsTie() {
+        String[][] counterparties = {{"A", "B"}, {"B", "A"}, {"A", "A"}, {"B", "C"}};
+        for (int i = 0; i < SECONDS.length; i++) {
+            String[] traders = counterparties[i % counterparties.length];
+            insertTrade(300 + i, i == 4 ? "MSFT" : "AAPL", traders[0], traders[1], OPEN.plusSeconds(SECONDS[i]));
+        }
+
+        assertEquals(newestFirst(row -> row.symbol().equals("AAPL")),
+                walk((cursor, limit) -> history.getTradesBySymbol("AAPL", cursor, limit), TradeSummary::getTradeId));
+        // Buy and sell sides are merged; a self-trade comes back once
+        assertEquals(newestFirst(row -> row.trader().equals("A") || row.seller().equals("A")),
+                walk((cursor, limit) -> history.getTradesByTrader("A", cursor, limit), TradeSummary::getTradeId));
+    }
+
+    @Test
+    void activeOrderPagesVisitEveryOrderOnceWhenTimestampsTie() {
+        for (int i = 0; i < SECONDS.length; i++) {
+            Order order = new Order();
+            order.setOrderId(400 + i);
+            order.setSymbol("AAPL");
+            order.setSide(OrderSide.BUY);
+            order.setType(OrderType.LIMIT);
+            order.setQuantity(BigDecimal.ONE);
+            order.setPrice(new BigDecimal("100"));
+            order.setTraderId(i % 3 == 0 ? "T1" : "T2");
+            order.setStatus(OrderStatus.PENDING);
+            order.setTimestamp(OPEN.plusSeconds(SECONDS[i]));
+            engine.getActiveOrders().update(order);
+            rows.add(new Row(order.getOrderId(), "AAPL", order.getTraderId(), null, order.getTimestamp(),
+                    rows.size()));
+        }
+
+        assertEquals(newestFirst(row -> true), walk((cursor, limit) ->
+                history.getActiveOrdersBySymbol("AAPL", cursor, limit), OrderSummary::getOrderId));
+        assertEquals(newestFirst(row -> row.trader().equals("T1")), walk((cursor, limit) ->
+                history.getActiveOrdersByTrader("T1", cursor, limit), OrderSummary::getOrderId));
+    }
+
+    // Follows nextCursor from the first page to the last, collecting each row's id
+    private static <T extends HistoryRow> List<Long> walk(BiFunction<String, Integer, CursorPage<T>> pages,
+                                                        Function<T, String> id) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<T> page = pages.apply(cursor, PAGE_SIZE);
+            assertTrue(page.getItems().size() <= PAGE_SIZE);
+            assertFalse(page.getItems().isEmpty() && page.getNextCursor() != null);
+            page.getItems().forEach(row -> ids.add(Long.parseLong(id.apply(row))));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    // Expected listing: newest first, later inserts (higher row ids) first within a timestamp
+    private List<Long> newestFirst(Predicate<Row> filter) {
+        return rows.stream()
+                .filter(filter)
+                .sorted(Comparator.comparing(Row::timestamp).thenComparingInt(Row::sequence).reversed())
+                .map(Row::id)
+                .toList();
+    }
+
+    private void insertOrder(long orderId, String symbol, String traderId, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO orders (order_id, symbol, side, type, quantity, price, time_in_force, " +
+                        "status, trader_id, timestamp, filled_quantity, average_price) " +
+                        "VALUES (?, ?, 'BUY', 'LIMIT', 1, 100, 'GTC', 'FILLED', ?, ?, 1, 100)",
+                orderId, symbol, traderId, Timestamp.valueOf(timestamp));
+        rows.add(new Row(orderId, symbol, traderId, null, timestamp, rows.size()));
+    }
+
+    private void insertTrade(long tradeId, String symbol, String buyTraderId, String sellTraderId,
+                             LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO trades (trade_id, symbol, quantity, price, buy_order_id, sell_order_id, " +
+                        "buy_trader_id, sell_trader_id, timestamp, total_value) " +
+                        "VALUES (?, ?, 1, 100, 1, 2, ?, ?, ?, 100)",
+                tradeId, symbol, buyTraderId, sellTraderId, Timestamp.valueOf(timestamp));
+        rows.add(new Row(tradeId, symbol, buyTraderId, sellTraderId, timestamp, rows.size()));
+    }
+
+    // The trader of an order, or the buyer of a trade; sequence follows the database key
+    private record Row(long id, String symbol, String trader, String seller, LocalDateTime timestamp, int sequence) {
+    }
+}
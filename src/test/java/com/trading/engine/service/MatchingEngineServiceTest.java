@@ -0,0 +1,260 @@
+package com.trading.engine.service;
+
+import com.trading.engine.candles.CandleAggregator;
+import com.trading.engine.dto.BookDelta;
+import com.trading.engine.dto.BookSnapshot;
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.dto.DepthLevel;
+import com.trading.engine.dto.OrderResponse;
+import com.trading.engine.dto.TradePrint;
+import com.trading.engine.metrics.EngineMetrics;
+import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.TimeInForce;
+import com.trading.engine.model.Trade;
+import com.trading.engine.risk.PreTradeRiskCheck;
+import com.trading.engine.risk.RiskProperties;
+import com.trading.engine.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A real engine on one shard, with write-behind replaced by a recorder and market
+ * data switched off.
+ */
+class MatchingEngineServiceTest {
+
+    private final IdGenerator ids = new IdGenerator(0);
+    // Latest snapshot of every order the engine handed to persistence
+    private final Map<Long, Order> persisted = new ConcurrentHashMap<>();
+    private final List<Trade> trades = new CopyOnWriteArrayList<>();
+    private MatchingEngineService engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = startEngine(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+    }
+
+    @Test
+    void cancelTakesARestingOrderOutOfTheBookAndTheIndex() throws Exception {
+        OrderResponse first = place(OrderSide.SELL, OrderType.LIMIT, "10", "150", null, null);
+        OrderResponse second = place(OrderSide.SELL, OrderType.LIMIT, "5", "150", null, null);
+        long firstId = IdGenerator.parse(first.getOrderId());
+        assertEquals(firstId, engine.getActiveOrders().get(firstId).getOrderId());
+
+        OrderResponse cancelled = cancel(firstId);
+        assertTrue(cancelled.isSuccess());
+        assertEquals(OrderStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(OrderStatus.CANCELLED, persisted.get(firstId).getStatus());
+        assertNull(engine.getActiveOrders().get(firstId));
+
+        // The level keeps only the other order, which now trades first
+        BookSnapshot book = snapshot();
+        assertEquals(1, book.getAsks().size());
+        assertEquals(1, book.getAsks().get(0).getOrderCount());
+        assertEquals(new BigDecimal("5.0000"), book.getAsks().get(0).getQuantity());
+
+        place(OrderSide.BUY, OrderType.LIMIT, "5", "150", null, null);
+        assertEquals(1, trades.size());
+        assertEquals(IdGenerator.parse(second.getOrderId()), trades.get(0).getSellOrderId());
+
+        OrderResponse again = cancel(firstId);
+        assertFalse(again.isSuccess());
+        assertEquals("Order is not active", again.getMessage());
+    }
+
+    @Test
+    void cancelRemovesAnIcebergWithItsHiddenReserve() throws Exception {
+        OrderResponse iceberg = place(OrderSide.SELL, OrderType.ICEBERG, "10", "150", null, "2");
+        long icebergId = IdGenerator.parse(iceberg.getOrderId());
+        // More than one slice, so part of the reserve has been shown and taken
+        assertEquals(OrderStatus.FILLED, place(OrderSide.BUY, OrderType.LIMIT, "3", "150", null, null).getStatus());
+        int traded = trades.size();
+
+        OrderResponse cancelled = cancel(icebergId);
+        assertTrue(cancelled.isSuccess());
+        assertEquals(OrderStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(new BigDecimal("3.0000"), cancelled.getFilledQuantity());
+        assertTrue(snapshot().getAsks().isEmpty());
+
+        // Nothing of the reserve is left to trade against
+        OrderResponse buy = place(OrderSide.BUY, OrderType.LIMIT, "5", "150", null, null);
+        assertEquals(OrderStatus.PENDING, buy.getStatus());
+        assertEquals(traded, trades.size());
+    }
+
+    @Test
+    void cancelRemovesAWaitingStopSoItNeverFires() throws Exception {
+        OrderResponse stop = place(OrderSide.BUY, OrderType.STOP, "4", "155", "151", null);
+        long stopId = IdGenerator.parse(stop.getOrderId());
+        assertEquals(OrderStatus.PENDING, stop.getStatus());
+        assertEquals(stopId, engine.getActiveOrders().get(stopId).getOrderId());
+
+        OrderResponse cancelled = cancel(stopId);
+        assertTrue(cancelled.isSuccess());
+        assertEquals(OrderStatus.CANCELLED, cancelled.getStatus());
+        assertNull(engine.getActiveOrders().get(stopId));
+
+        // Trading through the trigger leaves the cancelled stop alone
+        place(OrderSide.SELL, OrderType.LIMIT, "10", "152", null, null);
+        place(OrderSide.BUY, OrderType.LIMIT, "1", "152", null, null);
+        assertEquals(1, trades.size());
+        assertEquals(OrderStatus.CANCELLED, persisted.get(stopId).getStatus());
+        assertEquals(new BigDecimal("9.0000"), snapshot().getAsks().get(0).getQuantity());
+    }
+
+    @Test
+    void cancelOfAnUnknownOrderOrSymbolFails() throws Exception {
+        place(OrderSide.SELL, OrderType.LIMIT, "10", "150", null, null);
+        long filled = IdGenerator.parse(place(OrderSide.BUY, OrderType.LIMIT, "2", "150", null, null).getOrderId());
+        long sequence = snapshot().getSequence();
+
+        OrderResponse unknownOrder = cancel(ids.nextId());
+        assertFalse(unknownOrder.isSuccess());
+        assertEquals("Order is not active", unknownOrder.getMessage());
+        assertFalse(cancel(filled).isSuccess());
+        assertFalse(engine.amendOrder("AAPL", filled, new BigDecimal("150"), new BigDecimal("3"))
+                .get(5, TimeUnit.SECONDS).isSuccess());
+
+        OrderResponse unknownSymbol = engine.cancelOrder("MSFT", 1).get(5, TimeUnit.SECONDS);
+        assertFalse(unknownSymbol.isSuccess());
+        assertEquals(1, snapshot().getAsks().size());
+        // Nothing was journaled, so the book's sequence and its deltas have no gap
+        assertEquals(sequence, snapshot().getSequence());
+    }
+
+    @Test
+    void restartRecoversFromTheSnapshotAndTheJournalTail(@TempDir Path journalDirectory) throws Exception {
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+        engine = startEngine(journalDirectory);
+        long resting = IdGenerator.parse(place(OrderSide.SELL, OrderType.LIMIT, "10", "150", null, null).getOrderId());
+        long iceberg = IdGenerator.parse(place(OrderSide.SELL, OrderType.ICEBERG, "10", "151", null, "2").getOrderId());
+        long stop = IdGenerator.parse(place(OrderSide.BUY, OrderType.STOP, "4", "155", "152", null).getOrderId());
+        place(OrderSide.BUY, OrderType.LIMIT, "3", "150", null, null);
+        engine.takeSnapshot();
+
+        // The tail: one of each command after the snapshot
+        long amended = IdGenerator.parse(place(OrderSide.SELL, OrderType.LIMIT, "5", "153", null, null).getOrderId());
+        assertTrue(engine.amendOrder("AAPL", amended, new BigDecimal("154"), new BigDecimal("4"))
+                .get(5, TimeUnit.SECONDS).isSuccess());
+        assertTrue(cancel(iceberg).isSuccess());
+        place(OrderSide.BUY, OrderType.LIMIT, "1", "150", null, null);
+        long bid = IdGenerator.parse(place(OrderSide.BUY, OrderType.LIMIT, "2", "149", null, null).getOrderId());
+        BookSnapshot before = snapshot();
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+
+        engine = startEngine(journalDirectory);
+        BookSnapshot after = snapshot();
+        assertEquals(before.getSequence(), after.getSequence());
+        assertEquals(levels(before.getBids()), levels(after.getBids()));
+        assertEquals(levels(before.getAsks()), levels(after.getAsks()));
+
+        assertEquals(new BigDecimal("4.0000"), engine.getActiveOrders().get(resting).getFilledQuantity());
+        assertEquals(new BigDecimal("154.0000"), engine.getActiveOrders().get(amended).getPrice());
+        assertEquals(OrderType.STOP, engine.getActiveOrders().get(stop).getType());
+        assertEquals(bid, engine.getActiveOrders().get(bid).getOrderId());
+        assertNull(engine.getActiveOrders().get(iceberg));
+        assertEquals(4, engine.getActiveOrders().size());
+    }
+
+    // Journals to the directory and recovers from it when given one, otherwise runs without a journal
+    private MatchingEngineService startEngine(Path journalDirectory) {
+        EngineMetrics metrics = new EngineMetrics(new SimpleMeterRegistry());
+        OrderPersistenceService persistence = new OrderPersistenceService(null, null, metrics) {
+            @Override
+            public void persist(List<Order> orders, List<Trade> executed) {
+                orders.forEach(order -> persisted.put(order.getOrderId(), order));
+                trades.addAll(executed);
+            }
+        };
+        MarketDataPublisher publisher = new MarketDataPublisher(null) {
+            @Override
+            public void publishBook(BookDelta delta) {
+            }
+
+            @Override
+            public void publishTrades(String symbol, List<TradePrint> prints) {
+            }
+
+            @Override
+            public void publishCandles(String symbol, Supplier<CandleSnapshot> snapshot) {
+            }
+        };
+        MatchingEngineService started = new MatchingEngineService(persistence, publisher,
+                new CandleAggregator(publisher, 16), new PreTradeRiskCheck(new RiskProperties()), metrics, ids);
+        ReflectionTestUtils.setField(started, "ringBufferSize", 1024);
+        ReflectionTestUtils.setField(started, "shardCount", 1);
+        ReflectionTestUtils.setField(started, "shardMapping", "");
+        ReflectionTestUtils.setField(started, "shardCpus", "");
+        if (journalDirectory != null) {
+            ReflectionTestUtils.setField(started, "journalEnabled", true);
+            ReflectionTestUtils.setField(started, "journalDirectory", journalDirectory.toString());
+            ReflectionTestUtils.setField(started, "journalSegmentSizeMb", 1);
+        }
+        ReflectionTestUtils.invokeMethod(started, "start");
+        return started;
+    }
+
+    private OrderResponse place(OrderSide side, OrderType type, String quantity, String price, String stopPrice,
+                                String displayQuantity) throws Exception {
+        return engine.processOrder(order(side, type, quantity, price, stopPrice, displayQuantity))
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    private Order order(OrderSide side, OrderType type, String quantity, String price, String stopPrice,
+                        String displayQuantity) {
+        Order order = new Order();
+        order.setOrderId(ids.nextId());
+        order.setSymbol("AAPL");
+        order.setSide(side);
+        order.setType(type);
+        order.setQuantity(new BigDecimal(quantity));
+        order.setPrice(new BigDecimal(price));
+        order.setStopPrice(stopPrice != null ? new BigDecimal(stopPrice) : null);
+        order.setDisplayQuantity(displayQuantity != null ? new BigDecimal(displayQuantity) : null);
+        order.setTimeInForce(TimeInForce.GTC);
+        order.setTraderId(side == OrderSide.BUY ? "B1" : "S1");
+        order.setStatus(OrderStatus.PENDING);
+        order.setTimestamp(LocalDateTime.now());
+        return order;
+    }
+
+    private OrderResponse cancel(long orderId) throws Exception {
+        return engine.cancelOrder("AAPL", orderId).get(5, TimeUnit.SECONDS);
+    }
+
+    private BookSnapshot snapshot() throws Exception {
+        return engine.getBookSnapshot("AAPL").get(5, TimeUnit.SECONDS);
+    }
+
+    private static List<String> levels(List<DepthLevel> side) {
+        return side.stream().map(level -> level.getQuantity() + " @ " + level.getPrice() + " x" + level.getOrderCount())
+                .toList();
+    }
+}
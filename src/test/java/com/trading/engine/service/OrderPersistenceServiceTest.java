@@ -0,0 +1,246 @@
+package com.trading.engine.service;
+
+import com.trading.engine.metrics.EngineMetrics;
+import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.Trade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Write-behind against a JdbcTemplate that records the rows of each batch instead
+ * of running SQL.
+ */
+class OrderPersistenceServiceTest {
+
+    private static final long NEVER = TimeUnit.MINUTES.toMillis(10);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+    private OrderPersistenceService persistence;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        jdbc.release();
+        persistence.shutdown();
+    }
+
+    @Test
+    void coalescesSnapshotsByOrderIdAndFlushesThemOnShutdown() throws Exception {
+        start(1_000, NEVER, 100_000);
+        persistence.persist(List.of(order(1, OrderStatus.PENDING)), List.of());
+        persistence.persist(List.of(order(1, OrderStatus.PARTIALLY_FILLED), order(2, OrderStatus.PENDING)),
+                List.of(trade(1)));
+        Order latest = order(1, OrderStatus.FILLED);
+        persistence.persist(List.of(latest), List.of(trade(2)));
+
+        assertEquals(4, persistence.getPendingCount());
+        assertSame(latest, persistence.findPendingOrder(1));
+        assertTrue(jdbc.orders.isEmpty());
+
+        persistence.shutdown();
+        assertEquals(2, jdbc.orders.size());
+        assertSame(latest, jdbc.orders.stream().filter(order -> order.getOrderId() == 1).findFirst().orElseThrow());
+        assertEquals(List.of(1L, 2L), tradeIds());
+        assertEquals(0, persistence.getPendingCount());
+        assertNull(persistence.findPendingOrder(1));
+    }
+
+    @Test
+    void flushesAsSoonAsTheBatchSizeIsReached() throws Exception {
+        start(10, NEVER, 100_000);
+        for (long id = 1; id <= 9; id++) {
+            persistence.persist(List.of(), List.of(trade(id)));
+        }
+        Thread.sleep(100);
+        assertTrue(jdbc.trades.isEmpty());
+
+        persistence.persist(List.of(), List.of(trade(10)));
+        await(() -> jdbc.trades.size() == 10);
+        assertEquals(0, persistence.getPendingCount());
+    }
+
+    @Test
+    void flushesASmallBacklogOnceTheIntervalElapses() throws Exception {
+        start(1_000, 20, 100_000);
+        persistence.persist(List.of(order(1, OrderStatus.PENDING)), List.of());
+        await(() -> jdbc.orders.size() == 1);
+        assertEquals(0, persistence.getPendingCount());
+    }
+
+    @Test
+    void backpressureHoldsWritersUntilTheFlusherCatchesUp() throws Exception {
+        jdbc.hold();
+        start(1_000, 10, 4);
+        for (long id = 1; id <= 4; id++) {
+            persistence.persist(List.of(), List.of(trade(id)));
+        }
+
+        Thread writer = new Thread(() -> persistence.persist(List.of(), List.of(trade(5))));
+        writer.start();
+        writer.join(200);
+        assertTrue(writer.isAlive());
+
+        jdbc.release();
+        writer.join(5_000);
+        assertFalse(writer.isAlive());
+        await(() -> jdbc.trades.size() == 5);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), tradeIds());
+    }
+
+    @Test
+    void aRowThatKeepsFailingIsDroppedAndTheRestAreWritten() throws Exception {
+        jdbc.rejecting = row -> row instanceof Order order && order.getOrderId() == 13;
+        start(1_000, 10, 100_000);
+        persistence.persist(List.of(order(11, OrderStatus.PENDING), order(12, OrderStatus.PENDING),
+                order(13, OrderStatus.PENDING)), List.of(trade(1), trade(2)));
+
+        await(() -> persistence.getPendingCount() == 0);
+        assertEquals(List.of(11L, 12L), jdbc.orders.stream().map(Order::getOrderId).sorted().toList());
+        assertEquals(List.of(1L, 2L), tradeIds());
+        assertEquals(1.0, registry.counter("engine.persistence.dropped", "kind", "orders").count());
+
+        // Later rows are not held up
+        persistence.persist(List.of(order(14, OrderStatus.PENDING)), List.of());
+        await(() -> jdbc.orders.size() == 3);
+    }
+
+    @Test
+    void tradesOfAFailedBatchAreWrittenBeforeNewerOnes() throws Exception {
+        jdbc.unavailableBatches.set(5); // More than max-attempts: an outage never drops rows
+        start(2, 10, 100_000);
+        for (long id = 1; id <= 7; id++) {
+            persistence.persist(List.of(), List.of(trade(id)));
+            Thread.sleep(5);
+        }
+
+        await(() -> persistence.getPendingCount() == 0);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), tradeIds());
+        assertEquals(0.0, registry.counter("engine.persistence.dropped", "kind", "trades").count());
+    }
+
+    private void start(int batchSize, long flushIntervalMs, int maxPending) {
+        persistence = new OrderPersistenceService(jdbc, new NoTransactionManager(), new EngineMetrics(registry));
+        ReflectionTestUtils.setField(persistence, "batchSize", batchSize);
+        ReflectionTestUtils.setField(persistence, "flushIntervalMs", flushIntervalMs);
+        ReflectionTestUtils.setField(persistence, "maxPending", maxPending);
+        ReflectionTestUtils.setField(persistence, "maxAttempts", 3);
+        ReflectionTestUtils.invokeMethod(persistence, "start");
+    }
+
+    private List<Long> tradeIds() {
+        return jdbc.trades.stream().map(Trade::getTradeId).toList();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    private static Order order(long orderId, OrderStatus status) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setSymbol("AAPL");
+        order.setStatus(status);
+        return order;
+    }
+
+    private static Trade trade(long tradeId) {
+        Trade trade = new Trade();
+        trade.setTradeId(tradeId);
+        trade.setSymbol("AAPL");
+        return trade;
+    }
+
+    /**
+     * Keeps the rows of every batch that succeeds. A batch fails if it holds a
+     * rejected row, or while the database is made unavailable.
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        final List<Order> orders = new CopyOnWriteArrayList<>();
+        final List<Trade> trades = new CopyOnWriteArrayList<>();
+        final AtomicInteger unavailableBatches = new AtomicInteger();
+        volatile Predicate<Object> rejecting = row -> false;
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        // Blocks batches until release(), like a stalled database
+        void hold() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (unavailableBatches.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new TransientDataAccessResourceException("Database unavailable");
+            }
+            for (T row : batchArgs) {
+                if (rejecting.test(row)) {
+                    throw new DataIntegrityViolationException("Rejected " + row);
+                }
+            }
+            for (T row : batchArgs) {
+                if (row instanceof Order order) {
+                    orders.add(order);
+                } else {
+                    trades.add((Trade) row);
+                }
+            }
+            return new int[0][];
+        }
+    }
+
+    private static class NoTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
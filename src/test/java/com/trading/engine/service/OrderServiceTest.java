@@ -0,0 +1,182 @@
+package com.trading.engine.service;
+
+import com.trading.engine.candles.CandleAggregator;
+import com.trading.engine.dto.BatchOrderRequest;
+import com.trading.engine.dto.BatchOrderResponse;
+import com.trading.engine.dto.BookDelta;
+import com.trading.engine.dto.CandleSnapshot;
+import com.trading.engine.dto.OrderRequest;
+import com.trading.engine.dto.OrderResponse;
+import com.trading.engine.dto.TradePrint;
+import com.trading.engine.metrics.EngineMetrics;
+import com.trading.engine.model.Order;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderStatus;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.Trade;
+import com.trading.engine.risk.PreTradeRiskCheck;
+import com.trading.engine.risk.RiskProperties;
+import com.trading.engine.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Batches through OrderService into a real engine on two shards, with write-behind
+ * replaced by a recorder and market data switched off.
+ */
+class OrderServiceTest {
+
+    private final List<Trade> trades = new CopyOnWriteArrayList<>();
+    private MatchingEngineService engine;
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        EngineMetrics metrics = new EngineMetrics(new SimpleMeterRegistry());
+        OrderPersistenceService persistence = new OrderPersistenceService(null, null, metrics) {
+            @Override
+            public void persist(List<Order> orders, List<Trade> executed) {
+                trades.addAll(executed);
+            }
+
+            @Override
+            public Order findPendingOrder(long orderId) {
+                return null;
+            }
+        };
+        MarketDataPublisher publisher = new MarketDataPublisher(null) {
+            @Override
+            public void publishBook(BookDelta delta) {
+            }
+
+            @Override
+            public void publishTrades(String symbol, List<TradePrint> prints) {
+            }
+
+            @Override
+            public void publishCandles(String symbol, Supplier<CandleSnapshot> snapshot) {
+            }
+        };
+        IdGenerator ids = new IdGenerator(0);
+        engine = new MatchingEngineService(persistence, publisher, new CandleAggregator(publisher, 16),
+                new PreTradeRiskCheck(new RiskProperties()), metrics, ids);
+        ReflectionTestUtils.setField(engine, "ringBufferSize", 1024);
+        ReflectionTestUtils.setField(engine, "shardCount", 2);
+        ReflectionTestUtils.setField(engine, "shardMapping", "");
+        ReflectionTestUtils.setField(engine, "shardCpus", "");
+        ReflectionTestUtils.invokeMethod(engine, "start");
+        // Ids that are not active or pending never reach the repository in these tests
+        orderService = new OrderService(null, engine, persistence, ids);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+    }
+
+    @Test
+    void cancelsRunBeforeNewOrdersOfTheSameSymbol() throws Exception {
+        String resting = place(request("AAPL", OrderSide.SELL, "5", "150")).getOrderId();
+
+        // Had the buy run first it would have traded with the resting sell
+        BatchOrderResponse response = batch(List.of(resting), List.of(request("AAPL", OrderSide.BUY, "5", "150")));
+
+        assertTrue(response.getCancels().get(0).isSuccess());
+        assertEquals(OrderStatus.CANCELLED, response.getCancels().get(0).getStatus());
+        assertEquals(OrderStatus.PENDING, response.getOrders().get(0).getStatus());
+        assertTrue(trades.isEmpty());
+    }
+
+    @Test
+    void resultsComeBackInRequestOrder() throws Exception {
+        String aapl = place(request("AAPL", OrderSide.SELL, "5", "150")).getOrderId();
+        String msft = place(request("MSFT", OrderSide.SELL, "5", "300")).getOrderId();
+
+        List<OrderRequest> orders = List.of(
+                request("MSFT", OrderSide.BUY, "1", "290"),
+                request("AAPL", OrderSide.BUY, "2", "140"),
+                request("GOOG", OrderSide.SELL, "3", "100"),
+                request("AAPL", OrderSide.SELL, "4", "160"),
+                request("MSFT", OrderSide.SELL, "5", "310"));
+        BatchOrderResponse response = batch(List.of(msft, "unknown", aapl), orders);
+
+        assertEquals(3, response.getCancels().size());
+        assertTrue(response.getCancels().get(0).isSuccess());
+        assertEquals(msft, response.getCancels().get(0).getOrderId());
+        assertFalse(response.getCancels().get(1).isSuccess());
+        assertEquals("Order not found", response.getCancels().get(1).getMessage());
+        assertTrue(response.getCancels().get(2).isSuccess());
+        assertEquals(aapl, response.getCancels().get(2).getOrderId());
+
+        assertEquals(orders.size(), response.getOrders().size());
+        for (int i = 0; i < orders.size(); i++) {
+            OrderResponse result = response.getOrders().get(i);
+            assertTrue(result.isSuccess());
+            assertEquals(orders.get(i).getSymbol(), result.getSymbol());
+            assertEquals(orders.get(i).getSide().name(), result.getSide());
+            assertEquals(0, orders.get(i).getQuantity().compareTo(result.getQuantity()));
+        }
+    }
+
+    @Test
+    void aBadItemFailsInItsOwnSlotOnly() throws Exception {
+        OrderRequest unbuildable = request(null, OrderSide.BUY, "1", "150");
+        OrderRequest invalid = request("AAPL", OrderSide.BUY, "-1", "150");
+        List<OrderRequest> orders = List.of(
+                request("AAPL", OrderSide.SELL, "3", "150"),
+                unbuildable,
+                invalid,
+                request("AAPL", OrderSide.BUY, "2", "150"));
+
+        BatchOrderResponse response = batch(List.of("not-an-id"), orders);
+
+        assertFalse(response.getCancels().get(0).isSuccess());
+        assertTrue(response.getOrders().get(0).isSuccess());
+        assertFalse(response.getOrders().get(1).isSuccess());
+        assertTrue(response.getOrders().get(1).getMessage().startsWith("Error placing order"));
+        assertFalse(response.getOrders().get(2).isSuccess());
+        assertEquals("Invalid order parameters", response.getOrders().get(2).getMessage());
+        assertTrue(response.getOrders().get(3).isSuccess());
+
+        // The good items still traded with each other
+        assertEquals(OrderStatus.FILLED, response.getOrders().get(3).getStatus());
+        assertEquals(1, trades.size());
+    }
+
+    private BatchOrderResponse batch(List<String> cancels, List<OrderRequest> orders) throws Exception {
+        BatchOrderRequest request = new BatchOrderRequest();
+        request.setCancels(cancels);
+        request.setOrders(orders);
+        return orderService.placeBatch(request).get(5, TimeUnit.SECONDS);
+    }
+
+    private OrderResponse place(OrderRequest request) throws Exception {
+        OrderResponse response = orderService.placeOrder(request).get(5, TimeUnit.SECONDS);
+        assertTrue(response.isSuccess());
+        return response;
+    }
+
+    private static OrderRequest request(String symbol, OrderSide side, String quantity, String price) {
+        OrderRequest request = new OrderRequest();
+        request.setSymbol(symbol);
+        request.setSide(side);
+        request.setType(OrderType.LIMIT);
+        request.setQuantity(new BigDecimal(quantity));
+        request.setPrice(new BigDecimal(price));
+        request.setTraderId(side == OrderSide.BUY ? "B1" : "S1");
+        return request;
+    }
+}
@@ -0,0 +1,151 @@
+package com.trading.engine.util;
+
+import com.trading.engine.model.BookOrder;
+import com.trading.engine.model.Fill;
+import com.trading.engine.model.FillLog;
+import com.trading.engine.model.OrderBook;
+import com.trading.engine.model.OrderMatcher;
+import com.trading.engine.model.OrderSide;
+import com.trading.engine.model.OrderType;
+import com.trading.engine.model.TimeInForce;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixedPointTest {
+
+    @Test
+    void roundTripsColumnScaleValues() {
+        assertEquals(1_502_500L, FixedPoint.fromBigDecimal(new BigDecimal("150.25")));
+        assertEquals(new BigDecimal("150.2500"), FixedPoint.toBigDecimal(1_502_500L));
+        assertEquals(1L, FixedPoint.fromBigDecimal(new BigDecimal("0.0001")));
+        assertEquals(1L, FixedPoint.fromBigDecimal(new BigDecimal("0.00005")));
+    }
+
+    @Test
+    void rejectsValuesOutsideLongRange() {
+        assertThrows(ArithmeticException.class,
+                () -> FixedPoint.fromBigDecimal(new BigDecimal("1000000000000000")));
+    }
+
+    @Test
+    void weightedAverageMatchesBigDecimalPath() {
+        Random random = new Random(42);
+        for (int order = 0; order < 10_000; order++) {
+            BigDecimal quantity = randomDecimal(random, 1_000_000);
+            BigDecimal filled = BigDecimal.ZERO;
+            BigDecimal average = BigDecimal.ZERO;
+            long scaledFilled = 0;
+            long scaledAverage = 0;
+
+            while (filled.compareTo(quantity) < 0) {
+                BigDecimal tradeQuantity = randomDecimal(random, 50_000).min(quantity.subtract(filled));
+                BigDecimal tradePrice = randomDecimal(random, 5_000);
+
+                // Reference: the BigDecimal arithmetic previously used by MatchingEngineService
+                BigDecimal newFilled = filled.add(tradeQuantity);
+                average = average.multiply(filled).add(tradeQuantity.multiply(tradePrice))
+                        .divide(newFilled, 4, RoundingMode.HALF_UP);
+                filled = newFilled;
+
+                scaledAverage = FixedPoint.weightedAverage(scaledAverage, scaledFilled,
+                        FixedPoint.fromBigDecimal(tradeQuantity), FixedPoint.fromBigDecimal(tradePrice));
+                scaledFilled += FixedPoint.fromBigDecimal(tradeQuantity);
+
+                assertEquals(average, FixedPoint.toBigDecimal(scaledAverage));
+                assertEquals(filled.setScale(4), FixedPoint.toBigDecimal(scaledFilled));
+            }
+        }
+    }
+
+    @Test
+    void weightedAverageFallsBackOnOverflow() {
+        long price = FixedPoint.fromBigDecimal(new BigDecimal("900000"));
+        long quantity = FixedPoint.fromBigDecimal(new BigDecimal("90000000"));
+
+        BigDecimal expected = new BigDecimal("900000").multiply(new BigDecimal("90000000"))
+                .multiply(BigDecimal.valueOf(2))
+                .divide(new BigDecimal("180000000"), 4, RoundingMode.HALF_UP);
+
+        long average = FixedPoint.weightedAverage(price, quantity, quantity, price);
+        assertEquals(expected, FixedPoint.toBigDecimal(average));
+    }
+
+    @Test
+    void multiplyRoundsToColumnScale() {
+        assertEquals(new BigDecimal("1.5216"), FixedPoint.toBigDecimal(FixedPoint.multiply(
+                FixedPoint.fromBigDecimal(new BigDecimal("1.2345")), FixedPoint.fromBigDecimal(new BigDecimal("1.2326")))));
+        // 900000 * 90000000 overflows the scale-8 intermediate
+        assertEquals(new BigDecimal("81000000000000.0000"), FixedPoint.toBigDecimal(FixedPoint.multiply(
+                FixedPoint.fromBigDecimal(new BigDecimal("900000")), FixedPoint.fromBigDecimal(new BigDecimal("90000000")))));
+    }
+
+    @Test
+    void matcherFillsAgreeWithBigDecimalArithmetic() {
+        Random random = new Random(11);
+        OrderBook book = new OrderBook("AAPL");
+        Map<Long, BigDecimal[]> reference = new HashMap<>(); // orderId -> {price, quantity, filled, average}
+        int fillCount = 0;
+
+        for (long orderId = 1; orderId <= 5_000; orderId++) {
+            OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+            BigDecimal price = new BigDecimal("100").add(BigDecimal.valueOf(random.nextInt(40_000) - 20_000, 4));
+            BigDecimal quantity = BigDecimal.valueOf(1 + random.nextInt(500_000), 4);
+            reference.put(orderId, new BigDecimal[]{price, quantity, BigDecimal.ZERO, BigDecimal.ZERO});
+
+            BookOrder incoming = new BookOrder().init(orderId, "AAPL", "T" + (orderId % 7), side, OrderType.LIMIT,
+                    FixedPoint.fromBigDecimal(price), 0, 0, FixedPoint.fromBigDecimal(quantity), orderId,
+                    TimeInForce.GTC, 0);
+            OrderMatcher.match(book, incoming, orderId);
+
+            FillLog fills = book.getFills();
+            for (int i = 0; i < fills.size(); i++) {
+                Fill fill = fills.get(i);
+                BigDecimal[] buy = reference.get(fill.getBuyOrderId());
+                BigDecimal[] sell = reference.get(fill.getSellOrderId());
+                BigDecimal[] resting = reference.get(fill.getResting().getOrderId());
+
+                // At the resting price, for whatever is left on the smaller side
+                BigDecimal expectedQuantity = buy[1].subtract(buy[2]).min(sell[1].subtract(sell[2]));
+                assertEquals(resting[0].setScale(4), FixedPoint.toBigDecimal(fill.getPrice()));
+                assertEquals(expectedQuantity.setScale(4), FixedPoint.toBigDecimal(fill.getQuantity()));
+                assertEquals(expectedQuantity.multiply(resting[0]).setScale(4, RoundingMode.HALF_UP),
+                        FixedPoint.toBigDecimal(FixedPoint.multiply(fill.getQuantity(), fill.getPrice())));
+
+                for (BigDecimal[] filled : List.of(buy, sell)) {
+                    BigDecimal newFilled = filled[2].add(expectedQuantity);
+                    filled[3] = filled[3].multiply(filled[2]).add(expectedQuantity.multiply(resting[0]))
+                            .divide(newFilled, 4, RoundingMode.HALF_UP);
+                    filled[2] = newFilled;
+                }
+                // The incoming order is checked once its fills are all applied
+                assertEquals(resting[2].setScale(4), FixedPoint.toBigDecimal(fill.getResting().getFilledQuantity()));
+                assertEquals(resting[3], FixedPoint.toBigDecimal(fill.getResting().getAveragePrice()));
+            }
+
+            fillCount += fills.size();
+            BigDecimal[] expected = reference.get(orderId);
+            assertEquals(expected[2].setScale(4), FixedPoint.toBigDecimal(incoming.getFilledQuantity()));
+            assertEquals(expected[3].setScale(4), FixedPoint.toBigDecimal(incoming.getAveragePrice()));
+            fills.clear();
+            if (!incoming.isFilled()) {
+                book.addOrder(incoming);
+            }
+        }
+        assertTrue(fillCount > 1_000);
+    }
+
+    private static BigDecimal randomDecimal(Random random, int maxWhole) {
+        long unscaled = 1 + (long) (random.nextDouble() * maxWhole * FixedPoint.ONE);
+        return BigDecimal.valueOf(unscaled, 4);
+    }
+}
@@ -0,0 +1,38 @@
+package com.trading.engine.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdGeneratorTest {
+
+    @Test
+    void idsIncreaseAndCarryTheNode() {
+        IdGenerator generator = new IdGenerator(5);
+        long previous = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertEquals(5, (id >>> IdGenerator.SEQUENCE_BITS) & IdGenerator.MAX_NODE);
+            previous = id;
+        }
+    }
+
+    @Test
+    void advancePastSkipsIdsIssuedAhead() {
+        IdGenerator generator = new IdGenerator(1);
+        long ahead = generator.nextId() + (1_000_000L << (IdGenerator.NODE_BITS + IdGenerator.SEQUENCE_BITS));
+        generator.advancePast(ahead);
+        assertTrue(generator.nextId() > ahead);
+    }
+
+    @Test
+    void parsesOnlyWhatItFormats() {
+        long id = new IdGenerator(0).nextId();
+        assertEquals(id, IdGenerator.parse(IdGenerator.format(id)));
+        assertEquals(-1, IdGenerator.parse("ORDER_1"));
+        assertEquals(-1, IdGenerator.parse(""));
+        assertEquals(-1, IdGenerator.parse("99999999999999999999"));
+    }
+}
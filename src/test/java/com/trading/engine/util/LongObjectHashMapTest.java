@@ -0,0 +1,37 @@
+package com.trading.engine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(42);
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            // Narrow key range so removes hit and probe chains collide
+            long key = random.nextInt(5_000) * 4096L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long key = 0; key < 5_000 * 4096L; key += 4096) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEachValue(value -> visited.put(value, value));
+        assertEquals(expected.size(), visited.size());
+    }
+}